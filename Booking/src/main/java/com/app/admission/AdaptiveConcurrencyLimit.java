@@ -0,0 +1,81 @@
+package com.app.admission;
+
+/**
+ * Limit of concurrent requests which follows the observed latency. The
+ * shortest latency of recent requests is taken as the latency without
+ * queueing; while requests take longer than that the limit shrinks in
+ * proportion, while they do not it grows by a small headroom. A busy database
+ * pool so lowers the limit before requests pile up on it.
+ */
+class AdaptiveConcurrencyLimit {
+
+	/** latency above the shortest one which still counts as no queueing */
+	private static final double TOLERANCE = 1.5;
+
+	/** weight of the newest estimate in the limit */
+	private static final double SMOOTHING = 0.2;
+
+	/** no of samples after which the shortest latency is measured again */
+	private static final int PROBE_SAMPLES = 1000;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private double limit;
+
+	private int inFlight;
+
+	/** shortest latency of the current probe window in nanoseconds */
+	private long noLoadNanos = Long.MAX_VALUE;
+
+	/** shortest latency seen so far in the current probe window */
+	private long windowMinNanos = Long.MAX_VALUE;
+
+	private int samples;
+
+	AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+		this.limit = initialLimit;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+	}
+
+	/** @return true if the request may start, it has to be released then */
+	synchronized boolean tryAcquire() {
+		if (inFlight >= (int) limit) {
+			return false;
+		}
+		inFlight++;
+		return true;
+	}
+
+	/**
+	 * This method ends a request and adapts the limit to its latency
+	 * 
+	 * @param latencyNanos time the request took
+	 */
+	synchronized void release(long latencyNanos) {
+		inFlight--;
+		latencyNanos = Math.max(latencyNanos, 1);
+		windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+		noLoadNanos = Math.min(noLoadNanos, latencyNanos);
+		if (++samples >= PROBE_SAMPLES) {
+			/** start over so a permanently slower backend becomes the new normal */
+			noLoadNanos = windowMinNanos;
+			windowMinNanos = Long.MAX_VALUE;
+			samples = 0;
+		}
+		double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * noLoadNanos / latencyNanos));
+		double estimate = limit * gradient + Math.sqrt(limit);
+		limit = Math.max(minLimit, Math.min(maxLimit, (1 - SMOOTHING) * limit + SMOOTHING * estimate));
+	}
+
+	synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	synchronized int getInFlight() {
+		return inFlight;
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.app.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.app.exception.InvalidDataException;
+import com.app.exception.TooManyRequestsException;
+import com.app.inventory.SeatInventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admission control in front of the booking endpoints. A request for seats of a
+ * screen the inventory shows as sold out is rejected without touching the
+ * database, except joining the waitlist which is meant for sold out screens. The
+ * requests of one screen are limited by a token bucket of the
+ * screen and all the booking requests together by a concurrency limit which
+ * shrinks when their latency grows. A request which is not admitted gets 429
+ * with a Retry-After header.
+ */
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+	/** request attribute holding the start time of an admitted request */
+	private static final String ADMITTED_AT = AdmissionInterceptor.class.getName() + ".admittedAt";
+
+	/** path of joining the waitlist, it is only limited by rate and concurrency */
+	private static final String WAITLIST_PATH = "/waitlist";
+
+	private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+	/** resident seat inventory telling which screens are sold out */
+	@Autowired
+	private SeatInventory seatInventory;
+
+	/** switched off every request is admitted */
+	@Value("${booking.admission.enabled:true}")
+	private boolean enabled;
+
+	/** no of requests per second one screen admits */
+	@Value("${booking.admission.screen-rate:50}")
+	private double screenRate;
+
+	/** no of requests one screen admits at once after being idle */
+	@Value("${booking.admission.screen-burst:100}")
+	private double screenBurst;
+
+	/** token bucket of every screen which got requests */
+	private final Map<Integer, TokenBucket> buckets = new ConcurrentHashMap<Integer, TokenBucket>();
+
+	private final AdaptiveConcurrencyLimit concurrencyLimit;
+
+	private final Counter soldOut;
+
+	private final Counter rateLimited;
+
+	private final Counter concurrencyLimited;
+
+	public AdmissionInterceptor(@Value("${booking.admission.initial-limit:50}") int initialLimit,
+			@Value("${booking.admission.min-limit:8}") int minLimit,
+			@Value("${booking.admission.max-limit:200}") int maxLimit, MeterRegistry registry) {
+		this.concurrencyLimit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit);
+		this.soldOut = rejected(registry, "sold_out");
+		this.rateLimited = rejected(registry, "screen_rate");
+		this.concurrencyLimited = rejected(registry, "concurrency");
+		Gauge.builder("booking.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+				.description("no of booking requests admitted at the same time").register(registry);
+		Gauge.builder("booking.admission.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+				.description("no of admitted booking requests in progress").register(registry);
+	}
+
+	private static Counter rejected(MeterRegistry registry, String reason) {
+		return Counter.builder("booking.admission.rejected").tag("reason", reason)
+				.description("no of booking requests not admitted").register(registry);
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+			throws InvalidDataException, TooManyRequestsException {
+		/** an async booking was admitted when it was dispatched the first time */
+		if (!enabled || request.getDispatcherType() == DispatcherType.ASYNC) {
+			return true;
+		}
+		long now = System.nanoTime();
+		Integer screenId = screenIdOf(request);
+		if (screenId != null) {
+			int count = seatCountOf(request);
+			if (count > 0 && !WAITLIST_PATH.equals(PATH_HELPER.getPathWithinApplication(request))
+					&& seatInventory.isSoldOut(screenId, count)) {
+				soldOut.increment();
+				throw new InvalidDataException("Not enough seats are available on this screen, join the waitlist");
+			}
+			long wait = buckets.computeIfAbsent(screenId, id -> new TokenBucket(screenRate, screenBurst, now))
+					.tryAcquire(now);
+			if (wait > 0) {
+				rateLimited.increment();
+				throw new TooManyRequestsException("Too many requests for this screen, try again later",
+						Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+			}
+		}
+		if (!concurrencyLimit.tryAcquire()) {
+			concurrencyLimited.increment();
+			throw new TooManyRequestsException("Too many booking requests in progress, try again later", 1);
+		}
+		request.setAttribute(ADMITTED_AT, now);
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		Object admittedAt = request.getAttribute(ADMITTED_AT);
+		if (admittedAt != null) {
+			request.removeAttribute(ADMITTED_AT);
+			concurrencyLimit.release(System.nanoTime() - (Long) admittedAt);
+		}
+	}
+
+	private static Integer screenIdOf(HttpServletRequest request) {
+		try {
+			String screenId = request.getParameter("screenId");
+			return screenId == null ? null : Integer.valueOf(screenId);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/** no of seats asked for by the SeatList or count parameter, 0 if unknown */
+	private static int seatCountOf(HttpServletRequest request) {
+		String[] seatLists = request.getParameterValues("SeatList");
+		if (seatLists != null) {
+			int count = 0;
+			for (String seatList : seatLists) {
+				count += seatList.split(",").length;
+			}
+			return count;
+		}
+		try {
+			String count = request.getParameter("count");
+			return count == null ? 0 : Integer.parseInt(count);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.app.admission;
+
+/**
+ * Token bucket limiting the rate of requests of one screen. Tokens are added at
+ * a fixed rate up to the burst size and every admitted request takes one.
+ */
+class TokenBucket {
+
+	/** no of tokens added per nanosecond */
+	private final double tokensPerNano;
+
+	/** largest no of tokens the bucket holds */
+	private final double burst;
+
+	private double tokens;
+
+	private long refilledAt;
+
+	TokenBucket(double tokensPerSecond, double burst, long now) {
+		this.tokensPerNano = tokensPerSecond / 1e9;
+		this.burst = burst;
+		this.tokens = burst;
+		this.refilledAt = now;
+	}
+
+	/**
+	 * This method takes a token if there is one
+	 * 
+	 * @param now current time in nanoseconds
+	 * @return 0 if a token was taken, otherwise nanoseconds until the next token
+	 */
+	synchronized long tryAcquire(long now) {
+		tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+		refilledAt = now;
+		if (tokens >= 1) {
+			tokens -= 1;
+			return 0;
+		}
+		return (long) Math.ceil((1 - tokens) / tokensPerNano);
+	}
+
+}
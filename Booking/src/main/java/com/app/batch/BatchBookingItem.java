@@ -0,0 +1,44 @@
+package com.app.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seats of one screen asked for in a batch booking
+ */
+public class BatchBookingItem {
+
+	private int screenId;
+
+	private List<Integer> seatIds = new ArrayList<Integer>();
+
+	public BatchBookingItem() {
+	}
+
+	public BatchBookingItem(int screenId, List<Integer> seatIds) {
+		this.screenId = screenId;
+		this.seatIds = seatIds;
+	}
+
+	public int getScreenId() {
+		return screenId;
+	}
+
+	public void setScreenId(int screenId) {
+		this.screenId = screenId;
+	}
+
+	public List<Integer> getSeatIds() {
+		return seatIds;
+	}
+
+	public void setSeatIds(List<Integer> seatIds) {
+		this.seatIds = seatIds;
+	}
+
+	@Override
+	public String toString() {
+		return screenId + "=" + seatIds;
+	}
+
+}
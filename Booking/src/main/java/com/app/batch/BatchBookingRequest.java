@@ -0,0 +1,49 @@
+package com.app.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch booking of seats of several screens for one user. An atomic batch
+ * books every item or none of them, otherwise every item is booked or
+ * rejected on its own.
+ */
+public class BatchBookingRequest {
+
+	private int userId;
+
+	/** true to book all the items or none of them */
+	private boolean atomic = true;
+
+	private List<BatchBookingItem> items = new ArrayList<BatchBookingItem>();
+
+	public int getUserId() {
+		return userId;
+	}
+
+	public void setUserId(int userId) {
+		this.userId = userId;
+	}
+
+	public boolean isAtomic() {
+		return atomic;
+	}
+
+	public void setAtomic(boolean atomic) {
+		this.atomic = atomic;
+	}
+
+	public List<BatchBookingItem> getItems() {
+		return items;
+	}
+
+	public void setItems(List<BatchBookingItem> items) {
+		this.items = items;
+	}
+
+	@Override
+	public String toString() {
+		return userId + ":" + atomic + ":" + items;
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.app.batch;
+
+import java.util.List;
+
+/**
+ * Outcome of one item of a batch booking, either the booking id or the reason
+ * the item was rejected
+ */
+public class BatchBookingResult {
+
+	private final int screenId;
+
+	private final List<Integer> seatIds;
+
+	/** booking id or null if the item was rejected */
+	private final Integer bookingId;
+
+	/** reason of the rejection or null if the item was booked */
+	private final String error;
+
+	private BatchBookingResult(int screenId, List<Integer> seatIds, Integer bookingId, String error) {
+		this.screenId = screenId;
+		this.seatIds = seatIds;
+		this.bookingId = bookingId;
+		this.error = error;
+	}
+
+	/** @return result of a booked item */
+	public static BatchBookingResult booked(BatchBookingItem item, int bookingId) {
+		return new BatchBookingResult(item.getScreenId(), item.getSeatIds(), bookingId, null);
+	}
+
+	/** @return result of a rejected item */
+	public static BatchBookingResult rejected(BatchBookingItem item, String error) {
+		return new BatchBookingResult(item.getScreenId(), item.getSeatIds(), null, error);
+	}
+
+	public int getScreenId() {
+		return screenId;
+	}
+
+	public List<Integer> getSeatIds() {
+		return seatIds;
+	}
+
+	public Integer getBookingId() {
+		return bookingId;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+}
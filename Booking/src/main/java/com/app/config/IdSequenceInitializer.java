@@ -0,0 +1,48 @@
+package com.app.config;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the id sequence tables of booking and booked seat past the ids already
+ * present. Rows inserted while the tables used auto increment ids would
+ * otherwise collide with the first blocks handed out by the sequences.
+ *
+ */
+@Component
+public class IdSequenceInitializer {
+
+	private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+	/** sequence table, entity table and id column of every pooled id */
+	private static final String[][] SEQUENCES = { { "booking_seq", "booking", "booking_id" },
+			{ "booked_seat_seq", "booked_seat", "selected_seat_id" } };
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/** the sequence tables are created by hibernate before this runs */
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@PostConstruct
+	public void alignSequences() {
+		for (String[] sequence : SEQUENCES) {
+			try {
+				jdbcTemplate.update("update " + sequence[0] + " set next_val = greatest(next_val, (select coalesce(max("
+						+ sequence[2] + "), 0) + 1 from " + sequence[1] + "))");
+			} catch (DataAccessException e) {
+				// the database has real sequences, nothing to align
+				log.debug("Unable to align id sequence {}", sequence[0], e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.app.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.app.admission.AdmissionInterceptor;
+import com.app.routing.ScreenForwardingInterceptor;
+
+/**
+ * This configuration forwards the requests of a screen to the booking instance
+ * owning the screen and then admits the booking requests the instance can take.
+ */
+@Configuration
+public class InterceptorConfiguration implements WebMvcConfigurer {
+
+	@Autowired
+	private ScreenForwardingInterceptor screenForwardingInterceptor;
+
+	@Autowired
+	private AdmissionInterceptor admissionInterceptor;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(screenForwardingInterceptor);
+		registry.addInterceptor(admissionInterceptor).addPathPatterns("/book", "/book/**", "/hold", "/confirm/**",
+				"/deleteBooking/**", "/waitlist");
+	}
+
+}
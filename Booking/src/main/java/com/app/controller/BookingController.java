@@ -1,24 +1,43 @@
 package com.app.controller;
 
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.app.batch.BatchBookingRequest;
+import com.app.batch.BatchBookingResult;
 import com.app.entity.BookedSeat;
 import com.app.entity.Booking;
+import com.app.entity.WaitlistEntry;
 import com.app.exception.InvalidDataException;
 import com.app.exception.NotFoundException;
+import com.app.history.BookingHistory;
+import com.app.history.BookingHistoryPage;
+import com.app.hold.SeatHold;
+import com.app.idempotency.IdempotencyCache;
+import com.app.pipeline.BookingSequencer;
 import com.app.service.BookingService;
+import com.app.service.ConflictRetryPolicy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -34,38 +53,317 @@ public class BookingController {
 	@Autowired
 	BookingService bookingService;
 
+	/** single writer pipeline used in sequenced mode */
+	@Autowired
+	private BookingSequencer bookingSequencer;
+
+	/** direct books on the request thread, sequenced queues to the writer of the screen */
+	@Value("${booking.execution-mode:direct}")
+	private String executionMode;
+
+	/** retry of booking calls failing on concurrent changes of the seats */
+	@Autowired
+	private ConflictRetryPolicy conflictRetryPolicy;
+
+	/** auto wired idempotency cache for answering retried requests */
+	@Autowired
+	private IdempotencyCache idempotencyCache;
+
+	/** auto wired object mapper writing the lines of a booking export */
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/** no of bookings read per query while exporting the history of a user */
+	@Value("${booking.history.max-page-size:100}")
+	private int exportPageSize;
+
 	/**
 	 * In this method we are trying to book the movie depending upon userId and
-	 * screen id and the no's of selected seat
+	 * screen id and the no's of selected seat, a retry sent with the same
+	 * Idempotency-Key header gets the booking of the first request back. In
+	 * sequenced mode the request is queued to the writer owning the screen and the
+	 * request thread is freed until the booking is committed
 	 * 
 	 * @param userId
 	 * @param screenId
 	 * @param seat
-	 * @return Object of booking having details BookingId and user Info(if
+	 * @param idempotencyKey
+	 * @return future of booking having details BookingId and user Info(if
 	 *         successful) if user or screen id is incorrect @throws
 	 *         NotFoundException
 	 */
 	@GetMapping("/book")
 	@ApiOperation("Book selected seats with given screenId and userId")
-	@ApiResponses(value = { @ApiResponse(code = 200, message = "seats booked", response = String.class) })
-	public Booking bookTheMovie(@RequestParam("userId") int userid, @RequestParam("screenId") int screenId,
-			@RequestParam("SeatList") List<Integer> seat) throws InvalidDataException, NotFoundException {
-		return bookingService.bookTheMovie(userid, screenId, seat);
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "seats booked", response = Booking.class),
+			@ApiResponse(code = 409, message = "seats changed by a concurrent request") })
+	public CompletableFuture<Booking> bookTheMovie(@RequestParam("userId") int userid,
+			@RequestParam("screenId") int screenId, @RequestParam("SeatList") List<Integer> seat,
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
+			throws InvalidDataException, NotFoundException {
+		return idempotencyCache.executeAsync(idempotencyKey, "book:" + userid + ":" + screenId + ":" + seat, () -> {
+			if ("sequenced".equals(executionMode)) {
+				return bookingSequencer.submit(userid, screenId, seat);
+			}
+			return CompletableFuture.completedFuture(conflictRetryPolicy.call("book", String.valueOf(screenId),
+					() -> bookingService.bookTheMovie(userid, screenId, seat)));
+		});
+	}
+
+	/**
+	 * In this method we are booking the best block of adjacent seats of the
+	 * screen for the user, a retry sent with the same Idempotency-Key header gets
+	 * the booking of the first request back
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param count          no of seats to book
+	 * @param idempotencyKey
+	 * @return Object of booking having details BookingId and user Info if no row
+	 *         has enough adjacent seats @throws InvalidDataException
+	 */
+	@GetMapping("/book/auto")
+	@ApiOperation("Book the best available adjacent seats with given screenId and userId")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "seats booked", response = Booking.class),
+			@ApiResponse(code = 422, message = "no row has enough adjacent seats"),
+			@ApiResponse(code = 409, message = "seats changed by a concurrent request") })
+	public Booking bookBestAvailable(@RequestParam("userId") int userid, @RequestParam("screenId") int screenId,
+			@RequestParam("count") int count,
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
+			throws InvalidDataException, NotFoundException {
+		return idempotencyCache.execute(idempotencyKey, "bookAuto:" + userid + ":" + screenId + ":" + count,
+				() -> conflictRetryPolicy.call("bookAuto", String.valueOf(screenId),
+						() -> bookingService.bookBestAvailable(userid, screenId, count)));
+	}
+
+	/**
+	 * In this method we are booking any vacant seats of the screen for the user,
+	 * concurrent buyers get disjoint seats without blocking each other, a retry
+	 * sent with the same Idempotency-Key header gets the booking of the first
+	 * request back
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param count          no of seats to book
+	 * @param idempotencyKey
+	 * @return Object of booking having details BookingId and user Info if the
+	 *         screen has too few vacant seats @throws InvalidDataException
+	 */
+	@GetMapping("/book/any")
+	@ApiOperation("Book any vacant seats with given screenId and userId")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "seats booked", response = Booking.class),
+			@ApiResponse(code = 422, message = "too few vacant seats"),
+			@ApiResponse(code = 409, message = "seats changed by a concurrent request") })
+	public Booking bookAnySeats(@RequestParam("userId") int userid, @RequestParam("screenId") int screenId,
+			@RequestParam("count") int count,
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
+			throws InvalidDataException, NotFoundException {
+		return idempotencyCache.execute(idempotencyKey, "bookAny:" + userid + ":" + screenId + ":" + count,
+				() -> conflictRetryPolicy.call("bookAny", String.valueOf(screenId),
+						() -> bookingService.bookAnySeats(userid, screenId, count)));
+	}
+
+	/**
+	 * In this method we are booking seats of several screens for one user in one
+	 * transaction, a retry sent with the same Idempotency-Key header gets the
+	 * results of the first request back
+	 * 
+	 * @param request        user, atomic flag and the screen and seats of every item
+	 * @param idempotencyKey
+	 * @return result of every item in the order of the items if an atomic batch
+	 *         has a rejected item @throws InvalidDataException
+	 */
+	@PostMapping("/book/batch")
+	@ApiOperation("Book seats of several screens for one user in one transaction")
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "result of every item", response = BatchBookingResult.class, responseContainer = "List") })
+	public List<BatchBookingResult> bookBatch(@RequestBody BatchBookingRequest request,
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
+			throws InvalidDataException, NotFoundException {
+		return idempotencyCache.execute(idempotencyKey, "bookBatch:" + request,
+				() -> conflictRetryPolicy.call("bookBatch", ConflictRetryPolicy.UNKNOWN_SCREEN,
+						() -> bookingService.bookBatch(request.getUserId(), request.getItems(), request.isAtomic())));
+	}
+
+	/**
+	 * In this method we are holding the selected seats for the user, the seats
+	 * are released again if the hold is not confirmed before it expires
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param seat
+	 * @param ttlSeconds time to live of the hold
+	 * @return active hold having hold id and expiry time if user or screen id is
+	 *         incorrect @throws NotFoundException
+	 */
+	@PostMapping("/hold")
+	@ApiOperation("Hold selected seats with given screenId and userId until they are confirmed")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "seats held", response = SeatHold.class) })
+	public SeatHold holdSeats(@RequestParam("userId") int userid, @RequestParam("screenId") int screenId,
+			@RequestParam("SeatList") List<Integer> seat,
+			@RequestParam(value = "ttlSeconds", defaultValue = "${booking.hold.ttl-seconds:600}") long ttlSeconds)
+			throws InvalidDataException, NotFoundException {
+		return bookingService.holdSeats(userid, screenId, seat, ttlSeconds);
+	}
+
+	/**
+	 * In this method we are booking the seats of an active hold
+	 * 
+	 * @param holdId
+	 * @return Object of booking having details BookingId and user Info if hold is
+	 *         expired or incorrect @throws NotFoundException
+	 */
+	@PostMapping("/confirm/{holdId}")
+	@ApiOperation("Book the seats of the hold with given hold id")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "seats booked", response = Booking.class),
+			@ApiResponse(code = 409, message = "seats changed by a concurrent request") })
+	public Booking confirmHold(@PathVariable("holdId") String holdId) throws InvalidDataException, NotFoundException {
+		Integer screenId = SeatHold.screenIdOf(holdId);
+		return conflictRetryPolicy.call("confirm",
+				screenId == null ? ConflictRetryPolicy.UNKNOWN_SCREEN : String.valueOf(screenId),
+				() -> bookingService.confirmHold(holdId));
+	}
+
+	/**
+	 * In this method we are releasing the seats of an active hold
+	 * 
+	 * @param holdId
+	 * @return String i.e " hold with given id is released " if hold is expired or
+	 *         incorrect @throws NotFoundException
+	 */
+	@DeleteMapping("/hold/{holdId}")
+	@ApiOperation("release the hold with given hold id")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "hold released", response = String.class) })
+	public String releaseHold(@PathVariable("holdId") String holdId) throws NotFoundException {
+		return bookingService.releaseHold(holdId);
+	}
+
+	/**
+	 * In this method we are putting the user on the waitlist of a sold out screen
+	 * instead of polling for cancellations
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param count    no of seats the user waits for
+	 * @return waiting entry having entry id if seats are available @throws
+	 *         InvalidDataException
+	 */
+	@PostMapping("/waitlist")
+	@ApiOperation("Wait for seats of a sold out screen, seats freed by cancellations are booked in joining order")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "waiting", response = WaitlistEntry.class) })
+	public WaitlistEntry joinWaitlist(@RequestParam("userId") int userid, @RequestParam("screenId") int screenId,
+			@RequestParam("count") int count) throws InvalidDataException, NotFoundException {
+		return bookingService.joinWaitlist(userid, screenId, count);
+	}
+
+	/**
+	 * In this method we are getting the waitlist entry, a served entry has its
+	 * booking id
+	 * 
+	 * @param entryId
+	 * @return waitlist entry if entry is incorrect @throws NotFoundException
+	 */
+	@GetMapping("/waitlist/{entryId}")
+	@ApiOperation("Get the waitlist entry with given entry id")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "waitlist entry", response = WaitlistEntry.class) })
+	public WaitlistEntry getWaitlistEntry(@PathVariable("entryId") long entryId) throws NotFoundException {
+		return bookingService.getWaitlistEntry(entryId);
 	}
 
 	/**
-	 * In this method we are canceling the booking with the help of bookingId
+	 * In this method we are taking the user off the waitlist
+	 * 
+	 * @param entryId
+	 * @return String i.e " waitlist entry with given id is removed " if entry is
+	 *         incorrect @throws NotFoundException
+	 */
+	@DeleteMapping("/waitlist/{entryId}")
+	@ApiOperation("leave the waitlist with given entry id")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "waitlist left", response = String.class) })
+	public String leaveWaitlist(@PathVariable("entryId") long entryId) throws InvalidDataException, NotFoundException {
+		return bookingService.leaveWaitlist(entryId);
+	}
+
+	/**
+	 * In this method we are canceling the booking with the help of bookingId, a
+	 * retry sent with the same Idempotency-Key header gets the first answer back
 	 * 
 	 * @param BookingId
+	 * @param idempotencyKey
 	 * @return String i.e " booking with given id is cancelled " if booking with
 	 *         given bookingId is not present @throw NotFoundException
 	 * 
 	 */
 	@DeleteMapping("/deleteBooking/{bookingId}")
 	@ApiOperation("cancel the booking with given booking id")
-	@ApiResponses(value = { @ApiResponse(code = 200, message = "booking canceled", response = String.class) })
-	public String cancelTheBooking(@PathVariable("bookingId") int bookingId) throws NotFoundException {
-		return bookingService.deleteBooking(bookingId);
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "booking canceled", response = String.class),
+			@ApiResponse(code = 409, message = "seats changed by a concurrent request") })
+	public String cancelTheBooking(@PathVariable("bookingId") int bookingId,
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
+			throws InvalidDataException, NotFoundException {
+		return idempotencyCache.execute(idempotencyKey, "deleteBooking:" + bookingId,
+				() -> conflictRetryPolicy.call("cancel", ConflictRetryPolicy.UNKNOWN_SCREEN,
+						() -> bookingService.deleteBooking(bookingId)));
+	}
+
+	/**
+	 * In this method we are getting one page of the bookings of the user ordered
+	 * by booking id, the next page is asked for with the next value of this page
+	 * 
+	 * @param userId
+	 * @param after  booking id to continue after, 0 for the first page
+	 * @param limit  no of bookings in the page
+	 * @return page of bookings with their screen and seats if user is incorrect
+	 *         @throws NotFoundException
+	 */
+	@GetMapping("/bookings/user/{userId}")
+	@ApiOperation("Get one page of the bookings of the user with given user id")
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "page of bookings", response = BookingHistoryPage.class) })
+	public BookingHistoryPage getBookingsOfUser(@PathVariable("userId") int userId,
+			@RequestParam(value = "after", defaultValue = "0") int after,
+			@RequestParam(value = "limit", defaultValue = "20") int limit)
+			throws InvalidDataException, NotFoundException {
+		return bookingService.getBookingsOfUser(userId, after, limit);
+	}
+
+	/**
+	 * In this method we are exporting all the bookings of the user as newline
+	 * delimited json, the bookings are read and written page by page so the whole
+	 * history is never held in memory
+	 * 
+	 * @param userId
+	 * @return stream of bookings, one json object per line if user is incorrect
+	 *         @throws NotFoundException
+	 */
+	@GetMapping(value = "/bookings/user/{userId}/export", produces = "application/x-ndjson")
+	@ApiOperation("Export all the bookings of the user with given user id as newline delimited json")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "bookings of the user, one per line") })
+	public ResponseEntity<StreamingResponseBody> exportBookingsOfUser(@PathVariable("userId") int userId)
+			throws InvalidDataException, NotFoundException {
+
+		/** the first page is read before streaming so an unknown user still gets 404 */
+		BookingHistoryPage first = bookingService.getBookingsOfUser(userId, 0, exportPageSize);
+		StreamingResponseBody body = out -> {
+			BookingHistoryPage page = first;
+			writeLines(page, out);
+			while (page.getNext() != null) {
+				try {
+					page = bookingService.getBookingsOfUser(userId, page.getNext(), exportPageSize);
+				} catch (InvalidDataException | NotFoundException e) {
+					throw new IllegalStateException(e);
+				}
+				writeLines(page, out);
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+	}
+
+	private void writeLines(BookingHistoryPage page, OutputStream out) throws IOException {
+		for (BookingHistory booking : page.getBookings()) {
+			out.write(objectMapper.writeValueAsBytes(booking));
+			out.write('\n');
+		}
+		out.flush();
 	}
 
 }
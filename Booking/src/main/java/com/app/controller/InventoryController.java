@@ -0,0 +1,42 @@
+package com.app.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.app.exception.NotFoundException;
+import com.app.inventory.SeatInventory;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+@Api(value = "InventoryControllerAPI", produces = MediaType.APPLICATION_JSON_VALUE)
+@CrossOrigin(origins = "http://localhost:4200", allowedHeaders = "*")
+@RestController
+public class InventoryController {
+
+	/** auto wired seat inventory for reading seat availability from memory */
+	@Autowired
+	private SeatInventory seatInventory;
+
+	/**
+	 * This method is to get all available seats from given screen, it is answered
+	 * from the resident seat inventory without querying the seat table
+	 * 
+	 * @param screenId
+	 * @return no of empty seats if screen has no seats @throws NotFoundException
+	 */
+	@GetMapping("/inventory/available/{screenId}")
+	@ApiOperation("Get count of available seats of selected screen from the seat inventory")
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "count of all available seats", response = Integer.class) })
+	public Integer getAvailableSeats(@PathVariable("screenId") int screenId) throws NotFoundException {
+		return seatInventory.freeCount(screenId);
+	}
+
+}
@@ -7,6 +7,9 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -15,7 +18,6 @@ import lombok.ToString;
 
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 
 /**
@@ -33,10 +35,15 @@ import javax.persistence.Id;
 @Setter
 @AllArgsConstructor
 public class BookedSeat {
-	/** This is primary key which starts from 1 */
-
+	/**
+	 * This is primary key which starts from 1, ids are reserved in blocks of 50 so
+	 * that inserts can be batched
+	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(generator = "booked_seat_seq")
+	@GenericGenerator(name = "booked_seat_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "booked_seat_seq"),
+			@Parameter(name = "increment_size", value = "50"), @Parameter(name = "optimizer", value = "pooled-lo") })
 	int selectedSeatId;
 	/**
 	 * This field contains booking id generated for every user at the time of
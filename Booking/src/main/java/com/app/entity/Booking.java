@@ -9,14 +9,17 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -31,16 +34,22 @@ import lombok.ToString;
  * @EqualsAndHashcode and @toString for this Booking entity
  */
 @Entity
-@Table(name = "booking")
+@Table(name = "booking", indexes = @Index(name = "idx_booking_user_booking", columnList = "user_id, booking_id"))
 @ToString
 @EqualsAndHashCode
 @Setter
 @Getter
 @AllArgsConstructor
 public class Booking {
-	/** bookingId is primary key starting from 1 */
+	/**
+	 * bookingId is primary key starting from 1, ids are reserved in blocks of 50
+	 * so that inserts can be batched
+	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "booking_seq")
+	@GenericGenerator(name = "booking_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "booking_seq"), @Parameter(name = "increment_size", value = "50"),
+			@Parameter(name = "optimizer", value = "pooled-lo") })
 	@Column(name = "booking_id")
 	private int bookingId;
 	
@@ -0,0 +1,108 @@
+package com.app.entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * OutboxEvent entity having a booking or cancellation waiting to be published.
+ * Events are written in the transaction of the booking itself so an event
+ * exists exactly when the booking change was committed. Lambok library
+ * provides
+ * 
+ * @setter Setters for all the fields of entity
+ * @getter getters for all the fields of entity
+ * @EqualsAndHashcode and @toString for this OutboxEvent entity
+ */
+@Entity
+@Table(name = "outbox_event")
+@ToString
+@EqualsAndHashCode
+@Setter
+@Getter
+@NoArgsConstructor
+public class OutboxEvent {
+
+	/** event type of a booking */
+	public static final String BOOKED = "BOOKED";
+
+	/** event type of a cancelled booking */
+	public static final String CANCELLED = "CANCELLED";
+
+	/**
+	 * eventId is primary key giving the order of events, ids are reserved in
+	 * blocks of 50 so that inserts can be batched
+	 */
+	@Id
+	@GeneratedValue(generator = "outbox_event_seq")
+	@GenericGenerator(name = "outbox_event_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "outbox_event_seq"),
+			@Parameter(name = "increment_size", value = "50"), @Parameter(name = "optimizer", value = "pooled-lo") })
+	@Column(name = "event_id")
+	private long eventId;
+
+	/** This field contains BOOKED or CANCELLED */
+	@Column(name = "event_type", length = 16, nullable = false)
+	private String eventType;
+
+	/** This field contains booking id the event belongs to */
+	@Column(name = "booking_id", nullable = false)
+	private int bookingId;
+
+	/** This field contains screen id of the booked seats */
+	@Column(name = "screen_id", nullable = false)
+	private int screenId;
+
+	/** This field contains comma separated seat ids whose status changed */
+	@Column(name = "seat_ids", length = 4000, nullable = false)
+	private String seatIds;
+
+	/** This field contains the time the booking change was made */
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "created_at", nullable = false)
+	private Date createdAt;
+
+	public OutboxEvent(String eventType, int bookingId, int screenId, Collection<Integer> seatIds) {
+		this.eventType = eventType;
+		this.bookingId = bookingId;
+		this.screenId = screenId;
+		StringBuilder joined = new StringBuilder();
+		for (Integer seatId : seatIds) {
+			if (joined.length() > 0) {
+				joined.append(',');
+			}
+			joined.append(seatId);
+		}
+		this.seatIds = joined.toString();
+		this.createdAt = new Date();
+	}
+
+	/** @return seat ids whose status changed */
+	public List<Integer> seatIdList() {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (String seatId : seatIds.split(",")) {
+			if (!seatId.isEmpty()) {
+				ids.add(Integer.valueOf(seatId));
+			}
+		}
+		return ids;
+	}
+}
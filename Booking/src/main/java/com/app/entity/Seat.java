@@ -1,17 +1,23 @@
 package com.app.entity;
 
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
 import javax.validation.constraints.NotNull;
 
 import lombok.AllArgsConstructor;
@@ -21,6 +27,7 @@ import lombok.Setter;
 import lombok.ToString;
 
 import javax.persistence.JoinColumn;
+import javax.persistence.Version;
 
 /**
  * Seat entity seat id and status of the seat . Lambok library provides
@@ -30,6 +37,7 @@ import javax.persistence.JoinColumn;
  * @EqualsAndHashcode and @toString for this User entity
  */
 @Entity
+@Table(name = "seat", indexes = @Index(name = "idx_seat_updated_at", columnList = "updated_at"))
 @Getter
 @Setter
 @ToString
@@ -56,12 +64,56 @@ public class Seat {
 	 */
 	boolean status;
 
+	/**
+	 * This field indicate the row of the seat, rows are counted from the front of
+	 * the screen starting at 0
+	 */
+	@Column(name = "seat_row")
+	Integer seatRow;
+
+	/** This field indicate the position of the seat in its row starting at 0 */
+	@Column(name = "seat_column")
+	Integer seatColumn;
+
+	/**
+	 * This field indicate the last time the row was changed, it is kept by the
+	 * database on every update and tells the seat inventory which seats changed
+	 * after its snapshot was taken
+	 */
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "updated_at", insertable = false, updatable = false, columnDefinition = "timestamp(3) default current_timestamp(3) on update current_timestamp(3) not null")
+	Date updatedAt;
+
+	/**
+	 * This field indicate the version of the row, it is raised on every update so
+	 * a concurrent change of the seat is detected instead of overwritten
+	 */
+	@Version
+	@Column(name = "version", columnDefinition = "bigint default 0 not null")
+	@EqualsAndHashCode.Exclude
+	long version;
+
 	public Seat(Screen screen, boolean status) {
 		super();
 		this.screen = screen;
 		this.status = status;
 	}
 
+	public Seat(Screen screen, boolean status, int seatRow, int seatColumn) {
+		super();
+		this.screen = screen;
+		this.status = status;
+		this.seatRow = seatRow;
+		this.seatColumn = seatColumn;
+	}
+
+	public Seat(int seat_id, Screen screen, boolean status) {
+		super();
+		this.seat_id = seat_id;
+		this.screen = screen;
+		this.status = status;
+	}
+
 	public Seat() {
 		// TODO Auto-generated constructor stub
 	}
@@ -0,0 +1,78 @@
+package com.app.entity;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * WaitlistEntry entity having a user waiting for seats of a sold out screen.
+ * Entries of a screen are served in the order they joined when a booking of the
+ * screen is cancelled, a served entry keeps the id of the booking made for it.
+ * Lambok library provides
+ * 
+ * @setter Setters for all the fields of entity
+ * @getter getters for all the fields of entity
+ * @EqualsAndHashcode and @toString for this WaitlistEntry entity
+ */
+@Entity
+@Table(name = "waitlist_entry", indexes = @Index(name = "idx_waitlist_screen_entry", columnList = "screen_id, booking_id, entry_id"))
+@ToString
+@EqualsAndHashCode
+@Setter
+@Getter
+@NoArgsConstructor
+public class WaitlistEntry {
+
+	/** entryId is primary key giving the order in which users joined */
+	@Id
+	@GeneratedValue(generator = "waitlist_entry_seq")
+	@GenericGenerator(name = "waitlist_entry_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "waitlist_entry_seq"),
+			@Parameter(name = "increment_size", value = "50"), @Parameter(name = "optimizer", value = "pooled-lo") })
+	@Column(name = "entry_id")
+	private long entryId;
+
+	/** This field contains user id of the waiting user */
+	@Column(name = "user_id", nullable = false)
+	private int userId;
+
+	/** This field contains screen id the user waits for */
+	@Column(name = "screen_id", nullable = false)
+	private int screenId;
+
+	/** This field contains no of seats the user waits for */
+	@Column(name = "seat_count", nullable = false)
+	private int seatCount;
+
+	/** This field contains the time the user joined the waitlist */
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "created_at", nullable = false)
+	private Date createdAt;
+
+	/** This field contains booking id made for the entry, null while waiting */
+	@Column(name = "booking_id")
+	private Integer bookingId;
+
+	public WaitlistEntry(int userId, int screenId, int seatCount) {
+		this.userId = userId;
+		this.screenId = screenId;
+		this.seatCount = seatCount;
+		this.createdAt = new Date();
+	}
+}
@@ -0,0 +1,15 @@
+package com.app.exception;
+
+/**
+ * This is the custom exception class used when the seats of a screen were
+ * changed by a concurrent request and the request kept conflicting after its
+ * retries
+ */
+public class ConflictException extends InvalidDataException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ConflictException(String message) {
+		super(message);
+	}
+}
@@ -2,7 +2,9 @@ package com.app.exception;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -62,4 +64,41 @@ public class MovieAppicationExceptionHandler {
 		error.setResponseStatus(HttpStatus.NOT_FOUND);
 		return error;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * This method will handle a request which conflicted with concurrent changes
+	 * of the same seats, the status is sent as 409 so clients can tell it apart
+	 * from invalid data and send the request again.
+	 * 
+	 * @param ex
+	 * @return error message.
+	 */
+	@ExceptionHandler(ConflictException.class)
+	public ResponseEntity<ExceptionResponse> MyMessage(ConflictException ex, final HttpServletRequest request) {
+		ExceptionResponse error = new ExceptionResponse();
+		error.setErrorMessage(ex.getMessage());
+		error.setRequestedURI(request.getRequestURI());
+		error.setStatuscode(409);
+		error.setResponseStatus(HttpStatus.CONFLICT);
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+	}
+
+	/**
+	 * This method will handle a request which was not admitted, the status is
+	 * sent as 429 with a Retry-After header so clients back off.
+	 * 
+	 * @param ex
+	 * @return error message.
+	 */
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<ExceptionResponse> MyMessage(TooManyRequestsException ex,
+			final HttpServletRequest request) {
+		ExceptionResponse error = new ExceptionResponse();
+		error.setErrorMessage(ex.getMessage());
+		error.setRequestedURI(request.getRequestURI());
+		error.setStatuscode(429);
+		error.setResponseStatus(HttpStatus.TOO_MANY_REQUESTS);
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds())).body(error);
+	}
+}
@@ -0,0 +1,22 @@
+package com.app.exception;
+
+/**
+ * This is the custom exception class used when a request is not admitted
+ * because the screen or the service is overloaded
+ */
+public class TooManyRequestsException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	/** no of seconds the client should wait before sending the request again */
+	private final long retryAfterSeconds;
+
+	public TooManyRequestsException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
@@ -0,0 +1,35 @@
+package com.app.history;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One booking of a user with the screen and the seats it holds
+ */
+public class BookingHistory {
+
+	private final int bookingId;
+
+	private final int screenId;
+
+	/** booked seat ids in ascending order */
+	private final List<Integer> seatIds = new ArrayList<Integer>();
+
+	public BookingHistory(int bookingId, int screenId) {
+		this.bookingId = bookingId;
+		this.screenId = screenId;
+	}
+
+	public int getBookingId() {
+		return bookingId;
+	}
+
+	public int getScreenId() {
+		return screenId;
+	}
+
+	public List<Integer> getSeatIds() {
+		return seatIds;
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.app.history;
+
+import java.util.List;
+
+/**
+ * One page of the bookings of a user ordered by booking id. The next page is
+ * asked for with the booking id given in next, which is null on the last page.
+ */
+public class BookingHistoryPage {
+
+	private final List<BookingHistory> bookings;
+
+	/** booking id to continue after or null if there are no more bookings */
+	private final Integer next;
+
+	public BookingHistoryPage(List<BookingHistory> bookings, Integer next) {
+		this.bookings = bookings;
+		this.next = next;
+	}
+
+	public List<BookingHistory> getBookings() {
+		return bookings;
+	}
+
+	public Integer getNext() {
+		return next;
+	}
+
+}
@@ -0,0 +1,192 @@
+package com.app.hold;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Every level has the same no of buckets, a bucket
+ * of level n spans as many ticks as the whole level n - 1. A timeout is kept in
+ * the lowest level whose span covers its deadline and moves one level down when
+ * its bucket comes around, so scheduling and cancelling are O(1) and every
+ * timeout is moved at most once per level before it expires.
+ *
+ * @param <T> task stored with each timeout
+ */
+public class HierarchicalTimingWheel<T> {
+
+	/** no of bits of a bucket index */
+	private static final int BITS = 6;
+
+	/** no of buckets of every level */
+	private static final int WHEEL_SIZE = 1 << BITS;
+
+	private static final int MASK = WHEEL_SIZE - 1;
+
+	/** buckets of every level, each bucket is a circular list with a sentinel */
+	private final Timeout<T>[][] levels;
+
+	/** length of one tick in milliseconds */
+	private final long tickMs;
+
+	/** time in milliseconds at which tick zero started */
+	private final long startMs;
+
+	/** last tick which has been processed */
+	private long currentTick;
+
+	/** no of pending timeouts */
+	private int size;
+
+	/**
+	 * Parameterized constructor for timing wheel
+	 * 
+	 * @param tickMs     length of one tick in milliseconds
+	 * @param levelCount no of levels, the wheel covers tickMs * 64^levelCount
+	 *                   milliseconds before timeouts wait in the top level
+	 * @param startMs    current time in milliseconds
+	 */
+	@SuppressWarnings("unchecked")
+	public HierarchicalTimingWheel(long tickMs, int levelCount, long startMs) {
+		this.tickMs = tickMs;
+		this.startMs = startMs;
+		this.levels = new Timeout[levelCount][WHEEL_SIZE];
+		for (Timeout<T>[] level : levels) {
+			for (int i = 0; i < WHEEL_SIZE; i++) {
+				level[i] = new Timeout<T>(null, 0);
+				level[i].prev = level[i];
+				level[i].next = level[i];
+			}
+		}
+	}
+
+	/** @return no of pending timeouts */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * This method schedules the task to expire at given time
+	 * 
+	 * @param task
+	 * @param deadlineMs time in milliseconds at which the task expires
+	 * @return timeout which can be cancelled before it expires
+	 */
+	public synchronized Timeout<T> schedule(T task, long deadlineMs) {
+		long deadlineTick = Math.max((deadlineMs - startMs + tickMs - 1) / tickMs, currentTick + 1);
+		Timeout<T> timeout = new Timeout<T>(task, deadlineTick);
+		place(timeout);
+		size++;
+		return timeout;
+	}
+
+	/**
+	 * This method removes the timeout from the wheel
+	 * 
+	 * @param timeout
+	 * @return false if the timeout has already expired or been cancelled
+	 */
+	public synchronized boolean cancel(Timeout<T> timeout) {
+		if (timeout.next == null) {
+			return false;
+		}
+		unlink(timeout);
+		size--;
+		return true;
+	}
+
+	/**
+	 * This method processes every tick up to given time and hands the expired
+	 * tasks to the consumer outside of the wheel lock
+	 * 
+	 * @param nowMs    current time in milliseconds
+	 * @param onExpiry consumer of expired tasks
+	 */
+	public void advance(long nowMs, Consumer<T> onExpiry) {
+		List<T> expired = new ArrayList<T>();
+		synchronized (this) {
+			long targetTick = (nowMs - startMs) / tickMs;
+			while (currentTick < targetTick) {
+				currentTick++;
+				for (int level = levels.length - 1; level > 0; level--) {
+					if ((currentTick & ((1L << (level * BITS)) - 1)) == 0) {
+						cascade(levels[level][(int) (currentTick >>> (level * BITS)) & MASK]);
+					}
+				}
+				Timeout<T> bucket = levels[0][(int) currentTick & MASK];
+				while (bucket.next != bucket) {
+					Timeout<T> timeout = bucket.next;
+					unlink(timeout);
+					size--;
+					expired.add(timeout.task);
+				}
+			}
+		}
+		for (T task : expired) {
+			onExpiry.accept(task);
+		}
+	}
+
+	/** moves every timeout of the bucket to the level matching its deadline */
+	private void cascade(Timeout<T> bucket) {
+		while (bucket.next != bucket) {
+			Timeout<T> timeout = bucket.next;
+			unlink(timeout);
+			if (timeout.deadlineTick <= currentTick) {
+				timeout.deadlineTick = currentTick;
+			}
+			place(timeout);
+		}
+	}
+
+	private void place(Timeout<T> timeout) {
+		long delta = timeout.deadlineTick - currentTick;
+		int level = 0;
+		while (level < levels.length - 1 && delta >= (1L << ((level + 1) * BITS))) {
+			level++;
+		}
+		long tick = timeout.deadlineTick;
+		if (delta >= (1L << (levels.length * BITS))) {
+			/** beyond the span of the wheel, wait in the bucket the top level reaches last */
+			tick = currentTick + ((long) MASK << ((levels.length - 1) * BITS));
+		}
+		Timeout<T> bucket = levels[level][(int) (tick >>> (level * BITS)) & MASK];
+		timeout.prev = bucket.prev;
+		timeout.next = bucket;
+		bucket.prev.next = timeout;
+		bucket.prev = timeout;
+	}
+
+	private void unlink(Timeout<T> timeout) {
+		timeout.prev.next = timeout.next;
+		timeout.next.prev = timeout.prev;
+		timeout.prev = null;
+		timeout.next = null;
+	}
+
+	/**
+	 * Timeout of one task, it is a node of the bucket list it is kept in
+	 *
+	 * @param <T> task stored with the timeout
+	 */
+	public static class Timeout<T> {
+
+		private final T task;
+
+		private long deadlineTick;
+
+		private Timeout<T> prev;
+
+		private Timeout<T> next;
+
+		private Timeout(T task, long deadlineTick) {
+			this.task = task;
+			this.deadlineTick = deadlineTick;
+		}
+
+		public T getTask() {
+			return task;
+		}
+	}
+
+}
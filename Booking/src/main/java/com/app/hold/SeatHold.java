@@ -0,0 +1,94 @@
+package com.app.hold;
+
+import java.util.Date;
+import java.util.List;
+
+import com.app.hold.HierarchicalTimingWheel.Timeout;
+import com.app.inventory.SeatClaim;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Seats held for a user until the hold is confirmed or its time to live runs
+ * out. The seats stay claimed in the seat inventory while the hold is active.
+ */
+public class SeatHold {
+
+	/** id given to the client for confirming the hold, starts with the screen id */
+	private final String holdId;
+
+	/** user which holds the seats */
+	private final int userId;
+
+	/** screen of the held seats */
+	private final int screenId;
+
+	/** ids of the held seats */
+	private final List<Integer> seatIds;
+
+	/** time at which the hold expires */
+	private final Date expiresAt;
+
+	/** claim of the held seats in the seat inventory */
+	private final SeatClaim claim;
+
+	/** timeout of the hold in the timing wheel */
+	private Timeout<SeatHold> timeout;
+
+	public SeatHold(String holdId, int userId, int screenId, List<Integer> seatIds, Date expiresAt, SeatClaim claim) {
+		this.holdId = holdId;
+		this.userId = userId;
+		this.screenId = screenId;
+		this.seatIds = seatIds;
+		this.expiresAt = expiresAt;
+		this.claim = claim;
+	}
+
+	/**
+	 * This method reads the screen id the hold id starts with
+	 * 
+	 * @param holdId
+	 * @return screen id or null if hold id does not start with one
+	 */
+	public static Integer screenIdOf(String holdId) {
+		int end = holdId.indexOf('-');
+		try {
+			return end > 0 ? Integer.valueOf(holdId.substring(0, end)) : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public String getHoldId() {
+		return holdId;
+	}
+
+	public int getUserId() {
+		return userId;
+	}
+
+	public int getScreenId() {
+		return screenId;
+	}
+
+	public List<Integer> getSeatIds() {
+		return seatIds;
+	}
+
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	@JsonIgnore
+	public SeatClaim getClaim() {
+		return claim;
+	}
+
+	Timeout<SeatHold> getTimeout() {
+		return timeout;
+	}
+
+	void setTimeout(Timeout<SeatHold> timeout) {
+		this.timeout = timeout;
+	}
+
+}
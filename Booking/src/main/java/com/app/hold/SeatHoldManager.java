@@ -0,0 +1,135 @@
+package com.app.hold;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.app.exception.NotFoundException;
+import com.app.inventory.SeatClaim;
+
+/**
+ * Keeps the active seat holds. Every hold is scheduled in one hierarchical
+ * timing wheel driven by a single ticking thread, an expired hold gives its
+ * seats back to the seat inventory.
+ */
+@Component
+public class SeatHoldManager {
+
+	/** active holds keyed by hold id */
+	private final Map<String, SeatHold> holds = new ConcurrentHashMap<String, SeatHold>();
+
+	/** length of one tick of the timing wheel in milliseconds */
+	@Value("${booking.hold.tick-ms:100}")
+	private long tickMs;
+
+	/** no of levels of the timing wheel */
+	@Value("${booking.hold.wheel-levels:4}")
+	private int wheelLevels;
+
+	private HierarchicalTimingWheel<SeatHold> wheel;
+
+	private ScheduledExecutorService ticker;
+
+	@PostConstruct
+	public void start() {
+		wheel = new HierarchicalTimingWheel<SeatHold>(tickMs, wheelLevels, System.currentTimeMillis());
+		ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "seat-hold-expiry");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ticker.scheduleAtFixedRate(() -> wheel.advance(System.currentTimeMillis(), this::expire), tickMs, tickMs,
+				TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		ticker.shutdownNow();
+	}
+
+	/** @return active holds */
+	public Collection<SeatHold> getHolds() {
+		return holds.values();
+	}
+
+	/** @return no of active holds */
+	public int size() {
+		return holds.size();
+	}
+
+	/**
+	 * This method registers a hold of the claimed seats
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param seatIds
+	 * @param claim      claim of the seats in the seat inventory
+	 * @param ttlSeconds time to live of the hold
+	 * @return active hold
+	 */
+	public SeatHold hold(int userId, int screenId, Collection<Integer> seatIds, SeatClaim claim, long ttlSeconds) {
+		long expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds);
+		SeatHold hold = new SeatHold(screenId + "-" + UUID.randomUUID(), userId, screenId,
+				new ArrayList<Integer>(seatIds), new Date(expiresAt), claim);
+		hold.setTimeout(wheel.schedule(hold, expiresAt));
+		holds.put(hold.getHoldId(), hold);
+		return hold;
+	}
+
+	/**
+	 * This method checks whether the hold is active on this node
+	 * 
+	 * @param holdId
+	 * @return true if hold is active
+	 */
+	public boolean contains(String holdId) {
+		return holds.containsKey(holdId);
+	}
+
+	/**
+	 * This method removes the hold so it can be confirmed, the seats stay claimed
+	 * and belong to the caller from now on
+	 * 
+	 * @param holdId
+	 * @return removed hold if hold is not active @throws NotFoundException
+	 */
+	public SeatHold take(String holdId) throws NotFoundException {
+		SeatHold hold = holds.remove(holdId);
+		if (hold == null) {
+			throw new NotFoundException("Unable to find hold with given hold id, it may have expired");
+		}
+		wheel.cancel(hold.getTimeout());
+		return hold;
+	}
+
+	/**
+	 * This method cancels the hold and gives its seats back to the inventory
+	 * 
+	 * @param holdId
+	 * @return released hold if hold is not active @throws NotFoundException
+	 */
+	public SeatHold release(String holdId) throws NotFoundException {
+		SeatHold hold = take(holdId);
+		hold.getClaim().release();
+		return hold;
+	}
+
+	private void expire(SeatHold hold) {
+		if (holds.remove(hold.getHoldId(), hold)) {
+			hold.getClaim().release();
+		}
+	}
+
+}
@@ -0,0 +1,205 @@
+package com.app.idempotency;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+
+/**
+ * Results of calls made with an Idempotency-Key header. A retried call with the
+ * same key gets the stored result back without running again, a retry arriving
+ * while the first call is still running waits for its result. Failed calls are
+ * not stored so they can be retried. The cache holds a bounded no of keys and
+ * every key expires after a fixed time.
+ */
+@Component
+public class IdempotencyCache {
+
+	/** stored result of every key */
+	private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+	/**
+	 * keys in the order they were stored, which is also the order they expire. A
+	 * failed or replaced key stays queued until it reaches the head or the queue
+	 * is compacted, a queued entry is only live while its key still maps to it
+	 */
+	private final Queue<Entry> order = new ConcurrentLinkedQueue<Entry>();
+
+	/** no of queued entries which are no longer live */
+	private final AtomicInteger stale = new AtomicInteger();
+
+	/** maximum no of keys kept */
+	@Value("${booking.idempotency.max-entries:10000}")
+	private int maxEntries;
+
+	/** time after which a key is forgotten */
+	@Value("${booking.idempotency.ttl-seconds:3600}")
+	private long ttlSeconds;
+
+	/**
+	 * This method runs the call once per idempotency key and returns the stored
+	 * result to every retry
+	 * 
+	 * @param key         idempotency key sent by the client, the call simply runs
+	 *                    when it is null
+	 * @param fingerprint description of the request, a key can not be reused for
+	 *                    a different request
+	 * @param call
+	 * @return result of the first call made with the key
+	 */
+	public <T> T execute(String key, String fingerprint, IdempotentCall<T> call)
+			throws InvalidDataException, NotFoundException {
+		if (key == null) {
+			return call.call();
+		}
+		return await(executeAsync(key, fingerprint, () -> CompletableFuture.completedFuture(call.call())));
+	}
+
+	/**
+	 * This method runs the call once per idempotency key and hands the future of
+	 * the first call to every retry, the key is forgotten if the future fails
+	 * 
+	 * @param key         idempotency key sent by the client, the call simply runs
+	 *                    when it is null
+	 * @param fingerprint description of the request, a key can not be reused for
+	 *                    a different request
+	 * @param call
+	 * @return future of the first call made with the key
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> CompletableFuture<T> executeAsync(String key, String fingerprint, IdempotentAsyncCall<T> call)
+			throws InvalidDataException, NotFoundException {
+		if (key == null) {
+			return call.call();
+		}
+		long now = System.nanoTime();
+		evict(now);
+		Entry entry = new Entry(key, fingerprint, now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+		Entry stored = entries.putIfAbsent(key, entry);
+		if (stored != null && stored.expiresAt - now <= 0) {
+			if (entries.remove(key, stored)) {
+				stale.incrementAndGet();
+			}
+			stored = entries.putIfAbsent(key, entry);
+		}
+		if (stored != null) {
+			if (!stored.fingerprint.equals(fingerprint)) {
+				throw new InvalidDataException("Idempotency key " + key + " was already used for a different request");
+			}
+			return (CompletableFuture<T>) stored.result;
+		}
+
+		order.add(entry);
+		CompletableFuture<T> result;
+		try {
+			result = call.call();
+		} catch (InvalidDataException | NotFoundException | RuntimeException e) {
+			forget(entry);
+			entry.result.completeExceptionally(e);
+			throw e;
+		}
+		result.whenComplete((value, failure) -> {
+			if (failure != null) {
+				forget(entry);
+				entry.result.completeExceptionally(failure);
+			} else {
+				entry.result.complete(value);
+			}
+		});
+		return (CompletableFuture<T>) entry.result;
+	}
+
+	/** @return no of stored keys */
+	public int size() {
+		return entries.size();
+	}
+
+	/** removes the key of a failed call so the call can be retried */
+	private void forget(Entry entry) {
+		if (entries.remove(entry.key, entry)) {
+			stale.incrementAndGet();
+		}
+	}
+
+	/**
+	 * drops expired keys and the oldest keys beyond the maximum, entries which are
+	 * no longer live are dropped from the head as they come. Once more than the
+	 * maximum of them are queued the whole queue is compacted, so a burst of
+	 * failed calls costs one pass over the queue instead of one pass per call.
+	 */
+	private void evict(long now) {
+		synchronized (order) {
+			if (stale.get() > maxEntries) {
+				stale.set(0);
+				order.removeIf(entry -> entries.get(entry.key) != entry);
+			}
+			Entry head;
+			while ((head = order.peek()) != null) {
+				boolean live = entries.get(head.key) == head;
+				if (live && head.expiresAt - now > 0 && entries.size() < maxEntries) {
+					break;
+				}
+				order.poll();
+				if (live) {
+					entries.remove(head.key, head);
+				} else {
+					stale.decrementAndGet();
+				}
+			}
+		}
+	}
+
+	private static <T> T await(CompletableFuture<T> result) throws InvalidDataException, NotFoundException {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the first call of the idempotency key", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CompletionException && cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			if (cause instanceof InvalidDataException) {
+				throw (InvalidDataException) cause;
+			}
+			if (cause instanceof NotFoundException) {
+				throw (NotFoundException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/** Result stored under one key */
+	private static class Entry {
+
+		private final String key;
+
+		private final String fingerprint;
+
+		private final long expiresAt;
+
+		private final CompletableFuture<Object> result = new CompletableFuture<Object>();
+
+		private Entry(String key, String fingerprint, long expiresAt) {
+			this.key = key;
+			this.fingerprint = fingerprint;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+}
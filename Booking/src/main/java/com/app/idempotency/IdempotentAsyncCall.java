@@ -0,0 +1,18 @@
+package com.app.idempotency;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+
+/**
+ * Call completing later whose result is stored under an idempotency key
+ *
+ * @param <T> result of the call
+ */
+@FunctionalInterface
+public interface IdempotentAsyncCall<T> {
+
+	CompletableFuture<T> call() throws InvalidDataException, NotFoundException;
+
+}
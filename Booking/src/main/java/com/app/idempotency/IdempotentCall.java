@@ -0,0 +1,16 @@
+package com.app.idempotency;
+
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+
+/**
+ * Call whose result is stored under an idempotency key
+ *
+ * @param <T> result of the call
+ */
+@FunctionalInterface
+public interface IdempotentCall<T> {
+
+	T call() throws InvalidDataException, NotFoundException;
+
+}
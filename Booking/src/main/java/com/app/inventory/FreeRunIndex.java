@@ -0,0 +1,206 @@
+package com.app.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Segment tree over the seats of one screen laid out row after row, every node
+ * keeps the longest run of vacant seats in its range together with the vacant
+ * run touching each end. Rows are ordered by preference, the middle row first
+ * and then outwards, and a blocked slot is put between rows and wherever the
+ * column numbers of a row skip a seat, so a run never spans an aisle. The
+ * leftmost run of N vacant seats in the preferred order is found in O(log n)
+ * and each claim or release of a seat costs O(log n).
+ */
+class FreeRunIndex {
+
+	/** position of every seat in the tree, by bit index of the seat */
+	private final int[] positionOfIndex;
+
+	/** bit index of the seat at every position or -1 for a blocked slot */
+	private final int[] indexAtPosition;
+
+	/** position of the first and one past the last seat of the row of every position */
+	private final int[] rowStart;
+
+	private final int[] rowEnd;
+
+	/** no of leaves of the tree */
+	private final int capacity;
+
+	/** longest vacant run, vacant run at the start and at the end of every node */
+	private final int[] best;
+
+	private final int[] prefix;
+
+	private final int[] suffix;
+
+	/**
+	 * Parameterized constructor for free run index, every seat is vacant
+	 * 
+	 * @param rows    row of every seat by bit index
+	 * @param columns column of every seat by bit index
+	 */
+	FreeRunIndex(int[] rows, int[] columns) {
+		Integer[] order = new Integer[rows.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		int[] rank = rowRanks(rows);
+		Arrays.sort(order, Comparator.<Integer>comparingInt(i -> rank[rows[i]]).thenComparingInt(i -> columns[i]));
+
+		/** row of every slot, a blocked slot between two rows belongs to neither */
+		List<Integer> slots = new ArrayList<Integer>();
+		List<Integer> slotRows = new ArrayList<Integer>();
+		for (int k = 0; k < order.length; k++) {
+			int i = order[k];
+			if (k > 0) {
+				int previous = order[k - 1];
+				if (rows[previous] != rows[i]) {
+					slots.add(-1);
+					slotRows.add(-1);
+				} else if (columns[previous] + 1 != columns[i]) {
+					slots.add(-1);
+					slotRows.add(rows[i]);
+				}
+			}
+			slots.add(i);
+			slotRows.add(rows[i]);
+		}
+
+		positionOfIndex = new int[rows.length];
+		indexAtPosition = new int[slots.size()];
+		rowStart = new int[slots.size()];
+		rowEnd = new int[slots.size()];
+		for (int p = 0, start = 0; p < slots.size(); p++) {
+			indexAtPosition[p] = slots.get(p);
+			if (slots.get(p) >= 0) {
+				positionOfIndex[slots.get(p)] = p;
+			}
+			if (p == slots.size() - 1 || !slotRows.get(p + 1).equals(slotRows.get(p))) {
+				for (int q = start; q <= p; q++) {
+					rowStart[q] = start;
+					rowEnd[q] = p + 1;
+				}
+				start = p + 1;
+			}
+		}
+
+		int size = 1;
+		while (size < Math.max(slots.size(), 1)) {
+			size <<= 1;
+		}
+		capacity = size;
+		best = new int[2 * capacity];
+		prefix = new int[2 * capacity];
+		suffix = new int[2 * capacity];
+		for (int p = 0; p < slots.size(); p++) {
+			if (indexAtPosition[p] >= 0) {
+				best[capacity + p] = prefix[capacity + p] = suffix[capacity + p] = 1;
+			}
+		}
+		for (int node = capacity - 1; node > 0; node--) {
+			merge(node, length(node) / 2);
+		}
+	}
+
+	/**
+	 * This method marks the seat at given bit index as vacant or allocated
+	 * 
+	 * @param index bit index of the seat
+	 * @param free  true if the seat is vacant
+	 */
+	void set(int index, boolean free) {
+		int node = capacity + positionOfIndex[index];
+		int value = free ? 1 : 0;
+		best[node] = prefix[node] = suffix[node] = value;
+		for (node >>= 1; node > 0; node >>= 1) {
+			merge(node, length(node) / 2);
+		}
+	}
+
+	/**
+	 * This method finds the best block of adjacent vacant seats, it is the leftmost
+	 * block of the preferred row centred within its vacant run as far as possible
+	 * 
+	 * @param count no of seats
+	 * @return bit indexes of the seats or null if no row has enough adjacent seats
+	 */
+	int[] find(int count) {
+		if (count < 1 || best[1] < count) {
+			return null;
+		}
+		int start = leftmost(1, 0, capacity, count);
+
+		/** slide the block towards the middle of the row within its vacant run */
+		int runEnd = start;
+		while (runEnd < rowEnd[start] && isFree(runEnd)) {
+			runEnd++;
+		}
+		int middle = (rowStart[start] + rowEnd[start] - count) / 2;
+		start = Math.max(start, Math.min(middle, runEnd - count));
+
+		int[] indexes = new int[count];
+		for (int i = 0; i < count; i++) {
+			indexes[i] = indexAtPosition[start + i];
+		}
+		return indexes;
+	}
+
+	private boolean isFree(int position) {
+		return best[capacity + position] == 1;
+	}
+
+	/** finds the first position of the leftmost run of count vacant slots */
+	private int leftmost(int node, int from, int length, int count) {
+		if (length == 1) {
+			return from;
+		}
+		int half = length / 2;
+		int left = 2 * node;
+		int right = left + 1;
+		if (best[left] >= count) {
+			return leftmost(left, from, half, count);
+		}
+		if (suffix[left] + prefix[right] >= count) {
+			return from + half - suffix[left];
+		}
+		return leftmost(right, from + half, half, count);
+	}
+
+	private void merge(int node, int half) {
+		int left = 2 * node;
+		int right = left + 1;
+		prefix[node] = prefix[left] == half ? half + prefix[right] : prefix[left];
+		suffix[node] = suffix[right] == half ? half + suffix[left] : suffix[right];
+		best[node] = Math.max(Math.max(best[left], best[right]), suffix[left] + prefix[right]);
+	}
+
+	private int length(int node) {
+		return capacity >> (31 - Integer.numberOfLeadingZeros(node));
+	}
+
+	/** ranks rows by preference, the middle row first and then alternating outwards */
+	private static int[] rowRanks(int[] rows) {
+		int maxRow = 0;
+		for (int row : rows) {
+			maxRow = Math.max(maxRow, row);
+		}
+		int[] rank = new int[maxRow + 1];
+		int middle = maxRow / 2;
+		int next = 0;
+		rank[middle] = next++;
+		for (int distance = 1; distance <= maxRow; distance++) {
+			if (middle + distance <= maxRow) {
+				rank[middle + distance] = next++;
+			}
+			if (middle - distance >= 0) {
+				rank[middle - distance] = next++;
+			}
+		}
+		return rank;
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.app.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.app.repository.ScreenRepository;
+
+/**
+ * Keeps the free seat counter of every screen equal to its vacant seats. The
+ * counters are set on start, before the inventory is verified against them,
+ * and checked again periodically. Only screens whose counter drifted, or which
+ * have none yet, are recounted.
+ */
+@Component
+public class FreeSeatCounterReconciler {
+
+	private static final Logger log = LoggerFactory.getLogger(FreeSeatCounterReconciler.class);
+
+	/** no of screens recounted in one statement */
+	private static final int CHUNK_SIZE = 100;
+
+	/**
+	 * auto wired ScreenRepository for accessing the methods of screen repository
+	 */
+	@Autowired
+	private ScreenRepository screenRepository;
+
+	/** time between two checks of the counters in milliseconds */
+	@Value("${booking.free-seats.reconcile-ms:300000}")
+	private long reconcileMs;
+
+	private ScheduledExecutorService reconciler;
+
+	/** This method reconciles the counters and schedules the next checks */
+	@Order(0)
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		reconcile();
+		reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "free-seat-reconciler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		reconciler.scheduleWithFixedDelay(this::reconcile, reconcileMs, reconcileMs, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (reconciler != null) {
+			reconciler.shutdownNow();
+		}
+	}
+
+	/**
+	 * This method recounts the free seats of every screen whose counter does not
+	 * match its vacant seats
+	 *
+	 * @return no of screens recounted
+	 */
+	public int reconcile() {
+		try {
+			List<Integer> drifted = new ArrayList<Integer>();
+			for (Number screenId : screenRepository.getScreensWithFreeSeatDrift()) {
+				drifted.add(screenId.intValue());
+			}
+			for (int from = 0; from < drifted.size(); from += CHUNK_SIZE) {
+				screenRepository.recountFreeSeats(drifted.subList(from, Math.min(from + CHUNK_SIZE, drifted.size())));
+			}
+			if (!drifted.isEmpty()) {
+				log.info("Recounted the free seats of {} screens", drifted.size());
+			}
+			return drifted.size();
+		} catch (RuntimeException e) {
+			log.error("Unable to reconcile the free seat counters", e);
+			return 0;
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+package com.app.inventory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binary snapshot of the seat inventory. For every screen the file holds the
+ * seat ids, their positions and the status bitmap, together with the database
+ * time at which the snapshot was started. On a warm start the screens are read
+ * back from the file and only the seats changed since that time are read from
+ * the seat table.
+ */
+@Component
+public class InventorySnapshot {
+
+	/** first bytes of every snapshot file */
+	private static final int MAGIC = 0x53454154;
+
+	/** format of the file, a snapshot of another format is ignored */
+	private static final int FORMAT_VERSION = 1;
+
+	/** file the snapshot is written to */
+	@Value("${booking.snapshot.file:snapshot/inventory.snapshot}")
+	private String file;
+
+	/** Screens read from a snapshot together with the time it was started at */
+	public static class Contents {
+
+		/** database time at which the snapshot was started */
+		private final long takenAt;
+
+		/** bitmaps of the screens */
+		private final List<ScreenSeatMap> screens;
+
+		Contents(long takenAt, List<ScreenSeatMap> screens) {
+			this.takenAt = takenAt;
+			this.screens = screens;
+		}
+
+		public long getTakenAt() {
+			return takenAt;
+		}
+
+		public List<ScreenSeatMap> getScreens() {
+			return screens;
+		}
+	}
+
+	/**
+	 * This method writes the bitmaps of the screens to a new file and moves it
+	 * over the previous snapshot. Seats of the given claims are written as
+	 * vacant, they are not booked in the seat table.
+	 * 
+	 * @param takenAt database time read before the bitmaps were copied
+	 * @param screens bitmaps of the screens
+	 * @param claims  claims which are not in the seat table, such as holds
+	 */
+	public void save(long takenAt, Collection<ScreenSeatMap> screens, Collection<SeatClaim> claims)
+			throws IOException {
+		Path path = Paths.get(file);
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		Path next = Paths.get(file + ".next");
+		CRC32 crc = new CRC32();
+		try (OutputStream stream = Files.newOutputStream(next);
+				DataOutputStream out = new DataOutputStream(
+						new CheckedOutputStream(new BufferedOutputStream(stream, 1 << 16), crc))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(takenAt);
+			List<ScreenSeatMap> copied = new ArrayList<ScreenSeatMap>(screens);
+			out.writeInt(copied.size());
+			for (ScreenSeatMap seatMap : copied) {
+				long[] words = seatMap.copyWords();
+				for (SeatClaim claim : claims) {
+					if (claim.getSeatMap() == seatMap) {
+						for (int index : claim.getIndexes()) {
+							words[index >>> 6] &= ~(1L << index);
+						}
+					}
+				}
+				out.writeInt(seatMap.getScreenId());
+				out.writeInt(seatMap.size());
+				for (int i = 0; i < seatMap.size(); i++) {
+					out.writeInt(seatMap.seatIdAt(i));
+					out.writeShort(seatMap.rowAt(i));
+					out.writeShort(seatMap.columnAt(i));
+				}
+				for (long word : words) {
+					out.writeLong(word);
+				}
+			}
+			out.flush();
+			out.writeLong(crc.getValue());
+			out.flush();
+		}
+		Files.move(next, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * This method reads the last snapshot
+	 * 
+	 * @return screens of the snapshot or null if there is no snapshot of this
+	 *         format or the file is damaged
+	 */
+	public Contents read() throws IOException {
+		Path path = Paths.get(file);
+		if (!Files.exists(path)) {
+			return null;
+		}
+		CRC32 crc = new CRC32();
+		try (InputStream stream = Files.newInputStream(path);
+				DataInputStream in = new DataInputStream(
+						new CheckedInputStream(new BufferedInputStream(stream, 1 << 16), crc))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				return null;
+			}
+			long takenAt = in.readLong();
+			int count = in.readInt();
+			List<ScreenSeatMap> screens = new ArrayList<ScreenSeatMap>(count);
+			for (int s = 0; s < count; s++) {
+				int screenId = in.readInt();
+				int size = in.readInt();
+				int[] seatIds = new int[size];
+				int[] rows = new int[size];
+				int[] columns = new int[size];
+				for (int i = 0; i < size; i++) {
+					seatIds[i] = in.readInt();
+					rows[i] = in.readShort();
+					columns[i] = in.readShort();
+				}
+				boolean[] status = new boolean[size];
+				for (int w = 0; w < (size + 63) >>> 6; w++) {
+					long word = in.readLong();
+					for (int i = w << 6; i < Math.min(size, (w + 1) << 6); i++) {
+						status[i] = (word & (1L << i)) != 0;
+					}
+				}
+				screens.add(new ScreenSeatMap(screenId, seatIds, status, rows, columns));
+			}
+			long expected = crc.getValue();
+			return in.readLong() == expected ? new Contents(takenAt, screens) : null;
+		}
+	}
+
+}
@@ -0,0 +1,180 @@
+package com.app.inventory;
+
+import java.util.Arrays;
+
+/**
+ * Seat status of one screen packed into a bitmap. Seat ids of the screen are
+ * kept sorted so a seat id is mapped to its bit with a binary search, a set bit
+ * means the seat is allocated to a user. A {@link FreeRunIndex} over the row
+ * layout of the seats is kept next to the bitmap to find adjacent vacant seats.
+ */
+public class ScreenSeatMap {
+
+	/** screen id this bitmap belongs to */
+	private final int screenId;
+
+	/** sorted seat ids of the screen, the position of a seat id is its bit index */
+	private final int[] seatIds;
+
+	/** row of each seat in the order of the seat ids */
+	private final int[] rows;
+
+	/** column of each seat in the order of the seat ids */
+	private final int[] columns;
+
+	/** packed seat status, 64 seats per word */
+	private final long[] words;
+
+	/** no of seats currently allocated */
+	private int booked;
+
+	/** vacant runs of the seats laid out in their rows */
+	private final FreeRunIndex freeRuns;
+
+	/**
+	 * Parameterized constructor for screen seat map
+	 * 
+	 * @param screenId
+	 * @param seatIds  sorted seat ids of the screen
+	 * @param status   status of each seat in the same order
+	 * @param rows     row of each seat in the same order
+	 * @param columns  column of each seat in the same order
+	 */
+	public ScreenSeatMap(int screenId, int[] seatIds, boolean[] status, int[] rows, int[] columns) {
+		this.screenId = screenId;
+		this.seatIds = seatIds;
+		this.rows = rows;
+		this.columns = columns;
+		this.words = new long[(seatIds.length + 63) >>> 6];
+		this.freeRuns = new FreeRunIndex(rows, columns);
+		for (int i = 0; i < status.length; i++) {
+			if (status[i]) {
+				words[i >>> 6] |= 1L << i;
+				freeRuns.set(i, false);
+				booked++;
+			}
+		}
+	}
+
+	public int getScreenId() {
+		return screenId;
+	}
+
+	/** @return total no of seats of the screen */
+	public int size() {
+		return seatIds.length;
+	}
+
+	/**
+	 * This method maps the seat id to its bit index
+	 * 
+	 * @param seatId
+	 * @return bit index or negative value if seat does not belong to this screen
+	 */
+	public int indexOf(int seatId) {
+		return Arrays.binarySearch(seatIds, seatId);
+	}
+
+	/** @return seat id stored at given bit index */
+	public int seatIdAt(int index) {
+		return seatIds[index];
+	}
+
+	/** @return row of the seat at given bit index */
+	public int rowAt(int index) {
+		return rows[index];
+	}
+
+	/** @return column of the seat at given bit index */
+	public int columnAt(int index) {
+		return columns[index];
+	}
+
+	/** @return copy of the packed seat status, 64 seats per word */
+	public synchronized long[] copyWords() {
+		return words.clone();
+	}
+
+	/** @return no of vacant seats */
+	public synchronized int freeCount() {
+		return seatIds.length - booked;
+	}
+
+	/** @return true if seat at given bit index is allocated */
+	public synchronized boolean isBooked(int index) {
+		return (words[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * This method allocates all the seats at given bit indexes, either every seat
+	 * is claimed or none of them
+	 * 
+	 * @param indexes bit indexes of the seats
+	 * @return false if any of the seats is already allocated
+	 */
+	public synchronized boolean claim(int[] indexes) {
+		for (int index : indexes) {
+			if ((words[index >>> 6] & (1L << index)) != 0) {
+				return false;
+			}
+		}
+		for (int index : indexes) {
+			words[index >>> 6] |= 1L << index;
+			freeRuns.set(index, false);
+		}
+		booked += indexes.length;
+		return true;
+	}
+
+	/**
+	 * This method allocates the vacant seats among the given bit indexes, seats
+	 * already allocated are skipped
+	 * 
+	 * @param indexes bit indexes of the candidate seats
+	 * @param count   largest no of seats to allocate
+	 * @return bit indexes of the allocated seats in the order of the candidates
+	 */
+	public synchronized int[] claimVacant(int[] indexes, int count) {
+		int[] claimed = new int[Math.min(count, indexes.length)];
+		int n = 0;
+		for (int i = 0; i < indexes.length && n < claimed.length; i++) {
+			if ((words[indexes[i] >>> 6] & (1L << indexes[i])) == 0) {
+				claimed[n++] = indexes[i];
+			}
+		}
+		claimed = Arrays.copyOf(claimed, n);
+		return claim(claimed) ? claimed : new int[0];
+	}
+
+	/**
+	 * This method allocates the best block of adjacent vacant seats in a row
+	 * 
+	 * @param count no of seats
+	 * @return bit indexes of the allocated seats or null if no row has enough
+	 *         adjacent vacant seats
+	 */
+	public synchronized int[] claimBest(int count) {
+		int[] indexes = freeRuns.find(count);
+		if (indexes == null || !claim(indexes)) {
+			return null;
+		}
+		return indexes;
+	}
+
+	/**
+	 * This method marks the seats at given bit indexes as vacant
+	 * 
+	 * @param indexes bit indexes of the seats
+	 */
+	public synchronized void release(int[] indexes) {
+		for (int index : indexes) {
+			long mask = 1L << index;
+			if ((words[index >>> 6] & mask) != 0) {
+				words[index >>> 6] &= ~mask;
+				freeRuns.set(index, true);
+				booked--;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.app.inventory;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Seats claimed in one screen bitmap by a single booking. The claim keeps the
+ * bitmap it was made on so that releasing it never touches a bitmap which was
+ * reloaded from the database in the meantime. A hold is not in the seat table,
+ * so its claim is moved to the reloaded bitmap instead.
+ */
+public class SeatClaim {
+
+	/** bitmap on which the seats are claimed */
+	private volatile ScreenSeatMap seatMap;
+
+	/** bit indexes of the claimed seats, set before the bitmap when it is moved */
+	private volatile int[] indexes;
+
+	/** set once the seats are given back */
+	private final AtomicBoolean released = new AtomicBoolean();
+
+	public SeatClaim(ScreenSeatMap seatMap, int[] indexes) {
+		this.seatMap = seatMap;
+		this.indexes = indexes;
+	}
+
+	/**
+	 * This method gives a claim of seats handed from a cancelled booking to a new
+	 * booking in one transaction. The seats never became vacant in the bitmap, so
+	 * the claim has nothing to give back whatever happens to the transaction.
+	 * 
+	 * @param seatMap
+	 * @return claim which releases nothing
+	 */
+	public static SeatClaim handedOver(ScreenSeatMap seatMap) {
+		SeatClaim claim = new SeatClaim(seatMap, new int[0]);
+		claim.released.set(true);
+		return claim;
+	}
+
+	public ScreenSeatMap getSeatMap() {
+		return seatMap;
+	}
+
+	public int[] getIndexes() {
+		return indexes;
+	}
+
+	/** @return ids of the claimed seats in the order they were claimed */
+	public Set<Integer> getSeatIds() {
+		Set<Integer> seatIds = new LinkedHashSet<Integer>();
+		for (int index : indexes) {
+			seatIds.add(seatMap.seatIdAt(index));
+		}
+		return seatIds;
+	}
+
+	/**
+	 * This method gives the claimed seats back to the bitmap, releasing the same
+	 * claim again does nothing
+	 */
+	public synchronized void release() {
+		if (released.compareAndSet(false, true)) {
+			seatMap.release(indexes);
+		}
+	}
+
+	/**
+	 * This method claims the same seats in a bitmap reloaded from the seat table
+	 * and makes the claim release them there, a released claim is not moved
+	 * 
+	 * @param reloaded bitmap of the same screen
+	 * @return false if a seat is booked in the reloaded bitmap or is not there
+	 */
+	public synchronized boolean moveTo(ScreenSeatMap reloaded) {
+		if (released.get() || reloaded == seatMap) {
+			return true;
+		}
+		int[] moved = new int[indexes.length];
+		for (int i = 0; i < indexes.length; i++) {
+			moved[i] = reloaded.indexOf(seatMap.seatIdAt(indexes[i]));
+			if (moved[i] < 0) {
+				return false;
+			}
+		}
+		if (!reloaded.claim(moved)) {
+			return false;
+		}
+		indexes = moved;
+		seatMap = reloaded;
+		return true;
+	}
+
+}
@@ -0,0 +1,479 @@
+package com.app.inventory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+import com.app.hold.SeatHold;
+import com.app.hold.SeatHoldManager;
+import com.app.lock.ScreenLockManager;
+import com.app.lock.ScreenLockManager.HeldLock;
+import com.app.repository.ScreenRepository;
+import com.app.repository.SeatRepository;
+import com.app.routing.ScreenOwnershipChangedEvent;
+import com.app.routing.ScreenRouter;
+
+/**
+ * Resident seat inventory of the booking service. Every screen is kept as a
+ * {@link ScreenSeatMap} so availability checks and seat claims are answered
+ * from memory instead of reading the seat table row by row. The screens owned
+ * by this instance are loaded once the application is ready, from the last
+ * snapshot and the seats changed since then when there is one, a screen added
+ * later is loaded on first use. A screen owned by another instance is read
+ * fresh for every use and not kept, its requests normally go to the owner. A
+ * screen read from the seat table gets back the seats of the active holds and
+ * of the changes not written to the seat table yet.
+ */
+@Component
+public class SeatInventory {
+
+	private static final Logger log = LoggerFactory.getLogger(SeatInventory.class);
+
+	/** no of seats in a row for seats stored without a position */
+	private static final int DEFAULT_SEATS_PER_ROW = 10;
+
+	/** bitmap of every loaded screen keyed by screen id */
+	private final Map<Integer, ScreenSeatMap> screens = new ConcurrentHashMap<Integer, ScreenSeatMap>();
+
+	/** auto wired SeatRepository for accessing the methods of seat repository */
+	@Autowired
+	private SeatRepository seatRepository;
+
+	/**
+	 * auto wired ScreenRepository for accessing the methods of screen repository
+	 */
+	@Autowired
+	private ScreenRepository screenRepository;
+
+	/** router giving the instance owning every screen */
+	@Autowired
+	private ScreenRouter router;
+
+	/** binary snapshot the inventory is saved to and warm started from */
+	@Autowired
+	private InventorySnapshot inventorySnapshot;
+
+	/** active holds, their seats are not booked in the seat table */
+	@Autowired
+	private SeatHoldManager seatHoldManager;
+
+	/** background writer holding the seat changes not written yet */
+	@Autowired
+	private SeatStatusWriter seatStatusWriter;
+
+	/** striped screen locks, a screen is read under its lock */
+	@Autowired
+	private ScreenLockManager screenLocks;
+
+	/** switched off the inventory is always loaded from the seat table */
+	@Value("${booking.snapshot.enabled:false}")
+	private boolean snapshotEnabled;
+
+	/** time between two snapshots in milliseconds */
+	@Value("${booking.snapshot.interval-ms:60000}")
+	private long snapshotIntervalMs;
+
+	/**
+	 * seats changed this long before a snapshot are read again on warm start, so
+	 * a transaction which updated a seat before the snapshot and committed after
+	 * it is not missed
+	 */
+	@Value("${booking.snapshot.catch-up-margin-ms:60000}")
+	private long catchUpMarginMs;
+
+	private ScheduledExecutorService snapshotter;
+
+	/**
+	 * This method loads the seats of all the screens, from the last snapshot if
+	 * there is one, and verifies the loaded bitmaps against the free seat counter
+	 * of the screens. A screen whose count does not match is dropped and loaded
+	 * again on first use.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		long start = System.currentTimeMillis();
+		if (!warmStart()) {
+			loadAll();
+		}
+
+		int stale = 0;
+		for (Object[] row : screenRepository.getFreeSeatsOfAllScreens()) {
+			ScreenSeatMap seatMap = screens.get(toInt(row[0]));
+			if (seatMap != null && seatMap.freeCount() != toInt(row[1])) {
+				invalidate(seatMap.getScreenId());
+				stale++;
+			}
+		}
+		log.info("Loaded seat inventory of {} screens in {} ms, {} reloaded lazily after verification",
+				screens.size(), System.currentTimeMillis() - start, stale);
+
+		if (snapshotEnabled) {
+			snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "inventory-snapshot");
+				thread.setDaemon(true);
+				return thread;
+			});
+			snapshotter.scheduleWithFixedDelay(this::saveSnapshot, snapshotIntervalMs, snapshotIntervalMs,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/** This method saves a last snapshot before the application stops */
+	@PreDestroy
+	public void stop() {
+		if (snapshotter != null) {
+			snapshotter.shutdownNow();
+			saveSnapshot();
+		}
+	}
+
+	/**
+	 * This method saves the bitmaps of all the loaded screens, held seats are
+	 * saved as vacant. The database time is read first so every seat changed
+	 * while the bitmaps are copied is read again on warm start.
+	 */
+	public void saveSnapshot() {
+		try {
+			long takenAt = seatRepository.getDatabaseTime().getTime();
+			List<SeatClaim> claims = new ArrayList<SeatClaim>();
+			for (SeatHold hold : seatHoldManager.getHolds()) {
+				claims.add(hold.getClaim());
+			}
+			inventorySnapshot.save(takenAt, screens.values(), claims);
+		} catch (IOException | RuntimeException e) {
+			log.error("Unable to save the snapshot of the seat inventory", e);
+		}
+	}
+
+	/**
+	 * reads the screens of this instance from the snapshot and applies the seats
+	 * changed in the seat table since it was taken
+	 * 
+	 * @return false if there is no usable snapshot
+	 */
+	private boolean warmStart() {
+		if (!snapshotEnabled) {
+			return false;
+		}
+		InventorySnapshot.Contents snapshot;
+		try {
+			snapshot = inventorySnapshot.read();
+		} catch (IOException e) {
+			log.warn("Unable to read the snapshot of the seat inventory, loading it from the seat table", e);
+			return false;
+		}
+		if (snapshot == null) {
+			return false;
+		}
+		for (ScreenSeatMap seatMap : snapshot.getScreens()) {
+			if (router.isLocal(seatMap.getScreenId())) {
+				screens.putIfAbsent(seatMap.getScreenId(), seatMap);
+			}
+		}
+
+		List<Object[]> changed = seatRepository
+				.getSeatStatusChangedSince(new Date(snapshot.getTakenAt() - catchUpMarginMs));
+		for (Object[] row : changed) {
+			ScreenSeatMap seatMap = screens.get(toInt(row[1]));
+			if (seatMap == null) {
+				continue;
+			}
+			int index = seatMap.indexOf(toInt(row[0]));
+			if (index < 0) {
+				/** a seat was added to the screen, read the whole screen again */
+				invalidate(seatMap.getScreenId());
+			} else if (toBoolean(row[2])) {
+				seatMap.claim(new int[] { index });
+			} else {
+				seatMap.release(new int[] { index });
+			}
+		}
+		log.info("Warm started seat inventory of {} screens from snapshot, caught up {} changed seats",
+				screens.size(), changed.size());
+		return true;
+	}
+
+	/** loads the bitmaps of the screens of this instance from the seat table */
+	private void loadAll() {
+		List<Object[]> rows = seatRepository.getSeatStatusOfAllScreens();
+		int from = 0;
+		for (int i = 1; i <= rows.size(); i++) {
+			if (i == rows.size() || toInt(rows.get(i)[1]) != toInt(rows.get(from)[1])) {
+				int screenId = toInt(rows.get(from)[1]);
+				if (!router.isLocal(screenId)) {
+					from = i;
+					continue;
+				}
+				List<Object[]> screenRows = new ArrayList<Object[]>();
+				for (Object[] row : rows.subList(from, i)) {
+					screenRows.add(new Object[] { row[0], row[2], row[3], row[4] });
+				}
+				screens.putIfAbsent(screenId, toSeatMap(screenId, screenRows));
+				from = i;
+			}
+		}
+	}
+
+	/**
+	 * This method drops the bitmaps of the screens which moved to another
+	 * instance, screens which moved here are loaded on first use
+	 * 
+	 * @param event
+	 */
+	@EventListener
+	public void rebalance(ScreenOwnershipChangedEvent event) {
+		int moved = 0;
+		for (Integer screenId : screens.keySet()) {
+			if (!router.isLocal(screenId)) {
+				invalidate(screenId);
+				moved++;
+			}
+		}
+		log.info("Dropped seat inventory of {} screens owned by other instances", moved);
+	}
+
+	/**
+	 * This method gives the bitmap of selected screen, loading it if needed
+	 * 
+	 * @param screenId
+	 * @return bitmap of the screen if screen has no seats @throws NotFoundException
+	 */
+	public ScreenSeatMap screen(int screenId) throws NotFoundException {
+		ScreenSeatMap seatMap = screens.get(screenId);
+		if (seatMap == null) {
+			/**
+			 * bookings of the screen queue their changes before they release the lock,
+			 * so no change is made while the screen is read
+			 */
+			try (HeldLock lock = screenLocks.lock(screenId)) {
+				seatMap = router.isLocal(screenId) ? screens.computeIfAbsent(screenId, this::loadScreen)
+						: loadScreen(screenId);
+			}
+		}
+		if (seatMap == null) {
+			throw new NotFoundException("Unable to find seats with this screen id");
+		}
+		return seatMap;
+	}
+
+	/**
+	 * This method is to get all available seats from given screen
+	 * 
+	 * @param screenId
+	 * @return no of empty seats
+	 */
+	public int freeCount(int screenId) throws NotFoundException {
+		return screen(screenId).freeCount();
+	}
+
+	/**
+	 * This method checks from memory only whether the screen has fewer vacant
+	 * seats than asked for, a screen which is not loaded is never sold out
+	 * 
+	 * @param screenId
+	 * @param count    no of seats asked for
+	 * @return true if the loaded bitmap has fewer vacant seats
+	 */
+	public boolean isSoldOut(int screenId, int count) {
+		ScreenSeatMap seatMap = screens.get(screenId);
+		return seatMap != null && seatMap.freeCount() < count;
+	}
+
+	/**
+	 * This method claims all the given seats of selected screen in memory, either
+	 * every seat is claimed or none of them
+	 * 
+	 * @param screenId
+	 * @param seatIds
+	 * @return claim which can be released again if the booking fails
+	 * @throws NotFoundException    if a seat does not belong to the screen
+	 * @throws InvalidDataException if a seat is already booked
+	 */
+	public SeatClaim claim(int screenId, Collection<Integer> seatIds) throws NotFoundException, InvalidDataException {
+		ScreenSeatMap seatMap = screen(screenId);
+		int[] indexes = indexesOf(seatMap, seatIds);
+		if (!seatMap.claim(indexes)) {
+			throw new InvalidDataException("One or more of the selected seats is already booked");
+		}
+		return new SeatClaim(seatMap, indexes);
+	}
+
+	/**
+	 * This method claims the best block of adjacent vacant seats of selected
+	 * screen in memory, the block is taken from the middle row first and centred
+	 * in its row as far as the vacant seats allow
+	 * 
+	 * @param screenId
+	 * @param count    no of seats
+	 * @return claim which can be released again if the booking fails
+	 * @throws NotFoundException    if screen has no seats
+	 * @throws InvalidDataException if no row has enough adjacent vacant seats
+	 */
+	public SeatClaim claimBest(int screenId, int count) throws NotFoundException, InvalidDataException {
+		if (count < 1) {
+			throw new InvalidDataException("Select at least one seat to book");
+		}
+		ScreenSeatMap seatMap = screen(screenId);
+		int[] indexes = seatMap.claimBest(count);
+		if (indexes == null) {
+			throw new InvalidDataException("No row has " + count + " adjacent seats available");
+		}
+		return new SeatClaim(seatMap, indexes);
+	}
+
+	/**
+	 * This method claims the vacant seats among the given candidates of selected
+	 * screen in memory, candidates already claimed, by a hold or a booking not
+	 * written yet, are skipped
+	 * 
+	 * @param screenId
+	 * @param candidates ids of the candidate seats
+	 * @param count      largest no of seats to claim
+	 * @return claim of at most count seats which can be released again if the
+	 *         booking fails
+	 * @throws NotFoundException if a seat does not belong to the screen
+	 */
+	public SeatClaim claimAny(int screenId, Collection<Integer> candidates, int count) throws NotFoundException {
+		ScreenSeatMap seatMap = screen(screenId);
+		return new SeatClaim(seatMap, seatMap.claimVacant(indexesOf(seatMap, candidates), count));
+	}
+
+	/**
+	 * This method marks the given seats of selected screen as vacant, a screen
+	 * which is not loaded is left alone as it is read fresh on first use
+	 * 
+	 * @param screenId
+	 * @param seatIds
+	 */
+	public void release(int screenId, Collection<Integer> seatIds) {
+		ScreenSeatMap seatMap = screens.get(screenId);
+		if (seatMap != null) {
+			try {
+				seatMap.release(indexesOf(seatMap, seatIds));
+			} catch (NotFoundException e) {
+				invalidate(screenId);
+			}
+		}
+	}
+
+	/**
+	 * This method drops the bitmap of selected screen so that it is read again
+	 * from the seat table on first use, with the active holds and the changes not
+	 * written yet applied again
+	 * 
+	 * @param screenId
+	 */
+	public void invalidate(int screenId) {
+		screens.remove(screenId);
+	}
+
+	private int[] indexesOf(ScreenSeatMap seatMap, Collection<Integer> seatIds) throws NotFoundException {
+		int[] indexes = new int[seatIds.size()];
+		int i = 0;
+		for (Integer seatId : seatIds) {
+			int index = seatMap.indexOf(seatId);
+			if (index < 0) {
+				throw new NotFoundException("Unable to find seat with given seat id");
+			}
+			indexes[i++] = index;
+		}
+		return indexes;
+	}
+
+	/**
+	 * reads the bitmap of the screen from the seat table and applies the changes
+	 * not written yet and the active holds. The changes are taken before the seat
+	 * table is read, a change written in between is read from both and agrees.
+	 * The claims of the holds are moved to the bitmap only if it is kept.
+	 */
+	private ScreenSeatMap loadScreen(int screenId) {
+		Map<Integer, Boolean> pending = seatStatusWriter.getPendingChanges(screenId);
+		List<Object[]> rows = seatRepository.getSeatStatusOfSelectedScreen(screenId);
+		if (rows.isEmpty()) {
+			return null;
+		}
+		ScreenSeatMap seatMap = toSeatMap(screenId, rows);
+		for (Entry<Integer, Boolean> change : pending.entrySet()) {
+			int index = seatMap.indexOf(change.getKey());
+			if (index < 0) {
+				continue;
+			}
+			if (change.getValue()) {
+				seatMap.claim(new int[] { index });
+			} else {
+				seatMap.release(new int[] { index });
+			}
+		}
+		boolean kept = router.isLocal(screenId);
+		for (SeatHold hold : seatHoldManager.getHolds()) {
+			if (hold.getScreenId() != screenId) {
+				continue;
+			}
+			boolean claimed;
+			if (kept) {
+				claimed = hold.getClaim().moveTo(seatMap);
+			} else {
+				claimed = seatMap.claim(indexesOfSeats(seatMap, hold.getSeatIds()));
+			}
+			if (!claimed) {
+				log.warn("Seats of hold {} are booked in the seat table of screen {}", hold.getHoldId(), screenId);
+			}
+		}
+		return seatMap;
+	}
+
+	/** @return bit indexes of the seats found in the bitmap */
+	private static int[] indexesOfSeats(ScreenSeatMap seatMap, Collection<Integer> seatIds) {
+		return seatIds.stream().mapToInt(seatMap::indexOf).filter(index -> index >= 0).toArray();
+	}
+
+	/**
+	 * builds the bitmap from rows having seat_id, status, seat_row and seat_column
+	 * ordered by seat id, a seat without position is placed by its order in rows
+	 * of ten seats as the screen service creates them
+	 */
+	private static ScreenSeatMap toSeatMap(int screenId, List<Object[]> rows) {
+		int[] seatIds = new int[rows.size()];
+		boolean[] status = new boolean[rows.size()];
+		int[] seatRows = new int[rows.size()];
+		int[] seatColumns = new int[rows.size()];
+		for (int i = 0; i < rows.size(); i++) {
+			Object[] row = rows.get(i);
+			seatIds[i] = toInt(row[0]);
+			status[i] = toBoolean(row[1]);
+			boolean placed = row[2] != null && row[3] != null;
+			seatRows[i] = placed ? toInt(row[2]) : i / DEFAULT_SEATS_PER_ROW;
+			seatColumns[i] = placed ? toInt(row[3]) : i % DEFAULT_SEATS_PER_ROW;
+		}
+		return new ScreenSeatMap(screenId, seatIds, status, seatRows, seatColumns);
+	}
+
+	static int toInt(Object value) {
+		return ((Number) value).intValue();
+	}
+
+	static boolean toBoolean(Object value) {
+		return value instanceof Boolean ? (Boolean) value : ((Number) value).intValue() != 0;
+	}
+
+}
@@ -0,0 +1,264 @@
+package com.app.inventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.app.repository.ScreenRepository;
+import com.app.repository.SeatRepository;
+import com.app.wal.WriteAheadLog;
+
+/**
+ * Writes seat status changes of the inventory to the seat table in the
+ * background. Changes are drained in batches and every batch costs at most one
+ * update statement per status, the free seat counters of the screens touched by
+ * a batch are recounted after it. With the write-ahead log switched on a change is
+ * logged before its transaction commits and marked done in the log once its
+ * batch is written.
+ */
+@Component
+public class SeatStatusWriter implements Runnable {
+
+	private static final Logger log = LoggerFactory.getLogger(SeatStatusWriter.class);
+
+	/** status changes waiting to be written in the order they were made */
+	private final BlockingQueue<SeatChange> queue = new LinkedBlockingQueue<SeatChange>();
+
+	/**
+	 * last queued change of each seat keyed by seat id, removed once its batch is
+	 * written so a screen reloaded from the seat table can get them back
+	 */
+	private final Map<Integer, SeatChange> pending = new ConcurrentHashMap<Integer, SeatChange>();
+
+	/** auto wired SeatRepository for accessing the methods of seat repository */
+	@Autowired
+	private SeatRepository seatRepository;
+
+	/**
+	 * auto wired ScreenRepository for accessing the methods of screen repository
+	 */
+	@Autowired
+	private ScreenRepository screenRepository;
+
+	/** write-ahead log making the changes durable before they are written */
+	@Autowired
+	private WriteAheadLog writeAheadLog;
+
+	/** maximum no of seat changes written in one batch */
+	@Value("${booking.inventory.write-batch-size:500}")
+	private int batchSize;
+
+	/** changes taken from the queue but not written yet */
+	private final List<SeatChange> batch = new ArrayList<SeatChange>();
+
+	private volatile boolean running;
+
+	private Thread worker;
+
+	@PostConstruct
+	public void start() {
+		running = true;
+		worker = new Thread(this, "seat-status-writer");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * This method queues a status change for the given seats
+	 * 
+	 * @param screenId
+	 * @param seatIds
+	 * @param status   true when the seats are booked, false when released
+	 */
+	public void write(int screenId, Collection<Integer> seatIds, boolean status) {
+		write(screenId, seatIds, status, 0L);
+	}
+
+	/**
+	 * This method gives the changes of selected screen which are queued but not
+	 * written to the seat table yet
+	 * 
+	 * @param screenId
+	 * @return status of each seat keyed by seat id, true when booked
+	 */
+	public Map<Integer, Boolean> getPendingChanges(int screenId) {
+		Map<Integer, Boolean> changes = new LinkedHashMap<Integer, Boolean>();
+		for (SeatChange change : pending.values()) {
+			if (change.screenId == screenId) {
+				changes.put(change.seatId, change.status);
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * This method queues a status change for the given seats once the current
+	 * transaction commits, the change is logged and forced to the disk before the
+	 * transaction commits
+	 * 
+	 * @param screenId
+	 * @param seatIds
+	 * @param status   true when the seats are booked, false when released
+	 */
+	public void writeOnCommit(int screenId, Collection<Integer> seatIds, boolean status) {
+		if (seatIds.isEmpty()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+			/** sequence number of the log entry, 0 when nothing is logged */
+			private long lsn;
+
+			/** queued before the screen locks of the transaction are released */
+			@Override
+			public int getOrder() {
+				return 0;
+			}
+
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				if (writeAheadLog.isEnabled()) {
+					lsn = writeAheadLog.append(status, screenId, seatIds);
+					writeAheadLog.sync(lsn);
+				}
+			}
+
+			@Override
+			public void afterCompletion(int completion) {
+				if (completion == TransactionSynchronization.STATUS_COMMITTED) {
+					write(screenId, seatIds, status, lsn);
+				} else if (lsn != 0) {
+					writeAheadLog.complete(Collections.singleton(lsn));
+				}
+			}
+		});
+	}
+
+	private void write(int screenId, Collection<Integer> seatIds, boolean status, long lsn) {
+		for (Integer seatId : seatIds) {
+			SeatChange change = new SeatChange(seatId, status, lsn, screenId);
+			pending.put(seatId, change);
+			queue.add(change);
+		}
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			try {
+				if (batch.isEmpty()) {
+					batch.add(queue.take());
+				}
+				queue.drainTo(batch, batchSize - batch.size());
+				flush(batch);
+				batch.clear();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Unable to write {} seat status changes, retrying", batch.size(), e);
+				sleepQuietly();
+			}
+		}
+	}
+
+	/** This method writes the remaining changes before the application stops */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		running = false;
+		worker.interrupt();
+		worker.join();
+		queue.drainTo(batch);
+		flush(batch);
+		batch.clear();
+	}
+
+	/** writes the batch, the last change of a seat wins */
+	private void flush(List<SeatChange> batch) {
+		Map<Integer, Boolean> latest = new LinkedHashMap<Integer, Boolean>();
+		for (SeatChange change : batch) {
+			latest.put(change.seatId, change.status);
+		}
+		List<Integer> booked = new ArrayList<Integer>();
+		List<Integer> vacant = new ArrayList<Integer>();
+		for (Map.Entry<Integer, Boolean> entry : latest.entrySet()) {
+			(entry.getValue() ? booked : vacant).add(entry.getKey());
+		}
+		if (!booked.isEmpty()) {
+			seatRepository.updateSeatStatus(booked, true);
+		}
+		if (!vacant.isEmpty()) {
+			seatRepository.updateSeatStatus(vacant, false);
+		}
+		Set<Integer> screenIds = new HashSet<Integer>();
+		for (SeatChange change : batch) {
+			screenIds.add(change.screenId);
+		}
+		if (!screenIds.isEmpty()) {
+			screenRepository.recountFreeSeats(screenIds);
+		}
+		if (writeAheadLog.isEnabled()) {
+			Set<Long> lsns = new HashSet<Long>();
+			for (SeatChange change : batch) {
+				lsns.add(change.lsn);
+			}
+			writeAheadLog.complete(lsns);
+		}
+		for (SeatChange change : batch) {
+			pending.remove(change.seatId, change);
+		}
+	}
+
+	private void sleepQuietly() {
+		try {
+			Thread.sleep(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Status change of one seat. Changes are compared by identity, so a change
+	 * leaves the pending changes only if no later change of its seat replaced it.
+	 */
+	private static final class SeatChange {
+
+		private final int seatId;
+
+		/** true when the seat is booked, false when released */
+		private final boolean status;
+
+		/** sequence number of the log entry, 0 when nothing is logged */
+		private final long lsn;
+
+		private final int screenId;
+
+		private SeatChange(int seatId, boolean status, long lsn, int screenId) {
+			this.seatId = seatId;
+			this.status = status;
+			this.lsn = lsn;
+			this.screenId = screenId;
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.app.lock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Striped locks keyed by screen id. Bookings of the same screen serialize on
+ * one stripe while bookings of other screens take other stripes and run in
+ * parallel. The time spent waiting for a stripe and holding it is recorded per
+ * stripe so the stripe count can be sized under load.
+ */
+@Component
+public class ScreenLockManager {
+
+	/** locks of every stripe, the count is rounded up to a power of two */
+	private final ReentrantLock[] stripes;
+
+	/** time spent waiting for each stripe */
+	private final Timer[] waitTimers;
+
+	/** time each stripe is held */
+	private final Timer[] holdTimers;
+
+	/** no of bits of the screen id hash used for selecting a stripe */
+	private final int shift;
+
+	public ScreenLockManager(@Value("${booking.lock.stripes:64}") int stripeCount, MeterRegistry registry) {
+		int bits = 32 - Integer.numberOfLeadingZeros(Math.max(stripeCount, 1) - 1);
+		this.shift = 32 - bits;
+		this.stripes = new ReentrantLock[1 << bits];
+		this.waitTimers = new Timer[stripes.length];
+		this.holdTimers = new Timer[stripes.length];
+		for (int i = 0; i < stripes.length; i++) {
+			String stripe = String.valueOf(i);
+			stripes[i] = new ReentrantLock();
+			waitTimers[i] = Timer.builder("booking.screen.lock.wait").tag("stripe", stripe)
+					.description("time spent waiting for a screen lock stripe").register(registry);
+			holdTimers[i] = Timer.builder("booking.screen.lock.hold").tag("stripe", stripe)
+					.description("time a screen lock stripe is held").register(registry);
+		}
+	}
+
+	/** @return no of stripes */
+	public int getStripeCount() {
+		return stripes.length;
+	}
+
+	/**
+	 * This method maps the screen id to its stripe
+	 * 
+	 * @param screenId
+	 * @return stripe index
+	 */
+	public int stripeOf(int screenId) {
+		return shift == 32 ? 0 : (screenId * 0x9E3779B9) >>> shift;
+	}
+
+	/**
+	 * This method locks the stripe of selected screen, the returned lock has to
+	 * be closed by the same thread
+	 * 
+	 * @param screenId
+	 * @return held lock
+	 */
+	public HeldLock lock(int screenId) {
+		int stripe = stripeOf(screenId);
+		long start = System.nanoTime();
+		stripes[stripe].lock();
+		long acquired = System.nanoTime();
+		waitTimers[stripe].record(acquired - start, TimeUnit.NANOSECONDS);
+		return new HeldLock(stripe, acquired);
+	}
+
+	/**
+	 * This method locks the stripes of all the given screens, each stripe once and
+	 * in ascending stripe order so two callers locking overlapping screens can
+	 * never deadlock
+	 * 
+	 * @param screenIds
+	 * @return held locks in the order they were taken
+	 */
+	public List<HeldLock> lockAll(Collection<Integer> screenIds) {
+		TreeMap<Integer, Integer> stripesToLock = new TreeMap<Integer, Integer>();
+		for (Integer screenId : screenIds) {
+			stripesToLock.putIfAbsent(stripeOf(screenId), screenId);
+		}
+		List<HeldLock> locks = new ArrayList<HeldLock>();
+		for (Integer screenId : stripesToLock.values()) {
+			locks.add(lock(screenId));
+		}
+		return locks;
+	}
+
+	/** Lock of one stripe held by the current thread */
+	public class HeldLock implements AutoCloseable {
+
+		private final int stripe;
+
+		private final long acquired;
+
+		private boolean released;
+
+		private HeldLock(int stripe, long acquired) {
+			this.stripe = stripe;
+			this.acquired = acquired;
+		}
+
+		/** This method releases the stripe and records how long it was held */
+		@Override
+		public void close() {
+			if (!released) {
+				released = true;
+				holdTimers[stripe].record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+				stripes[stripe].unlock();
+			}
+		}
+	}
+
+}
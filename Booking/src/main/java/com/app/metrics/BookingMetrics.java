@@ -0,0 +1,234 @@
+package com.app.metrics;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers of the phases of booking and cancelling and counters of requested
+ * seats, conflicts, retries and sold out rejections. Every phase is a timer named
+ * booking.phase tagged with the operation and the phase, published with a
+ * percentile histogram and the 50th, 95th and 99th percentile so a slow phase
+ * can be told apart in /actuator/metrics. Conflicts and retries are tagged with
+ * the screen for a bounded no of screens which conflicted lately, the conflicts
+ * of every other screen are counted under the screen tag other.
+ */
+@Component
+public class BookingMetrics {
+
+	/** operation of booking seats */
+	public static final String BOOK = "book";
+
+	/** operation of cancelling a booking */
+	public static final String CANCEL = "cancel";
+
+	/** screen tag of the conflicts of the screens without a tag of their own */
+	public static final String OTHER_SCREENS = "other";
+
+	private final MeterRegistry registry;
+
+	/** timer of every operation and phase keyed by operation:phase */
+	private final Map<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+
+	/** most screens whose conflicts are counted under a tag of their own */
+	@Value("${booking.metrics.conflict-screens:20}")
+	private int maxConflictScreens;
+
+	/** a screen without a conflict for this long gives its tag up to another screen */
+	@Value("${booking.metrics.conflict-screen-idle-ms:600000}")
+	private long conflictScreenIdleMs;
+
+	/**
+	 * time of the last conflict of every screen with a tag of its own, a tag for
+	 * every screen ever booked would add a time series per screen
+	 */
+	private final Map<String, Long> conflictScreens = new HashMap<String, Long>();
+
+	/** conflict counter of every operation and screen tag keyed by operation:screen */
+	private final Map<String, Counter> concurrencyConflicts = new ConcurrentHashMap<String, Counter>();
+
+	/** retry counter of every operation and screen tag keyed by operation:screen */
+	private final Map<String, Counter> conflictRetries = new ConcurrentHashMap<String, Counter>();
+
+	/** no of seats asked for by bookings */
+	private final Counter seatsRequested;
+
+	/** bookings rejected as a selected seat was already booked */
+	private final Counter conflicts;
+
+	/** bookings rejected as the screen had fewer vacant seats than asked for */
+	private final Counter soldOut;
+
+	public BookingMetrics(MeterRegistry registry) {
+		this.registry = registry;
+		this.seatsRequested = Counter.builder("booking.seats.requested")
+				.description("no of seats asked for by bookings").register(registry);
+		this.conflicts = Counter.builder("booking.conflicts")
+				.description("bookings rejected as a selected seat was already booked").register(registry);
+		this.soldOut = Counter.builder("booking.sold.out")
+				.description("bookings rejected as the screen had too few vacant seats").register(registry);
+	}
+
+	/**
+	 * This method starts timing a phase
+	 * 
+	 * @return started sample to be given to {@link #stop}
+	 */
+	public Timer.Sample start() {
+		return Timer.start(registry);
+	}
+
+	/**
+	 * This method records the time of a phase since the sample was started
+	 * 
+	 * @param sample    started sample
+	 * @param operation book or cancel
+	 * @param phase     name of the phase
+	 */
+	public void stop(Timer.Sample sample, String operation, String phase) {
+		sample.stop(timer(operation, phase));
+	}
+
+	/**
+	 * This method records the time of a phase and starts timing the next one
+	 * 
+	 * @param sample    started sample
+	 * @param operation book or cancel
+	 * @param phase     name of the finished phase
+	 * @return started sample of the next phase
+	 */
+	public Timer.Sample next(Timer.Sample sample, String operation, String phase) {
+		stop(sample, operation, phase);
+		return start();
+	}
+
+	/**
+	 * This method times the commit of the current transaction as the commit phase
+	 * of the operation, the batched inserts are flushed in this phase
+	 * 
+	 * @param operation book or cancel
+	 */
+	public void timeCommit(String operation) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+			private Timer.Sample sample;
+
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				sample = start();
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				if (sample != null && status == TransactionSynchronization.STATUS_COMMITTED) {
+					stop(sample, operation, "commit");
+				}
+			}
+		});
+	}
+
+	/** @param count no of seats asked for by a booking */
+	public void seatsRequested(int count) {
+		seatsRequested.increment(count);
+	}
+
+	/** counts a booking rejected as a selected seat was already booked */
+	public void conflict() {
+		conflicts.increment();
+	}
+
+	/** counts a booking rejected as the screen had too few vacant seats */
+	public void soldOut() {
+		soldOut.increment();
+	}
+
+	/**
+	 * counts an attempt which failed on a concurrent change of the screen
+	 * 
+	 * @param operation name of the retried operation
+	 * @param screen    screen id of the call
+	 */
+	public void concurrencyConflict(String operation, String screen) {
+		String tag = screenTag(screen);
+		concurrencyConflicts.computeIfAbsent(operation + ":" + tag,
+				key -> Counter.builder("booking.concurrency.conflicts").tag("operation", operation).tag("screen", tag)
+						.description("attempts failed on a concurrent change of the screen").register(registry))
+				.increment();
+	}
+
+	/**
+	 * counts an attempt made again after a concurrent change of the screen
+	 * 
+	 * @param operation name of the retried operation
+	 * @param screen    screen id of the call
+	 */
+	public void conflictRetry(String operation, String screen) {
+		String tag = screenTag(screen);
+		conflictRetries.computeIfAbsent(operation + ":" + tag,
+				key -> Counter.builder("booking.concurrency.retries").tag("operation", operation).tag("screen", tag)
+						.description("attempts made again after a concurrent change of the screen").register(registry))
+				.increment();
+	}
+
+	/**
+	 * gives the screen a tag of its own while fewer than the most screens have one,
+	 * once they are all taken the screens which have not conflicted for the idle
+	 * time give their tags up, so the screens conflicting most lately keep theirs
+	 * 
+	 * @return screen id or {@link #OTHER_SCREENS}
+	 */
+	private synchronized String screenTag(String screen) {
+		long now = System.currentTimeMillis();
+		if (!conflictScreens.containsKey(screen) && conflictScreens.size() >= maxConflictScreens) {
+			releaseIdleScreens(now);
+		}
+		if (conflictScreens.containsKey(screen) || conflictScreens.size() < maxConflictScreens) {
+			conflictScreens.put(screen, now);
+			return screen;
+		}
+		return OTHER_SCREENS;
+	}
+
+	/** removes the tags of the screens which have not conflicted for the idle time and their counters */
+	private void releaseIdleScreens(long now) {
+		Iterator<Map.Entry<String, Long>> screens = conflictScreens.entrySet().iterator();
+		while (screens.hasNext()) {
+			Map.Entry<String, Long> screen = screens.next();
+			if (now - screen.getValue() >= conflictScreenIdleMs) {
+				screens.remove();
+				removeCounters(concurrencyConflicts, screen.getKey());
+				removeCounters(conflictRetries, screen.getKey());
+			}
+		}
+	}
+
+	private void removeCounters(Map<String, Counter> counters, String screen) {
+		Iterator<Map.Entry<String, Counter>> entries = counters.entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<String, Counter> entry = entries.next();
+			if (entry.getKey().endsWith(":" + screen)) {
+				entries.remove();
+				registry.remove(entry.getValue());
+			}
+		}
+	}
+
+	private Timer timer(String operation, String phase) {
+		return timers.computeIfAbsent(operation + ":" + phase,
+				key -> Timer.builder("booking.phase").tag("operation", operation).tag("phase", phase)
+						.description("time spent in one phase of booking or cancelling")
+						.publishPercentiles(0.5, 0.95, 0.99).publishPercentileHistogram().register(registry));
+	}
+
+}
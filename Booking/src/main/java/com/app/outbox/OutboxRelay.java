@@ -0,0 +1,158 @@
+package com.app.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.entity.OutboxEvent;
+import com.app.repository.OutboxEventRepository;
+
+/**
+ * Publishes the events of the outbox table to the {@link SeatEventBroker} in
+ * batches. A batch is locked, published and deleted in one transaction, so an
+ * event is removed only after every subscriber took it and a failed batch is
+ * published again. The relay is woken up when a booking commits and otherwise
+ * polls the table. It is switched off by default, and while the broker has no
+ * subscribers it leaves the events in the table instead of deleting them.
+ */
+@Component
+public class OutboxRelay implements Runnable {
+
+	private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+	/** auto wired OutboxEventRepository for accessing the methods of outbox repository */
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	/** broker the events are published to */
+	@Autowired
+	private SeatEventBroker broker;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/** a node with the relay switched off only writes events */
+	@Value("${booking.outbox.relay-enabled:false}")
+	private boolean enabled;
+
+	/** maximum no of events published in one batch */
+	@Value("${booking.outbox.batch-size:100}")
+	private int batchSize;
+
+	/** longest wait between two looks at the outbox table in milliseconds */
+	@Value("${booking.outbox.poll-ms:1000}")
+	private long pollMs;
+
+	private TransactionTemplate transactionTemplate;
+
+	/** set when new events were committed since the last batch */
+	private boolean pending;
+
+	/** set once the missing subscribers were logged */
+	private boolean warned;
+
+	private volatile boolean running;
+
+	private Thread worker;
+
+	@PostConstruct
+	public void start() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		if (enabled) {
+			running = true;
+			worker = new Thread(this, "outbox-relay");
+			worker.setDaemon(true);
+			worker.start();
+		}
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		running = false;
+		if (worker != null) {
+			worker.interrupt();
+			worker.join();
+		}
+	}
+
+	/** This method wakes the relay up after events were committed */
+	public void wake() {
+		synchronized (this) {
+			pending = true;
+			notify();
+		}
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			try {
+				if (relay() < batchSize) {
+					synchronized (this) {
+						if (!pending) {
+							wait(pollMs);
+						}
+						pending = false;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Unable to relay outbox events, retrying", e);
+				sleepQuietly();
+			}
+		}
+	}
+
+	/**
+	 * This method publishes the next batch of events and deletes them, nothing is
+	 * taken from the table while nobody subscribed
+	 * 
+	 * @return no of events published
+	 */
+	public int relay() {
+		if (!broker.hasSubscribers()) {
+			if (!warned) {
+				warned = true;
+				log.warn("Outbox relay has no subscribers, events are kept in the outbox table");
+			}
+			return 0;
+		}
+		Integer published = transactionTemplate.execute(status -> {
+			List<OutboxEvent> events = outboxEventRepository.lockNextEvents(batchSize);
+			if (events.isEmpty()) {
+				return 0;
+			}
+			List<SeatEvent> seatEvents = new ArrayList<SeatEvent>();
+			List<Long> eventIds = new ArrayList<Long>();
+			for (OutboxEvent event : events) {
+				seatEvents.add(new SeatEvent(event));
+				eventIds.add(event.getEventId());
+			}
+			broker.publish(seatEvents);
+			outboxEventRepository.deleteEvents(eventIds);
+			return events.size();
+		});
+		return published == null ? 0 : published;
+	}
+
+	private void sleepQuietly() {
+		try {
+			Thread.sleep(pollMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.app.outbox;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import com.app.entity.OutboxEvent;
+
+/**
+ * Booking or cancellation published to the subscribers of the
+ * {@link SeatEventBroker}. Event ids grow in commit order of the outbox, a
+ * subscriber may see an event again after a failed delivery and should ignore
+ * ids it has already applied.
+ */
+public class SeatEvent {
+
+	private final long eventId;
+
+	/** BOOKED or CANCELLED */
+	private final String eventType;
+
+	private final int bookingId;
+
+	private final int screenId;
+
+	/** seats which became booked or vacant */
+	private final List<Integer> seatIds;
+
+	private final Date createdAt;
+
+	public SeatEvent(OutboxEvent event) {
+		this.eventId = event.getEventId();
+		this.eventType = event.getEventType();
+		this.bookingId = event.getBookingId();
+		this.screenId = event.getScreenId();
+		this.seatIds = Collections.unmodifiableList(event.seatIdList());
+		this.createdAt = event.getCreatedAt();
+	}
+
+	public long getEventId() {
+		return eventId;
+	}
+
+	public String getEventType() {
+		return eventType;
+	}
+
+	public int getBookingId() {
+		return bookingId;
+	}
+
+	public int getScreenId() {
+		return screenId;
+	}
+
+	public List<Integer> getSeatIds() {
+		return seatIds;
+	}
+
+	public Date getCreatedAt() {
+		return createdAt;
+	}
+
+	/** @return true if the seats became booked, false if they became vacant */
+	public boolean isBooked() {
+		return OutboxEvent.BOOKED.equals(eventType);
+	}
+
+	@Override
+	public String toString() {
+		return "SeatEvent(eventId=" + eventId + ", eventType=" + eventType + ", bookingId=" + bookingId
+				+ ", screenId=" + screenId + ", seatIds=" + seatIds + ")";
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.app.outbox;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process stand-in for a message broker. The outbox relay publishes every
+ * batch of seat events here and each subscriber gets the batch on the relay
+ * thread, a remote broker can later take its place behind the same methods.
+ */
+@Component
+public class SeatEventBroker {
+
+	/** registered subscribers in order of registration */
+	private final List<SeatEventSubscriber> subscribers = new CopyOnWriteArrayList<SeatEventSubscriber>();
+
+	/**
+	 * This method registers a subscriber for all the following batches
+	 * 
+	 * @param subscriber
+	 */
+	public void subscribe(SeatEventSubscriber subscriber) {
+		subscribers.add(subscriber);
+	}
+
+	/**
+	 * This method removes a subscriber
+	 * 
+	 * @param subscriber
+	 */
+	public void unsubscribe(SeatEventSubscriber subscriber) {
+		subscribers.remove(subscriber);
+	}
+
+	/** @return true if at least one subscriber is registered */
+	public boolean hasSubscribers() {
+		return !subscribers.isEmpty();
+	}
+
+	/**
+	 * This method hands the batch to every subscriber, the first failing
+	 * subscriber stops the delivery so the batch is published again
+	 * 
+	 * @param events
+	 */
+	public void publish(List<SeatEvent> events) {
+		for (SeatEventSubscriber subscriber : subscribers) {
+			subscriber.onEvents(events);
+		}
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.app.outbox;
+
+import java.util.List;
+
+/**
+ * Receiver of the seat events relayed from the outbox
+ */
+@FunctionalInterface
+public interface SeatEventSubscriber {
+
+	/**
+	 * This method is called with every batch of events in event id order, an
+	 * exception makes the relay deliver the same batch again
+	 * 
+	 * @param events
+	 */
+	void onEvents(List<SeatEvent> events);
+
+}
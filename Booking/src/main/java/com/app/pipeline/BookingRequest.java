@@ -0,0 +1,33 @@
+package com.app.pipeline;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import com.app.entity.Booking;
+import com.app.inventory.SeatClaim;
+
+/** Booking request waiting in the queue of a writer */
+class BookingRequest {
+
+	final int userId;
+
+	final int screenId;
+
+	final Set<Integer> seatIds;
+
+	/** completed with the booking once it is committed */
+	final CompletableFuture<Booking> result = new CompletableFuture<Booking>();
+
+	/** claim of the seats in the seat inventory, set by the writer */
+	SeatClaim claim;
+
+	/** booking written in the current transaction */
+	Booking booking;
+
+	BookingRequest(int userId, int screenId, Set<Integer> seatIds) {
+		this.userId = userId;
+		this.screenId = screenId;
+		this.seatIds = seatIds;
+	}
+
+}
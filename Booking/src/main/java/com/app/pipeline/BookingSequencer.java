@@ -0,0 +1,240 @@
+package com.app.pipeline;
+
+import static com.app.service.Transactions.afterCompletion;
+import static com.app.service.Transactions.releaseAfterCompletion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.entity.Booking;
+import com.app.entity.User;
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+import com.app.inventory.SeatInventory;
+import com.app.lock.ScreenLockManager;
+import com.app.lock.ScreenLockManager.HeldLock;
+import com.app.repository.ScreenRepository;
+import com.app.repository.UserRepository;
+import com.app.service.BookingWriter;
+
+/**
+ * Single writer booking pipeline. Every screen is owned by one writer thread
+ * which takes booking requests from its bounded queue in arrival order, claims
+ * the seats in the seat inventory without contention and commits the whole
+ * micro batch in one transaction. If the batch can not be committed every
+ * request of it is retried in a transaction of its own.
+ */
+@Component
+public class BookingSequencer {
+
+	/** no of writer threads */
+	@Value("${booking.pipeline.writers:4}")
+	private int writerCount;
+
+	/** capacity of the queue of every writer */
+	@Value("${booking.pipeline.queue-capacity:4096}")
+	private int queueCapacity;
+
+	/** maximum no of requests committed in one transaction */
+	@Value("${booking.pipeline.batch-size:64}")
+	private int batchSize;
+
+	/** auto wired UserRepository for accessing the methods of user repository */
+	@Autowired
+	private UserRepository userRepository;
+
+	/**
+	 * auto wired ScreenRepository for accessing the methods of screen repository
+	 */
+	@Autowired
+	private ScreenRepository screenRepository;
+
+	/** resident seat inventory answering availability and claims from memory */
+	@Autowired
+	private SeatInventory seatInventory;
+
+	/** striped screen locks, a stripe always belongs to the same writer */
+	@Autowired
+	private ScreenLockManager screenLocks;
+
+	/** writer persisting bookings of claimed seats */
+	@Autowired
+	private BookingWriter bookingWriter;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	private List<BlockingQueue<BookingRequest>> queues;
+
+	private List<Thread> writers;
+
+	@PostConstruct
+	public void start() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		queues = new ArrayList<BlockingQueue<BookingRequest>>();
+		writers = new ArrayList<Thread>();
+		for (int i = 0; i < writerCount; i++) {
+			BlockingQueue<BookingRequest> queue = new ArrayBlockingQueue<BookingRequest>(queueCapacity);
+			Thread writer = new Thread(() -> drain(queue), "booking-writer-" + i);
+			writer.setDaemon(true);
+			queues.add(queue);
+			writers.add(writer);
+			writer.start();
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		for (Thread writer : writers) {
+			writer.interrupt();
+		}
+		for (BlockingQueue<BookingRequest> queue : queues) {
+			for (BookingRequest request; (request = queue.poll()) != null;) {
+				request.result.completeExceptionally(new IllegalStateException("Booking service is shutting down"));
+			}
+		}
+	}
+
+	/**
+	 * This method queues the booking request to the writer owning the screen
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param seats
+	 * @return future completed with the booking once it is committed
+	 */
+	public CompletableFuture<Booking> submit(int userId, int screenId, List<Integer> seats) {
+		BookingRequest request = new BookingRequest(userId, screenId, new LinkedHashSet<Integer>(seats));
+		if (request.seatIds.isEmpty()) {
+			request.result.completeExceptionally(new InvalidDataException("Select at least one seat to book"));
+		} else if (!queues.get(screenLocks.stripeOf(screenId) % writerCount).offer(request)) {
+			request.result.completeExceptionally(
+					new InvalidDataException("Too many bookings are waiting for this screen, please try again"));
+		}
+		return request.result;
+	}
+
+	private void drain(BlockingQueue<BookingRequest> queue) {
+		List<BookingRequest> batch = new ArrayList<BookingRequest>();
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				batch.add(queue.take());
+				queue.drainTo(batch, batchSize - 1);
+				process(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (RuntimeException e) {
+				for (BookingRequest request : batch) {
+					request.result.completeExceptionally(e);
+				}
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/** claims the seats of the batch in order and commits the claimed ones together */
+	private void process(List<BookingRequest> batch) {
+		List<BookingRequest> claimed = new ArrayList<BookingRequest>();
+		for (BookingRequest request : batch) {
+			try {
+				request.claim = seatInventory.claim(request.screenId, request.seatIds);
+				claimed.add(request);
+			} catch (InvalidDataException | NotFoundException e) {
+				request.result.completeExceptionally(e);
+			}
+		}
+		if (claimed.isEmpty()) {
+			return;
+		}
+
+		try {
+			commit(claimed);
+		} catch (RuntimeException e) {
+			for (BookingRequest request : claimed) {
+				request.claim.release();
+			}
+			if (claimed.size() == 1) {
+				claimed.get(0).result.completeExceptionally(causeOf(e));
+				return;
+			}
+			/** one request spoiled the batch, commit every request on its own */
+			for (BookingRequest request : claimed) {
+				try {
+					request.claim = seatInventory.claim(request.screenId, request.seatIds);
+					commit(Collections.singletonList(request));
+				} catch (InvalidDataException | NotFoundException f) {
+					request.result.completeExceptionally(f);
+				} catch (RuntimeException f) {
+					request.claim.release();
+					request.result.completeExceptionally(causeOf(f));
+				}
+			}
+		}
+	}
+
+	private static Throwable causeOf(RuntimeException e) {
+		return e instanceof WriteFailure ? e.getCause() : e;
+	}
+
+	/** writes the bookings of the claimed requests in one transaction */
+	private void commit(List<BookingRequest> requests) {
+		transactionTemplate.execute(status -> {
+			/** lock every stripe of the batch once, in stripe order */
+			List<Integer> screenIds = new ArrayList<Integer>();
+			for (BookingRequest request : requests) {
+				screenIds.add(request.screenId);
+			}
+			for (HeldLock lock : screenLocks.lockAll(screenIds)) {
+				releaseAfterCompletion(lock);
+			}
+
+			for (BookingRequest request : requests) {
+				try {
+					User user = userRepository.findById(request.userId)
+							.orElseThrow(() -> new NotFoundException("Unable to find user by given user id"));
+					if (!screenRepository.existsById(request.screenId)) {
+						throw new NotFoundException("Unable to find screen with given screen id");
+					}
+					request.booking = bookingWriter.write(user, request.screenId, request.seatIds, request.claim);
+				} catch (InvalidDataException | NotFoundException e) {
+					throw new WriteFailure(e);
+				}
+			}
+			afterCompletion(() -> {
+				for (BookingRequest request : requests) {
+					request.result.complete(request.booking);
+				}
+			}, () -> {
+			});
+			return null;
+		});
+	}
+
+	/** Business failure of one request which rolls back the whole batch */
+	private static class WriteFailure extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		WriteFailure(Exception cause) {
+			super(cause);
+		}
+	}
+
+}
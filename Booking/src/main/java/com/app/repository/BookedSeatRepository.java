@@ -1,8 +1,10 @@
 package com.app.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import com.app.entity.BookedSeat;
@@ -16,4 +18,35 @@ public interface BookedSeatRepository extends JpaRepository<com.app.entity.Booke
 	@Query(value = "select * from booked_seat m where m.booking_id=:bookingId", nativeQuery = true)
 	List<BookedSeat> bookedSeat(int bookingId);
 
+	/**
+	 * This method is for getting screen and seat id of all the seats of selected
+	 * booking
+	 * 
+	 * @param bookingId
+	 * @return list of rows having screen_id and seat_id
+	 */
+	@Query(value = "select s.screen_id, s.seat_id from booked_seat m join seat s on s.seat_id=m.seat_id where m.booking_id=:bookingId", nativeQuery = true)
+	List<Object[]> getSeatsOfBooking(int bookingId);
+
+	/**
+	 * This method is for getting the seats of several bookings in one query
+	 * 
+	 * @param bookingIds
+	 * @return list of rows having booking_id, screen_id and seat_id ordered by
+	 *         booking and seat id
+	 */
+	@Query(value = "select m.booking_id, s.screen_id, s.seat_id from booked_seat m join seat s on s.seat_id=m.seat_id where m.booking_id in (:bookingIds) order by m.booking_id, s.seat_id", nativeQuery = true)
+	List<Object[]> getSeatsOfBookings(Collection<Integer> bookingIds);
+
+	/**
+	 * This method deletes all the booked seats of selected booking in one
+	 * statement
+	 * 
+	 * @param bookingId
+	 * @return no of booked seats deleted
+	 */
+	@Modifying
+	@Query(value = "delete from booked_seat where booking_id=:bookingId", nativeQuery = true)
+	int deleteSeatsOfBooking(int bookingId);
+
 }
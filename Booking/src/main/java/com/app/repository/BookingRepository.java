@@ -1,6 +1,10 @@
 package com.app.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import com.app.entity.Booking;
@@ -11,4 +15,27 @@ import com.app.entity.Booking;
  */
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
 
+	/**
+	 * This method deletes the booking with given id without loading it
+	 * 
+	 * @param bookingId
+	 * @return no of bookings deleted
+	 */
+	@Modifying
+	@Query(value = "delete from booking where booking_id=:bookingId", nativeQuery = true)
+	int deleteBooking(int bookingId);
+
+	/**
+	 * This method is for getting the next bookings of selected user after the
+	 * given booking id, it seeks on the (user_id, booking_id) index so every page
+	 * costs the same however deep it is
+	 * 
+	 * @param userId
+	 * @param afterBookingId booking id of the last booking of the previous page
+	 * @param limit          maximum no of bookings
+	 * @return list of booking ids in ascending order
+	 */
+	@Query(value = "select b.booking_id from booking b where b.user_id=:userId and b.booking_id>:afterBookingId order by b.booking_id limit :limit", nativeQuery = true)
+	List<Integer> getBookingIdsOfUser(int userId, int afterBookingId, int limit);
+
 }
@@ -0,0 +1,38 @@
+package com.app.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import com.app.entity.OutboxEvent;
+
+/**
+ * This is OutboxEvent repository, It will interact with database using
+ * CrudRepository.
+ */
+public interface OutboxEventRepository extends CrudRepository<OutboxEvent, Long> {
+
+	/**
+	 * This method is for locking the oldest unpublished events, a relay running
+	 * on another node waits for the lock and then skips the published events
+	 * 
+	 * @param limit maximum no of events
+	 * @return list of events ordered by event id
+	 */
+	@Query(value = "select * from outbox_event m order by m.event_id limit :limit for update", nativeQuery = true)
+	List<OutboxEvent> lockNextEvents(int limit);
+
+	/**
+	 * This method deletes the published events
+	 * 
+	 * @param eventIds
+	 * @return no of events deleted
+	 */
+	@Modifying
+	@Query(value = "delete from outbox_event where event_id in (:eventIds)", nativeQuery = true)
+	int deleteEvents(Collection<Long> eventIds);
+
+}
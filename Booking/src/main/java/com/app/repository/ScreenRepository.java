@@ -1,9 +1,12 @@
 package com.app.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.app.entity.Screen;
 
@@ -21,4 +24,67 @@ public interface ScreenRepository extends CrudRepository<Screen, Integer> {
 	@Query(value = "select * from Screen m where m.movie_id=:movie", nativeQuery = true)
 	List<Screen> getAllShowsOfSelectedMovie(int movie);
 
+	/**
+	 * This method is for checking which of the given screens exist in one query
+	 * 
+	 * @param screenIds
+	 * @return ids of the existing screens
+	 */
+	@Query(value = "select m.screen_id from screen m where m.screen_id in (:screenIds)", nativeQuery = true)
+	List<Number> getExistingScreenIds(Collection<Integer> screenIds);
+
+	/**
+	 * This method takes the claimed seats off the free seat counter of the screen,
+	 * a counter which is missing or lower than the no of claimed seats is left
+	 * alone
+	 * 
+	 * @param screenId
+	 * @param count    no of claimed seats
+	 * @return no of screens updated, 0 if the counter did not cover the seats
+	 */
+	@Modifying
+	@Query(value = "update screen set free_seats=free_seats-:count, version=version+1 where screen_id=:screenId and free_seats>=:count", nativeQuery = true)
+	int takeFreeSeats(int screenId, int count);
+
+	/**
+	 * This method adds the released seats to the free seat counter of the screen,
+	 * a missing counter stays missing until the screen is recounted
+	 * 
+	 * @param screenId
+	 * @param count    no of released seats
+	 * @return no of screens updated
+	 */
+	@Modifying
+	@Query(value = "update screen set free_seats=free_seats+:count, version=version+1 where screen_id=:screenId", nativeQuery = true)
+	int returnFreeSeats(int screenId, int count);
+
+	/**
+	 * This method is for getting the free seat counter of every screen
+	 * 
+	 * @return list of rows having screen_id and free_seats
+	 */
+	@Query(value = "select m.screen_id, m.free_seats from screen m where m.free_seats is not null", nativeQuery = true)
+	List<Object[]> getFreeSeatsOfAllScreens();
+
+	/**
+	 * This method is for finding the screens whose free seat counter does not
+	 * match their vacant seats
+	 * 
+	 * @return ids of the screens
+	 */
+	@Query(value = "select m.screen_id from screen m where m.free_seats is null or m.free_seats<>(select count(*) from seat s where s.screen_id=m.screen_id and s.status=false)", nativeQuery = true)
+	List<Number> getScreensWithFreeSeatDrift();
+
+	/**
+	 * This method sets the free seat counter of the given screens from their
+	 * vacant seats
+	 * 
+	 * @param screenIds
+	 * @return no of screens updated
+	 */
+	@Transactional
+	@Modifying
+	@Query(value = "update screen set free_seats=(select count(*) from seat s where s.screen_id=screen.screen_id and s.status=false), version=version+1 where screen_id in (:screenIds)", nativeQuery = true)
+	int recountFreeSeats(Collection<Integer> screenIds);
+
 }
@@ -1,9 +1,13 @@
 package com.app.repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.app.entity.Screen;
 import com.app.entity.Seat;
@@ -30,4 +34,114 @@ public interface SeatRepository extends CrudRepository<Seat, Integer> {
 	@Query(value = "select status from Seat m where m.screen_id=:screen", nativeQuery = true)
 	List<Boolean> getStatusAllSeatsOfSelectedScreen(Screen screen);
 
+	/**
+	 * This method claims all the given seats of selected screen in one statement.
+	 * A seat is only claimed if it is still vacant, so the returned count is less
+	 * than the number of seat ids when any of them is already booked
+	 * 
+	 * @param seatIds  ids of the seats to claim
+	 * @param screenId screen id
+	 * @return number of seats claimed
+	 */
+	@Modifying
+	@Query(value = "update seat set status=true, version=version+1 where seat_id in (:seatIds) and screen_id=:screenId and status=false", nativeQuery = true)
+	int claimSeats(Collection<Integer> seatIds, int screenId);
+
+	/**
+	 * This method is for counting how many of the given seats belong to selected
+	 * screen
+	 * 
+	 * @param seatIds  ids of the seats
+	 * @param screenId screen id
+	 * @return no of matching seats
+	 */
+	@Query(value = "select count(*) from seat m where m.seat_id in (:seatIds) and m.screen_id=:screenId", nativeQuery = true)
+	int countSeatsOfScreen(Collection<Integer> seatIds, int screenId);
+
+	/**
+	 * This method is for getting id, screen, status and position of every seat
+	 * ordered by screen and seat id
+	 * 
+	 * @return list of rows having seat_id, screen_id, status, seat_row and
+	 *         seat_column
+	 */
+	@Query(value = "select m.seat_id, m.screen_id, m.status, m.seat_row, m.seat_column from seat m order by m.screen_id, m.seat_id", nativeQuery = true)
+	List<Object[]> getSeatStatusOfAllScreens();
+
+	/**
+	 * This method is for getting id, status and position of all the seats of
+	 * selected screen ordered by seat id
+	 * 
+	 * @param screenId screen id
+	 * @return list of rows having seat_id, status, seat_row and seat_column
+	 */
+	@Query(value = "select m.seat_id, m.status, m.seat_row, m.seat_column from seat m where m.screen_id=:screenId order by m.seat_id", nativeQuery = true)
+	List<Object[]> getSeatStatusOfSelectedScreen(int screenId);
+
+	/**
+	 * This method locks a page of the vacant seats of the screen, seats locked by
+	 * other transactions are skipped instead of waited for, so concurrent buyers
+	 * of any seats get disjoint seats without blocking each other
+	 * 
+	 * @param screenId
+	 * @param limit    no of seats in the page
+	 * @param offset   no of seats of the earlier pages
+	 * @return ids of the locked seats ordered by seat id
+	 */
+	@Query(value = "select m.seat_id from seat m where m.screen_id=:screenId and m.status=false order by m.seat_id limit :limit offset :offset for update skip locked", nativeQuery = true)
+	List<Number> lockVacantSeats(int screenId, int limit, int offset);
+
+	/**
+	 * This method sets the status of all the given seats in one statement
+	 * 
+	 * @param seatIds ids of the seats
+	 * @param status  new status
+	 * @return number of seats updated
+	 */
+	@Transactional
+	@Modifying
+	@Query(value = "update seat set status=:status, version=version+1 where seat_id in (:seatIds)", nativeQuery = true)
+	int updateSeatStatus(Collection<Integer> seatIds, boolean status);
+
+	/**
+	 * This method is for getting the seats changed since the given time
+	 * 
+	 * @param since
+	 * @return list of rows having seat_id, screen_id and status
+	 */
+	@Query(value = "select m.seat_id, m.screen_id, m.status from seat m where m.updated_at>=:since", nativeQuery = true)
+	List<Object[]> getSeatStatusChangedSince(Date since);
+
+	/**
+	 * This method is for getting the current time of the database, the change
+	 * times of the seats are compared with it
+	 * 
+	 * @return current time of the database
+	 */
+	@Query(value = "select localtimestamp(3)", nativeQuery = true)
+	Date getDatabaseTime();
+
+	/**
+	 * This method sets the status of the given seats from their booked seats, a
+	 * seat is booked exactly when a booking holds it
+	 * 
+	 * @param seatIds ids of the seats
+	 * @return number of seats updated
+	 */
+	@Transactional
+	@Modifying
+	@Query(value = "update seat set status=case when exists (select 1 from booked_seat b where b.seat_id=seat.seat_id) then true else false end, version=version+1 where seat_id in (:seatIds)", nativeQuery = true)
+	int restoreSeatStatus(Collection<Integer> seatIds);
+
+	/**
+	 * This method marks all the seats of selected booking as vacant in one
+	 * statement
+	 * 
+	 * @param bookingId
+	 * @return no of seats released
+	 */
+	@Modifying
+	@Query(value = "update seat set status=false, version=version+1 where seat_id in (select b.seat_id from booked_seat b where b.booking_id=:bookingId)", nativeQuery = true)
+	int releaseSeatsOfBooking(int bookingId);
+
 }
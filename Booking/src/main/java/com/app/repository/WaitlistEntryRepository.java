@@ -0,0 +1,48 @@
+package com.app.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import com.app.entity.WaitlistEntry;
+
+/**
+ * This is WaitlistEntry repository, It will interact with database using
+ * CrudRepository.
+ */
+public interface WaitlistEntryRepository extends CrudRepository<WaitlistEntry, Long> {
+
+	/**
+	 * This method is for locking the oldest waiting entries of selected screen
+	 * 
+	 * @param screenId
+	 * @param limit    maximum no of entries
+	 * @return list of waiting entries ordered by entry id
+	 */
+	@Query(value = "select * from waitlist_entry m where m.screen_id=:screenId and m.booking_id is null order by m.entry_id limit :limit for update", nativeQuery = true)
+	List<WaitlistEntry> lockWaitingEntries(int screenId, int limit);
+
+	/**
+	 * This method is for finding the entry the user is still waiting with for
+	 * selected screen
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @return list of waiting entries of the user
+	 */
+	@Query(value = "select * from waitlist_entry m where m.screen_id=:screenId and m.booking_id is null and m.user_id=:userId", nativeQuery = true)
+	List<WaitlistEntry> getWaitingEntriesOfUser(int userId, int screenId);
+
+	/**
+	 * This method deletes the entry if the user is still waiting with it
+	 * 
+	 * @param entryId
+	 * @return no of entries deleted
+	 */
+	@Modifying
+	@Query(value = "delete from waitlist_entry where entry_id=:entryId and booking_id is null", nativeQuery = true)
+	int deleteWaitingEntry(long entryId);
+
+}
@@ -0,0 +1,76 @@
+package com.app.routing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring of nodes keyed by node id. Every node is placed on the
+ * ring many times as virtual nodes so the keys spread evenly, and a node joining
+ * or leaving only moves the keys between itself and its neighbours. A key
+ * belongs to the first virtual node at or after the hash of the key.
+ *
+ * @param <T> node
+ */
+public class ConsistentHashRing<T> {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/** virtual nodes keyed by their position on the ring */
+	private final TreeMap<Long, T> ring = new TreeMap<Long, T>();
+
+	/**
+	 * @param nodes        nodes keyed by node id
+	 * @param virtualNodes no of places of every node on the ring
+	 */
+	public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+		for (Map.Entry<String, T> node : nodes.entrySet()) {
+			for (int i = 0; i < virtualNodes; i++) {
+				ring.put(hash(node.getKey() + "#" + i), node.getValue());
+			}
+		}
+	}
+
+	/** @return true if the ring has no nodes */
+	public boolean isEmpty() {
+		return ring.isEmpty();
+	}
+
+	/**
+	 * This method gives the node owning the key
+	 * 
+	 * @param key
+	 * @return owning node or null if the ring is empty
+	 */
+	public T get(long key) {
+		if (ring.isEmpty()) {
+			return null;
+		}
+		SortedMap<Long, T> tail = ring.tailMap(mix(key));
+		return tail.isEmpty() ? ring.firstEntry().getValue() : tail.get(tail.firstKey());
+	}
+
+	/** 64 bit FNV-1a of the node id, mixed so close ids land far apart */
+	static long hash(String id) {
+		long hash = FNV_OFFSET_BASIS;
+		for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return mix(hash);
+	}
+
+	/** finalizer of murmur3, spreads consecutive keys over the whole ring */
+	static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return key;
+	}
+
+}
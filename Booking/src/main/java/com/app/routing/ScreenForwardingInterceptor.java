@@ -0,0 +1,171 @@
+package com.app.routing;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.app.hold.SeatHold;
+import com.app.hold.SeatHoldManager;
+import com.app.repository.BookedSeatRepository;
+
+/**
+ * Forwards a request to the booking instance owning its screen. The screen is
+ * taken from the screenId path variable or parameter, from the hold id or from
+ * the seats of the booking. The answer of the owner is copied to the caller as
+ * it is. A forwarded request is marked so it is never forwarded twice, and a
+ * request whose owner cannot be reached is processed here as the seat table
+ * still decides which booking gets a seat.
+ */
+@Component
+public class ScreenForwardingInterceptor implements HandlerInterceptor {
+
+	private static final Logger log = LoggerFactory.getLogger(ScreenForwardingInterceptor.class);
+
+	/** header marking a request forwarded by another instance */
+	public static final String FORWARDED_HEADER = "X-Booking-Forwarded";
+
+	/** headers which are not copied to the forwarded request or the answer */
+	private static final List<String> HOP_HEADERS = Arrays.asList(HttpHeaders.HOST,
+			HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING);
+
+	@Autowired
+	private ScreenRouter router;
+
+	/** auto wired SeatHoldManager for checking the holds of this instance */
+	@Autowired
+	private SeatHoldManager seatHoldManager;
+
+	/** auto wired BookedSeatRepository for finding the screen of a booking */
+	@Autowired
+	private BookedSeatRepository bookedSeatRepository;
+
+	private final RestTemplate restTemplate;
+
+	public ScreenForwardingInterceptor(@Value("${booking.routing.connect-timeout-ms:1000}") int connectTimeoutMs,
+			@Value("${booking.routing.read-timeout-ms:10000}") int readTimeoutMs) {
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+		requestFactory.setConnectTimeout(connectTimeoutMs);
+		requestFactory.setReadTimeout(readTimeoutMs);
+		restTemplate = new RestTemplate(requestFactory);
+		restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+			@Override
+			public boolean hasError(ClientHttpResponse response) {
+				return false;
+			}
+		});
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+			throws IOException {
+		if (request.getHeader(FORWARDED_HEADER) != null) {
+			return true;
+		}
+		Integer screenId = screenIdOf(request);
+		ServiceInstance owner = screenId == null ? null : router.ownerOf(screenId);
+		if (owner == null) {
+			return true;
+		}
+
+		HttpHeaders headers = new HttpHeaders();
+		for (String name : Collections.list(request.getHeaderNames())) {
+			if (!isHopHeader(name)) {
+				headers.put(name, Collections.list(request.getHeaders(name)));
+			}
+		}
+		headers.set(FORWARDED_HEADER, "true");
+		byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+		URI uri = URI.create(owner.getUri() + request.getRequestURI()
+				+ (request.getQueryString() == null ? "" : "?" + request.getQueryString()));
+
+		ResponseEntity<byte[]> answer;
+		try {
+			answer = restTemplate.exchange(uri, HttpMethod.resolve(request.getMethod()),
+					new HttpEntity<byte[]>(body, headers), byte[].class);
+		} catch (ResourceAccessException e) {
+			log.warn("Owner {} of screen {} is not reachable, processing the request here", owner.getInstanceId(),
+					screenId);
+			return true;
+		}
+
+		response.setStatus(answer.getStatusCodeValue());
+		for (Map.Entry<String, List<String>> header : answer.getHeaders().entrySet()) {
+			if (!isHopHeader(header.getKey())) {
+				for (String value : header.getValue()) {
+					response.addHeader(header.getKey(), value);
+				}
+			}
+		}
+		if (answer.getBody() != null) {
+			response.getOutputStream().write(answer.getBody());
+		}
+		return false;
+	}
+
+	/**
+	 * finds the screen of the request, a hold active on this instance stays here
+	 * as its seats are claimed in the inventory of this instance
+	 */
+	@SuppressWarnings("unchecked")
+	private Integer screenIdOf(HttpServletRequest request) {
+		Map<String, String> variables = (Map<String, String>) request
+				.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		if (variables == null) {
+			variables = Collections.emptyMap();
+		}
+		try {
+			String screenId = variables.containsKey("screenId") ? variables.get("screenId")
+					: request.getParameter("screenId");
+			if (screenId != null) {
+				return Integer.valueOf(screenId);
+			}
+			String holdId = variables.get("holdId");
+			if (holdId != null) {
+				return seatHoldManager.contains(holdId) ? null : SeatHold.screenIdOf(holdId);
+			}
+			String bookingId = variables.get("bookingId");
+			if (bookingId != null) {
+				List<Object[]> seats = bookedSeatRepository.getSeatsOfBooking(Integer.parseInt(bookingId));
+				return seats.isEmpty() ? null : ((Number) seats.get(0)[0]).intValue();
+			}
+		} catch (NumberFormatException e) {
+			/** invalid ids are answered by the controller */
+		}
+		return null;
+	}
+
+	private static boolean isHopHeader(String name) {
+		for (String hopHeader : HOP_HEADERS) {
+			if (hopHeader.equalsIgnoreCase(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.app.routing;
+
+import java.util.Set;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by the {@link ScreenRouter} when booking instances joined or left
+ * the ring, so screens may have moved to another instance.
+ */
+public class ScreenOwnershipChangedEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	/** instance ids of the ring */
+	private final Set<String> instanceIds;
+
+	public ScreenOwnershipChangedEvent(ScreenRouter source, Set<String> instanceIds) {
+		super(source);
+		this.instanceIds = instanceIds;
+	}
+
+	public Set<String> getInstanceIds() {
+		return instanceIds;
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.app.routing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives every screen an owning booking instance. The instances registered with
+ * eureka under the name of this service are placed on a
+ * {@link ConsistentHashRing} keyed by screen id, the owner keeps the seat
+ * inventory of its screens in memory and the other instances forward the
+ * requests of the screen to it. The ring is built again whenever the eureka
+ * client refreshes its registry, so instances joining or leaving only move
+ * their share of the screens.
+ */
+@Component
+public class ScreenRouter {
+
+	private static final Logger log = LoggerFactory.getLogger(ScreenRouter.class);
+
+	@Autowired
+	private ObjectProvider<DiscoveryClient> discoveryClient;
+
+	/** registration of this instance, missing when eureka is switched off */
+	@Autowired
+	private ObjectProvider<Registration> registration;
+
+	@Autowired
+	private ApplicationEventPublisher publisher;
+
+	/** switched off every instance takes every screen */
+	@Value("${booking.routing.enabled:true}")
+	private boolean enabled;
+
+	/** no of places of every instance on the ring */
+	@Value("${booking.routing.virtual-nodes:128}")
+	private int virtualNodes;
+
+	@Value("${spring.application.name:booking}")
+	private String serviceName;
+
+	/** instance id of this instance */
+	private volatile String localId;
+
+	/** ring of the registered instances, empty until the registry is read */
+	private volatile ConsistentHashRing<ServiceInstance> ring = new ConsistentHashRing<ServiceInstance>(
+			Collections.<String, ServiceInstance>emptyMap(), 0);
+
+	/** instance ids the ring was built from */
+	private volatile TreeSet<String> instanceIds = new TreeSet<String>();
+
+	/**
+	 * This method builds the ring before the seat inventory is loaded so the
+	 * inventory only loads the screens of this instance
+	 */
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		refresh();
+	}
+
+	/**
+	 * This method builds the ring again after the eureka client refreshed its
+	 * registry, nothing changes if the same instances are registered
+	 */
+	@EventListener(HeartbeatEvent.class)
+	public synchronized void refresh() {
+		Registration self = registration.getIfAvailable();
+		DiscoveryClient discovery = discoveryClient.getIfAvailable();
+		if (!enabled || self == null || self.getInstanceId() == null || discovery == null) {
+			return;
+		}
+		Map<String, ServiceInstance> instances = new LinkedHashMap<String, ServiceInstance>();
+		try {
+			for (ServiceInstance instance : discovery.getInstances(serviceName)) {
+				if (instance.getInstanceId() != null) {
+					instances.put(instance.getInstanceId(), instance);
+				}
+			}
+		} catch (RuntimeException e) {
+			log.warn("Unable to read the booking instances from the registry, keeping the current ring", e);
+			return;
+		}
+		/** this instance owns its share even before the registry lists it */
+		instances.putIfAbsent(self.getInstanceId(), self);
+
+		TreeSet<String> ids = new TreeSet<String>(instances.keySet());
+		if (ids.equals(instanceIds)) {
+			return;
+		}
+		localId = self.getInstanceId();
+		ring = new ConsistentHashRing<ServiceInstance>(instances, virtualNodes);
+		instanceIds = ids;
+		log.info("Screens are sharded over {} booking instances {}", ids.size(), ids);
+		publisher.publishEvent(new ScreenOwnershipChangedEvent(this, Collections.unmodifiableSet(ids)));
+	}
+
+	/**
+	 * This method checks whether this instance owns the screen, every screen is
+	 * local until the ring is built
+	 * 
+	 * @param screenId
+	 * @return true if this instance owns the screen
+	 */
+	public boolean isLocal(int screenId) {
+		return ownerOf(screenId) == null;
+	}
+
+	/**
+	 * This method gives the instance owning the screen
+	 * 
+	 * @param screenId
+	 * @return owning instance or null if this instance owns the screen
+	 */
+	public ServiceInstance ownerOf(int screenId) {
+		if (!enabled) {
+			return null;
+		}
+		ServiceInstance owner = ring.get(screenId);
+		return owner == null || owner.getInstanceId().equals(localId) ? null : owner;
+	}
+
+}
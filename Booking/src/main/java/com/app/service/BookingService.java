@@ -2,9 +2,14 @@ package com.app.service;
 
 import java.util.List;
 
+import com.app.batch.BatchBookingItem;
+import com.app.batch.BatchBookingResult;
 import com.app.entity.Booking;
+import com.app.entity.WaitlistEntry;
 import com.app.exception.InvalidDataException;
 import com.app.exception.NotFoundException;
+import com.app.history.BookingHistoryPage;
+import com.app.hold.SeatHold;
 
 public interface BookingService {
 	/**
@@ -21,6 +26,44 @@ public interface BookingService {
 	public Booking bookTheMovie(int userId, int screenId, List<Integer> seat)
 			throws InvalidDataException, NotFoundException;
 
+	/**
+	 * In this method we are booking the best block of adjacent seats of the
+	 * screen, seats are taken from the middle row first and centred in the row
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param count    no of seats to book
+	 * @return Object of booking having details BookingId and user Info if no row
+	 *         has enough adjacent seats @throws InvalidDataException
+	 */
+	public Booking bookBestAvailable(int userId, int screenId, int count)
+			throws InvalidDataException, NotFoundException;
+
+	/**
+	 * In this method we are booking any vacant seats of the screen for the user,
+	 * concurrent buyers get disjoint seats without waiting for each other
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param count    no of seats to book
+	 * @return Object of booking having details BookingId and user Info if the
+	 *         screen has too few vacant seats @throws InvalidDataException
+	 */
+	public Booking bookAnySeats(int userId, int screenId, int count) throws InvalidDataException, NotFoundException;
+
+	/**
+	 * In this method we are booking seats of several screens for the user in one
+	 * transaction, an atomic batch books every item or none of them
+	 * 
+	 * @param userId
+	 * @param items  screen and seats of every item
+	 * @param atomic true to book all the items or none of them
+	 * @return result of every item in the order of the items if user is incorrect
+	 *         @throws NotFoundException
+	 */
+	public List<BatchBookingResult> bookBatch(int userId, List<BatchBookingItem> items, boolean atomic)
+			throws InvalidDataException, NotFoundException;
+
 	/**
 	 * In this method we are canceling the booking with the help of bookingId
 	 * 
@@ -30,4 +73,81 @@ public interface BookingService {
 	 * 
 	 */
 	public String deleteBooking(int bookingId) throws NotFoundException;
+
+	/**
+	 * In this method we are holding the selected seats for the user until the
+	 * hold is confirmed or its time to live runs out
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param seat
+	 * @param ttlSeconds time to live of the hold
+	 * @return active hold having hold id and expiry time if user, screen or seat
+	 *         is incorrect @throws NotFoundException
+	 */
+	public SeatHold holdSeats(int userId, int screenId, List<Integer> seat, long ttlSeconds)
+			throws InvalidDataException, NotFoundException;
+
+	/**
+	 * In this method we are booking the seats of an active hold
+	 * 
+	 * @param holdId
+	 * @return Object of booking having details BookingId and user Info if hold is
+	 *         not active @throws NotFoundException
+	 */
+	public Booking confirmHold(String holdId) throws InvalidDataException, NotFoundException;
+
+	/**
+	 * In this method we are releasing the seats of an active hold
+	 * 
+	 * @param holdId
+	 * @return String i.e " hold with given id is released " if hold is not
+	 *         active @throws NotFoundException
+	 */
+	public String releaseHold(String holdId) throws NotFoundException;
+
+	/**
+	 * In this method we are getting one page of the bookings of the user, the
+	 * bookings and their seats are read with two queries
+	 * 
+	 * @param userId
+	 * @param afterBookingId booking id to continue after, 0 for the first page
+	 * @param limit          no of bookings in the page
+	 * @return page of bookings ordered by booking id if user is incorrect @throws
+	 *         NotFoundException
+	 */
+	public BookingHistoryPage getBookingsOfUser(int userId, int afterBookingId, int limit)
+			throws InvalidDataException, NotFoundException;
+
+	/**
+	 * In this method we are putting the user on the waitlist of a sold out screen,
+	 * the seats freed by a cancellation are booked for the waiting users in the
+	 * order they joined
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param count    no of seats the user waits for
+	 * @return waiting entry, the entry the user already waits with if any if
+	 *         enough seats are available @throws InvalidDataException
+	 */
+	public WaitlistEntry joinWaitlist(int userId, int screenId, int count)
+			throws InvalidDataException, NotFoundException;
+
+	/**
+	 * In this method we are getting the waitlist entry, a served entry has the id
+	 * of the booking made for it
+	 * 
+	 * @param entryId
+	 * @return waitlist entry if entry is not present @throws NotFoundException
+	 */
+	public WaitlistEntry getWaitlistEntry(long entryId) throws NotFoundException;
+
+	/**
+	 * In this method we are taking the user off the waitlist
+	 * 
+	 * @param entryId
+	 * @return String i.e " waitlist entry with given id is removed " if the entry
+	 *         was served already @throws InvalidDataException
+	 */
+	public String leaveWaitlist(long entryId) throws InvalidDataException, NotFoundException;
 }
@@ -1,27 +1,60 @@
 package com.app.service;
 
+import static com.app.service.Transactions.afterCompletion;
+import static com.app.service.Transactions.releaseAfterCompletion;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.app.entity.BookedSeat;
+import com.app.batch.BatchBookingItem;
+import com.app.batch.BatchBookingResult;
 import com.app.entity.Booking;
-import com.app.entity.Screen;
-import com.app.entity.Seat;
+import com.app.entity.OutboxEvent;
 import com.app.entity.User;
+import com.app.entity.WaitlistEntry;
+import com.app.exception.ConflictException;
 import com.app.exception.InvalidDataException;
 import com.app.exception.NotFoundException;
+import com.app.history.BookingHistory;
+import com.app.history.BookingHistoryPage;
+import com.app.hold.SeatHold;
+import com.app.hold.SeatHoldManager;
+import com.app.inventory.ScreenSeatMap;
+import com.app.inventory.SeatClaim;
+import com.app.inventory.SeatInventory;
+import com.app.inventory.SeatStatusWriter;
+import com.app.lock.ScreenLockManager;
+import com.app.lock.ScreenLockManager.HeldLock;
+import com.app.metrics.BookingMetrics;
 import com.app.repository.BookedSeatRepository;
 import com.app.repository.BookingRepository;
 import com.app.repository.ScreenRepository;
 import com.app.repository.SeatRepository;
 import com.app.repository.UserRepository;
+import com.app.repository.WaitlistEntryRepository;
 
-@Transactional
+import io.micrometer.core.instrument.Timer;
+
+@Transactional(rollbackFor = { InvalidDataException.class, NotFoundException.class })
 @Repository
 public class BookingServiceImpl implements BookingService {
 
@@ -52,6 +85,61 @@ public class BookingServiceImpl implements BookingService {
 	@Autowired
 	private BookedSeatRepository bookedSeatRepo;
 
+	/** resident seat inventory answering availability and claims from memory */
+	@Autowired
+	private SeatInventory seatInventory;
+
+	/** striped screen locks serializing bookings of the same screen */
+	@Autowired
+	private ScreenLockManager screenLocks;
+
+	/** active seat holds waiting for confirmation */
+	@Autowired
+	private SeatHoldManager seatHoldManager;
+
+	/** longest time to live a client may ask for a hold */
+	@Value("${booking.hold.max-ttl-seconds:1800}")
+	private long maxHoldTtlSeconds;
+
+	/** largest page of bookings a client may ask for */
+	@Value("${booking.history.max-page-size:100}")
+	private int maxHistoryPageSize;
+
+	/** background writer of seat status changes */
+	@Autowired
+	private SeatStatusWriter seatStatusWriter;
+
+	/** largest no of items of a batch booking */
+	@Value("${booking.batch.max-items:50}")
+	private int maxBatchItems;
+
+	/** entity manager for setting savepoints of a non atomic batch */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/** timers of the phases of booking and cancelling */
+	@Autowired
+	private BookingMetrics bookingMetrics;
+
+	/** writer persisting bookings of claimed seats */
+	@Autowired
+	private BookingWriter bookingWriter;
+
+	/**
+	 * auto wired WaitlistEntryRepository for accessing the methods of waitlist
+	 * repository
+	 */
+	@Autowired
+	private WaitlistEntryRepository waitlistRepository;
+
+	/** largest no of seats booked by one booking of any seats */
+	@Value("${booking.any-seats.max-count:10}")
+	private int maxAnySeats;
+
+	/** largest no of seats a user may wait for */
+	@Value("${booking.waitlist.max-seats:10}")
+	private int maxWaitlistSeats;
+
 	/**
 	 * In this method we are trying to book the movie depending upon userId and
 	 * screen id and the no's of selected list
@@ -67,50 +155,272 @@ public class BookingServiceImpl implements BookingService {
 	public Booking bookTheMovie(int userId, int screenId, List<Integer> seats)
 			throws InvalidDataException, NotFoundException {
 
+		Timer.Sample phase = bookingMetrics.start();
+		bookingMetrics.timeCommit(BookingMetrics.BOOK);
+
 		/** from user id we get the specific user */
 		User user = userRepository.findById(userId)
 				.orElseThrow(() -> new NotFoundException("Unable to find user by given user id"));
+		phase = bookingMetrics.next(phase, BookingMetrics.BOOK, "user_lookup");
+
+		/** check the screen exists without loading its seats */
+		if (!screenRepository.existsById(screenId)) {
+			throw new NotFoundException("Unable to find screen with given screen id");
+		}
+		phase = bookingMetrics.next(phase, BookingMetrics.BOOK, "screen_lookup");
+
+		Set<Integer> seatIds = seatIdsOf(seats);
+		bookingMetrics.seatsRequested(seatIds.size());
+
+		/** bookings of the same screen serialize until the transaction completes */
+		HeldLock lock = screenLocks.lock(screenId);
+		releaseAfterCompletion(lock);
+		phase = bookingMetrics.next(phase, BookingMetrics.BOOK, "lock_wait");
 
-		/** from screen id we get the specific theater */
-		Screen screen = screenRepository.findById(screenId)
-				.orElseThrow(() -> new NotFoundException("Unable to find screen with given screen id"));
-
-		List<Seat> seatsBooked = new ArrayList<Seat>();
-		for (Integer seatId : seats) {
-			Seat s = seatRepository.findById(seatId)
-					.orElseThrow(() -> new NotFoundException("Unable to find seat with given seat id"));
-			seatsBooked.add(s);
-		}
-		List<Seat> t = seatRepository.getAllSeatsOfSelectedScreen(screen);
-		int count = 0;
-		for (Seat seat : t) {
-			if (seat.isStatus() == false) {
-				count++;
+		/**
+		 * claim the seats in the inventory first so conflicts and sold out screens
+		 * are rejected without touching the seat table
+		 */
+		SeatClaim claim;
+		try {
+			claim = seatInventory.claim(screenId, seatIds);
+		} catch (InvalidDataException e) {
+			if (seatInventory.freeCount(screenId) < seatIds.size()) {
+				bookingMetrics.soldOut();
+			} else {
+				bookingMetrics.conflict();
 			}
+			throw e;
 		}
-		Booking b = new Booking(user);
-		System.out.println(count);
-		if (seatsBooked.size() <= count) {
-			for (Seat seat : seatsBooked) {
-				if (seat.isStatus()) {
-					throw new InvalidDataException("Seat with id " + seat.getSeat_id() + " is already booked");
+		bookingMetrics.stop(phase, BookingMetrics.BOOK, "inventory_claim");
+		return bookingWriter.write(user, screenId, seatIds, claim);
+	}
+
+	/**
+	 * In this method we are booking the best block of adjacent seats of the
+	 * screen, seats are taken from the middle row first and centred in the row
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param count    no of seats to book
+	 * @return Object of booking having details BookingId and user Info
+	 */
+	@Override
+	public Booking bookBestAvailable(int userId, int screenId, int count)
+			throws InvalidDataException, NotFoundException {
+		User user = userRepository.findById(userId)
+				.orElseThrow(() -> new NotFoundException("Unable to find user by given user id"));
+		if (!screenRepository.existsById(screenId)) {
+			throw new NotFoundException("Unable to find screen with given screen id");
+		}
+
+		/** bookings of the same screen serialize until the transaction completes */
+		HeldLock lock = screenLocks.lock(screenId);
+		releaseAfterCompletion(lock);
+
+		/** the inventory picks the seats, the writer books them as if they were selected */
+		SeatClaim claim = seatInventory.claimBest(screenId, count);
+		return bookingWriter.write(user, screenId, claim.getSeatIds(), claim);
+	}
+
+	/**
+	 * In this method we are booking any vacant seats of the screen. The seat table
+	 * is read page by page with rows locked by other transactions skipped, and
+	 * the seats still vacant in the inventory are claimed, so held seats and
+	 * bookings not written yet are skipped as well
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param count    no of seats to book
+	 * @return Object of booking having details BookingId and user Info
+	 */
+	@Override
+	public Booking bookAnySeats(int userId, int screenId, int count) throws InvalidDataException, NotFoundException {
+		if (count < 1 || count > maxAnySeats) {
+			throw new InvalidDataException("No of seats must be between 1 and " + maxAnySeats);
+		}
+		User user = userRepository.findById(userId)
+				.orElseThrow(() -> new NotFoundException("Unable to find user by given user id"));
+		if (!screenRepository.existsById(screenId)) {
+			throw new NotFoundException("Unable to find screen with given screen id");
+		}
+		bookingMetrics.seatsRequested(count);
+
+		/** bookings of the same screen serialize until the transaction completes */
+		HeldLock lock = screenLocks.lock(screenId);
+		releaseAfterCompletion(lock);
+		if (seatInventory.freeCount(screenId) < count) {
+			bookingMetrics.soldOut();
+			throw new InvalidDataException("Only " + seatInventory.freeCount(screenId) + " seats are available");
+		}
+
+		/** lock pages of vacant seats until enough of them are vacant in the inventory too */
+		ScreenSeatMap seatMap = seatInventory.screen(screenId);
+		List<Integer> candidates = new ArrayList<Integer>();
+		int unclaimed = 0;
+		for (int offset = 0; unclaimed < count; offset += count) {
+			List<Number> page = seatRepository.lockVacantSeats(screenId, count, offset);
+			for (Number seatId : page) {
+				int index = seatMap.indexOf(seatId.intValue());
+				if (index >= 0 && !seatMap.isBooked(index)) {
+					candidates.add(seatId.intValue());
+					unclaimed++;
 				}
-				seat.setStatus(true);
 			}
-			seatRepository.saveAll(seatsBooked);
-			Booking booking = bookingRepository.save(b);
+			if (page.size() < count) {
+				break;
+			}
+		}
+		SeatClaim claim = seatInventory.claimAny(screenId, candidates, count);
+		if (claim.getIndexes().length < count) {
+			claim.release();
+			bookingMetrics.conflict();
+			throw new ConflictException("Seats of the screen are being booked by other requests, please try again");
+		}
+		return bookingWriter.write(user, screenId, claim.getSeatIds(), claim);
+	}
 
-			for (Seat seat : seatsBooked) {
-				System.out.println(seat.toString());
-				BookedSeat bookedSeat = new BookedSeat(b, seat);
-				bookedSeatRepo.save(bookedSeat);
+	/**
+	 * In this method we are booking seats of several screens for the user in one
+	 * transaction. User and screens are checked once, the screen locks of all the
+	 * items are taken up front in stripe order so two batches can never deadlock,
+	 * and the bookings are flushed together at commit. An atomic batch fails as a
+	 * whole on the first rejected item, otherwise every item is booked behind a
+	 * savepoint of its own and a rejected item is only reported
+	 * 
+	 * @param userId
+	 * @param items  screen and seats of every item
+	 * @param atomic true to book all the items or none of them
+	 * @return result of every item in the order of the items
+	 */
+	@Override
+	public List<BatchBookingResult> bookBatch(int userId, List<BatchBookingItem> items, boolean atomic)
+			throws InvalidDataException, NotFoundException {
+		if (items == null || items.isEmpty()) {
+			throw new InvalidDataException("Select at least one show to book");
+		}
+		if (items.size() > maxBatchItems) {
+			throw new InvalidDataException("A batch can book at most " + maxBatchItems + " shows");
+		}
+		User user = userRepository.findById(userId)
+				.orElseThrow(() -> new NotFoundException("Unable to find user by given user id"));
+
+		/** every screen of the batch is checked in one query */
+		Set<Integer> screenIds = new HashSet<Integer>();
+		for (BatchBookingItem item : items) {
+			screenIds.add(item.getScreenId());
+		}
+		Set<Integer> existing = new HashSet<Integer>();
+		for (Number screenId : screenRepository.getExistingScreenIds(screenIds)) {
+			existing.add(screenId.intValue());
+		}
+
+		for (HeldLock lock : screenLocks.lockAll(existing)) {
+			releaseAfterCompletion(lock);
+		}
+
+		List<BatchBookingResult> results = new ArrayList<BatchBookingResult>();
+		for (BatchBookingItem item : items) {
+			try {
+				if (!existing.contains(item.getScreenId())) {
+					throw new NotFoundException("Unable to find screen with given screen id");
+				}
+				Set<Integer> seatIds = seatIdsOf(item.getSeatIds());
+				bookingMetrics.seatsRequested(seatIds.size());
+				SeatClaim claim = seatInventory.claim(item.getScreenId(), seatIds);
+				Booking booking = atomic ? bookingWriter.write(user, item.getScreenId(), seatIds, claim)
+						: writeItem(user, item.getScreenId(), seatIds, claim);
+				results.add(BatchBookingResult.booked(item, booking.getBookingId()));
+			} catch (InvalidDataException | NotFoundException e) {
+				if (atomic) {
+					throw e;
+				}
+				results.add(BatchBookingResult.rejected(item, e.getMessage()));
 			}
+		}
+		return results;
+	}
+
+	/**
+	 * writes one item of a non atomic batch behind a jdbc savepoint, a rejected
+	 * item rolls the seat table back to the savepoint. Bookings of the earlier
+	 * items are flushed first so the rollback can not touch them.
+	 */
+	private Booking writeItem(User user, int screenId, Set<Integer> seatIds, SeatClaim claim)
+			throws InvalidDataException, NotFoundException {
+		entityManager.flush();
+		Session session = entityManager.unwrap(Session.class);
+		Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+		try {
+			Booking booking = bookingWriter.write(user, screenId, seatIds, claim);
+			session.doWork(connection -> connection.releaseSavepoint(savepoint));
 			return booking;
+		} catch (InvalidDataException | NotFoundException e) {
+			session.doWork(connection -> connection.rollback(savepoint));
+			throw e;
+		}
+	}
 
-		} else {
-			return null;
+	/**
+	 * In this method we are holding the selected seats for the user until the
+	 * hold is confirmed or its time to live runs out
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param seat
+	 * @param ttlSeconds time to live of the hold
+	 * @return active hold having hold id and expiry time
+	 */
+	@Override
+	public SeatHold holdSeats(int userId, int screenId, List<Integer> seats, long ttlSeconds)
+			throws InvalidDataException, NotFoundException {
+		if (ttlSeconds < 1 || ttlSeconds > maxHoldTtlSeconds) {
+			throw new InvalidDataException("Hold time must be between 1 and " + maxHoldTtlSeconds + " seconds");
+		}
+		if (!userRepository.existsById(userId)) {
+			throw new NotFoundException("Unable to find user by given user id");
+		}
+		if (!screenRepository.existsById(screenId)) {
+			throw new NotFoundException("Unable to find screen with given screen id");
 		}
+		Set<Integer> seatIds = seatIdsOf(seats);
+		SeatClaim claim = seatInventory.claim(screenId, seatIds);
+		return seatHoldManager.hold(userId, screenId, seatIds, claim, ttlSeconds);
+	}
+
+	/**
+	 * In this method we are booking the seats of an active hold
+	 * 
+	 * @param holdId
+	 * @return Object of booking having details BookingId and user Info
+	 */
+	@Override
+	public Booking confirmHold(String holdId) throws InvalidDataException, NotFoundException {
+		SeatHold hold = seatHoldManager.take(holdId);
 
+		/** bookings of the same screen serialize until the transaction completes */
+		HeldLock lock = screenLocks.lock(hold.getScreenId());
+		releaseAfterCompletion(lock);
+
+		Optional<User> user = userRepository.findById(hold.getUserId());
+		if (!user.isPresent()) {
+			hold.getClaim().release();
+			throw new NotFoundException("Unable to find user by given user id");
+		}
+		return bookingWriter.write(user.get(), hold.getScreenId(), new LinkedHashSet<Integer>(hold.getSeatIds()),
+				hold.getClaim());
+	}
+
+	/**
+	 * In this method we are releasing the seats of an active hold
+	 * 
+	 * @param holdId
+	 * @return String i.e " hold with given id is released "
+	 */
+	@Override
+	public String releaseHold(String holdId) throws NotFoundException {
+		seatHoldManager.release(holdId);
+		return "hold with hold id " + holdId + " is released";
 	}
 
 	/**
@@ -122,20 +432,234 @@ public class BookingServiceImpl implements BookingService {
 	@Override
 	public String deleteBooking(int bookingId) throws NotFoundException {
 
-		Booking booking = bookingRepository.findById(bookingId)
-				.orElseThrow(() -> new NotFoundException("Unable to find booking  by given booking id"));
-		List<Seat> seat = new ArrayList<Seat>();
-		List<BookedSeat> bookedSeat = bookedSeatRepo.bookedSeat(bookingId);
-		for (BookedSeat bookedSeat2 : bookedSeat) {
-			seat.add(bookedSeat2.getSeat());
-			for (Seat s : seat) {
-				s.setStatus(false);
-				seatRepository.save(s);
-			}
-			bookedSeatRepo.deleteById(bookedSeat2.getSelectedSeatId());
+		Timer.Sample phase = bookingMetrics.start();
+		bookingMetrics.timeCommit(BookingMetrics.CANCEL);
+
+		/** screen and seat ids of the booking, read once for locking and the inventory */
+		List<Object[]> bookedSeats = bookedSeatRepo.getSeatsOfBooking(bookingId);
+		List<Integer> seatIds = new ArrayList<Integer>();
+		for (Object[] row : bookedSeats) {
+			seatIds.add(((Number) row[1]).intValue());
+		}
+		int screenId = bookedSeats.isEmpty() ? 0 : ((Number) bookedSeats.get(0)[0]).intValue();
+		phase = bookingMetrics.next(phase, BookingMetrics.CANCEL, "booking_lookup");
+		if (!bookedSeats.isEmpty()) {
+			HeldLock lock = screenLocks.lock(screenId);
+			releaseAfterCompletion(lock);
 		}
+		phase = bookingMetrics.next(phase, BookingMetrics.CANCEL, "lock_wait");
 
+		/**
+		 * give the seats back to the free seat counter and release them, remove the
+		 * booked seats and the booking, one statement each, and record the
+		 * cancellation in the outbox
+		 */
+		if (!bookingWriter.isAsyncWriteThrough() && !seatIds.isEmpty()) {
+			screenRepository.returnFreeSeats(screenId, seatIds.size());
+			seatRepository.releaseSeatsOfBooking(bookingId);
+		}
+		phase = bookingMetrics.next(phase, BookingMetrics.CANCEL, "seat_release");
+		bookedSeatRepo.deleteSeatsOfBooking(bookingId);
+		if (bookingRepository.deleteBooking(bookingId) == 0) {
+			throw new NotFoundException("Unable to find booking  by given booking id");
+		}
+		bookingMetrics.stop(phase, BookingMetrics.CANCEL, "delete");
+
+		if (!seatIds.isEmpty()) {
+			bookingWriter.writeEvent(OutboxEvent.CANCELLED, bookingId, screenId, seatIds);
+
+			/** waiting users take the freed seats first, only the rest becomes vacant */
+			List<Integer> vacant = fulfilWaitlist(screenId, seatIds);
+			afterCompletion(() -> seatInventory.release(screenId, vacant), () -> {
+			});
+			if (bookingWriter.isAsyncWriteThrough()) {
+				seatStatusWriter.writeOnCommit(screenId, vacant, false);
+			}
+		}
 		return "booking with booking id " + bookingId + " is canceled";
 	}
 
+	/**
+	 * books seats for the waiting users of the screen in the order they joined,
+	 * under the screen lock and in the transaction of the caller. The freed seats
+	 * are handed out first and an entry waiting for more seats takes the rest from
+	 * the seats already vacant, so the freed seats of several cancellations add up
+	 * for the head of the waitlist. The first entry which can not be served stops
+	 * the round, so no later entry is served ahead of it. The seats handed out stay
+	 * claimed in the inventory, so nobody else can book them in the meantime.
+	 * 
+	 * @return freed seats nobody was waiting for
+	 */
+	private List<Integer> fulfilWaitlist(int screenId, List<Integer> freedSeatIds) throws NotFoundException {
+		List<Integer> pool = new ArrayList<Integer>(freedSeatIds);
+		Collections.sort(pool);
+
+		/** every entry waits for one seat at least */
+		int limit = pool.size() + seatInventory.freeCount(screenId);
+		for (WaitlistEntry entry : waitlistRepository.lockWaitingEntries(screenId, limit)) {
+			Optional<User> user = userRepository.findById(entry.getUserId());
+			if (!user.isPresent()) {
+				waitlistRepository.delete(entry);
+				continue;
+			}
+			List<Integer> handed = pool.subList(0, Math.min(entry.getSeatCount(), pool.size()));
+			Set<Integer> seatIds = new LinkedHashSet<Integer>(handed);
+			ScreenSeatMap seatMap = seatInventory.screen(screenId);
+			SeatClaim claim = SeatClaim.handedOver(seatMap);
+			int missing = entry.getSeatCount() - seatIds.size();
+			if (missing > 0) {
+				/** under the screen lock a seat vacant in the inventory is vacant in the seat table too */
+				List<Integer> candidates = new ArrayList<Integer>();
+				for (int index = 0; index < seatMap.size(); index++) {
+					if (!seatMap.isBooked(index)) {
+						candidates.add(seatMap.seatIdAt(index));
+					}
+				}
+				claim = seatInventory.claimAny(screenId, candidates, missing);
+				if (claim.getIndexes().length < missing) {
+					claim.release();
+					break;
+				}
+				seatIds.addAll(claim.getSeatIds());
+			}
+			Booking booking;
+			try {
+				booking = bookingWriter.write(user.get(), screenId, seatIds, claim);
+			} catch (InvalidDataException e) {
+				/** the seats were freed or claimed under the screen lock, the seat table can not disagree */
+				throw new IllegalStateException("Seats could not be booked for the waitlist", e);
+			}
+			entry.setBookingId(booking.getBookingId());
+			handed.clear();
+		}
+		return pool;
+	}
+
+	/**
+	 * In this method we are putting the user on the waitlist of a sold out screen
+	 * 
+	 * @param userId
+	 * @param screenId
+	 * @param count    no of seats the user waits for
+	 * @return waiting entry
+	 */
+	@Override
+	public WaitlistEntry joinWaitlist(int userId, int screenId, int count)
+			throws InvalidDataException, NotFoundException {
+		if (count < 1 || count > maxWaitlistSeats) {
+			throw new InvalidDataException("No of seats must be between 1 and " + maxWaitlistSeats);
+		}
+		if (!userRepository.existsById(userId)) {
+			throw new NotFoundException("Unable to find user by given user id");
+		}
+		if (!screenRepository.existsById(screenId)) {
+			throw new NotFoundException("Unable to find screen with given screen id");
+		}
+
+		/** cancellations of the screen serve the waitlist under the same lock */
+		HeldLock lock = screenLocks.lock(screenId);
+		releaseAfterCompletion(lock);
+
+		if (seatInventory.freeCount(screenId) >= count) {
+			throw new InvalidDataException("Seats are available, book them instead of joining the waitlist");
+		}
+		List<WaitlistEntry> waiting = waitlistRepository.getWaitingEntriesOfUser(userId, screenId);
+		if (!waiting.isEmpty()) {
+			return waiting.get(0);
+		}
+		return waitlistRepository.save(new WaitlistEntry(userId, screenId, count));
+	}
+
+	/**
+	 * In this method we are getting the waitlist entry
+	 * 
+	 * @param entryId
+	 * @return waitlist entry
+	 */
+	@Override
+	@Transactional(readOnly = true, rollbackFor = NotFoundException.class)
+	public WaitlistEntry getWaitlistEntry(long entryId) throws NotFoundException {
+		return waitlistRepository.findById(entryId)
+				.orElseThrow(() -> new NotFoundException("Unable to find waitlist entry by given entry id"));
+	}
+
+	/**
+	 * In this method we are taking the user off the waitlist
+	 * 
+	 * @param entryId
+	 * @return String i.e " waitlist entry with given id is removed "
+	 */
+	@Override
+	public String leaveWaitlist(long entryId) throws InvalidDataException, NotFoundException {
+		WaitlistEntry entry = getWaitlistEntry(entryId);
+
+		/** the entries behind this one are served under the lock of the screen */
+		HeldLock lock = screenLocks.lock(entry.getScreenId());
+		releaseAfterCompletion(lock);
+
+		if (waitlistRepository.deleteWaitingEntry(entryId) == 0) {
+			/** read the entry again, it was served or removed while waiting for the lock */
+			entityManager.detach(entry);
+			throw new InvalidDataException(
+					"Waitlist entry is served already with booking id " + getWaitlistEntry(entryId).getBookingId());
+		}
+
+		/** the entries behind may fit the seats vacant now */
+		fulfilWaitlist(entry.getScreenId(), Collections.<Integer>emptyList());
+		return "waitlist entry with entry id " + entryId + " is removed";
+	}
+
+	/**
+	 * In this method we are getting one page of the bookings of the user, the
+	 * bookings and their seats are read with two queries
+	 * 
+	 * @param userId
+	 * @param afterBookingId booking id to continue after, 0 for the first page
+	 * @param limit          no of bookings in the page
+	 * @return page of bookings ordered by booking id
+	 */
+	@Override
+	@Transactional(readOnly = true, rollbackFor = { InvalidDataException.class, NotFoundException.class })
+	public BookingHistoryPage getBookingsOfUser(int userId, int afterBookingId, int limit)
+			throws InvalidDataException, NotFoundException {
+		if (limit < 1 || limit > maxHistoryPageSize) {
+			throw new InvalidDataException("Page size must be between 1 and " + maxHistoryPageSize);
+		}
+
+		/** one more booking than asked for tells if there is a next page */
+		List<Integer> bookingIds = bookingRepository.getBookingIdsOfUser(userId, afterBookingId, limit + 1);
+		if (bookingIds.isEmpty()) {
+			if (afterBookingId == 0 && !userRepository.existsById(userId)) {
+				throw new NotFoundException("Unable to find user by given user id");
+			}
+			return new BookingHistoryPage(new ArrayList<BookingHistory>(), null);
+		}
+		Integer next = null;
+		if (bookingIds.size() > limit) {
+			bookingIds = bookingIds.subList(0, limit);
+			next = bookingIds.get(limit - 1);
+		}
+
+		/** seats of the whole page in one query instead of one query per booking */
+		Map<Integer, BookingHistory> bookings = new LinkedHashMap<Integer, BookingHistory>();
+		for (Object[] row : bookedSeatRepo.getSeatsOfBookings(bookingIds)) {
+			int bookingId = ((Number) row[0]).intValue();
+			BookingHistory booking = bookings.get(bookingId);
+			if (booking == null) {
+				booking = new BookingHistory(bookingId, ((Number) row[1]).intValue());
+				bookings.put(bookingId, booking);
+			}
+			booking.getSeatIds().add(((Number) row[2]).intValue());
+		}
+		return new BookingHistoryPage(new ArrayList<BookingHistory>(bookings.values()), next);
+	}
+
+	private static Set<Integer> seatIdsOf(List<Integer> seats) throws InvalidDataException {
+		Set<Integer> seatIds = new LinkedHashSet<Integer>(seats);
+		if (seatIds.isEmpty()) {
+			throw new InvalidDataException("Select at least one seat to book");
+		}
+		return seatIds;
+	}
+
 }
@@ -0,0 +1,197 @@
+package com.app.service;
+
+import static com.app.service.Transactions.afterCompletion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.app.entity.BookedSeat;
+import com.app.entity.Booking;
+import com.app.entity.OutboxEvent;
+import com.app.entity.Seat;
+import com.app.entity.User;
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+import com.app.inventory.SeatClaim;
+import com.app.inventory.SeatInventory;
+import com.app.inventory.SeatStatusWriter;
+import com.app.metrics.BookingMetrics;
+import com.app.outbox.OutboxRelay;
+import com.app.repository.BookedSeatRepository;
+import com.app.repository.BookingRepository;
+import com.app.repository.OutboxEventRepository;
+import com.app.repository.ScreenRepository;
+import com.app.repository.SeatRepository;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Persists bookings of seats already claimed in the seat inventory together
+ * with their outbox events. It joins the caller's transaction so several
+ * bookings can be committed together, a rejected booking is left to the caller
+ * to roll back as a whole or to a savepoint.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class BookingWriter {
+
+	/**
+	 * auto wired BookingRepository for accessing the methods of booking repository
+	 */
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	/** auto wired SeatRepository for accessing the methods of seat repository */
+	@Autowired
+	private SeatRepository seatRepository;
+
+	/**
+	 * auto wired ScreenRepository for accessing the methods of screen repository
+	 */
+	@Autowired
+	private ScreenRepository screenRepository;
+
+	/**
+	 * auto wired bookedSeatRepository for accessing the methods of booked seat
+	 * repository
+	 */
+	@Autowired
+	private BookedSeatRepository bookedSeatRepo;
+
+	/** auto wired OutboxEventRepository for accessing the methods of outbox repository */
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	/** relay publishing the outbox events */
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	/** timers of the phases of booking */
+	@Autowired
+	private BookingMetrics bookingMetrics;
+
+	/** entity manager for referencing claimed seats without loading them */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/** resident seat inventory answering availability and claims from memory */
+	@Autowired
+	private SeatInventory seatInventory;
+
+	/** background writer of seat status changes */
+	@Autowired
+	private SeatStatusWriter seatStatusWriter;
+
+	/**
+	 * sync claims the seats in the seat table inside the booking transaction,
+	 * async trusts the inventory and writes the seat status in the background
+	 */
+	@Value("${booking.inventory.write-through:sync}")
+	private String writeThrough;
+
+	/** @return true if the inventory is trusted and seat status is written in the background */
+	public boolean isAsyncWriteThrough() {
+		return "async".equals(writeThrough);
+	}
+
+	/**
+	 * This method books the seats already claimed in the inventory, the claim is
+	 * given back if the transaction does not commit
+	 * 
+	 * @param user
+	 * @param screenId
+	 * @param seatIds
+	 * @param claim    claim of the seats in the seat inventory
+	 * @return Object of booking having details BookingId and user Info if the seat
+	 *         table does not match the inventory @throws InvalidDataException
+	 */
+	public Booking write(User user, int screenId, Set<Integer> seatIds, SeatClaim claim)
+			throws InvalidDataException, NotFoundException {
+		Timer.Sample phase = bookingMetrics.start();
+
+		/**
+		 * claim all the selected seats in one conditional update, only vacant seats of
+		 * this screen are flipped so a concurrent booking can never sell them twice.
+		 * The free seat counter of the screen is taken first so the screen row is
+		 * always locked before its seats.
+		 */
+		if (!isAsyncWriteThrough()) {
+			int claimed = 0;
+			try {
+				int taken = screenRepository.takeFreeSeats(screenId, seatIds.size());
+				if (taken == 0) {
+					/**
+					 * the counter is missing, as on a screen inserted without it, or lower than the
+					 * seats claimed in the inventory, count it again from the seats under the lock
+					 * of the screen row
+					 */
+					screenRepository.recountFreeSeats(Collections.singletonList(screenId));
+					taken = screenRepository.takeFreeSeats(screenId, seatIds.size());
+				}
+				if (taken != 0) {
+					claimed = seatRepository.claimSeats(seatIds, screenId);
+				}
+			} catch (RuntimeException e) {
+				claim.release();
+				throw e;
+			}
+			if (claimed != seatIds.size()) {
+				bookingMetrics.conflict();
+				/** the seat table changed behind the inventory, read the screen again */
+				seatInventory.invalidate(screenId);
+				claim.release();
+				if (seatRepository.countSeatsOfScreen(seatIds, screenId) != seatIds.size()) {
+					throw new NotFoundException("Unable to find seat with given seat id");
+				}
+				throw new InvalidDataException("One or more of the selected seats is already booked");
+			}
+		}
+		phase = bookingMetrics.next(phase, BookingMetrics.BOOK, "seat_claim");
+
+		/** from here on the claim lives and dies with the transaction */
+		afterCompletion(() -> {
+		}, claim::release);
+		if (isAsyncWriteThrough()) {
+			seatStatusWriter.writeOnCommit(screenId, seatIds, true);
+		}
+
+		/** booking and booked seats are written as jdbc batches when the transaction flushes */
+		Booking booking = bookingRepository.save(new Booking(user));
+		List<BookedSeat> bookedSeats = new ArrayList<BookedSeat>();
+		for (Integer seatId : seatIds) {
+			bookedSeats.add(new BookedSeat(booking, entityManager.getReference(Seat.class, seatId)));
+		}
+		bookedSeatRepo.saveAll(bookedSeats);
+		writeEvent(OutboxEvent.BOOKED, booking.getBookingId(), screenId, seatIds);
+		bookingMetrics.stop(phase, BookingMetrics.BOOK, "insert");
+		return booking;
+	}
+
+	/**
+	 * This method writes a booking change into the outbox in the caller's
+	 * transaction, the relay is woken up once the transaction commits
+	 * 
+	 * @param eventType BOOKED or CANCELLED
+	 * @param bookingId
+	 * @param screenId
+	 * @param seatIds   seats whose status changed
+	 */
+	public void writeEvent(String eventType, int bookingId, int screenId, Collection<Integer> seatIds) {
+		outboxEventRepository.save(new OutboxEvent(eventType, bookingId, screenId, seatIds));
+		afterCompletion(outboxRelay::wake, () -> {
+		});
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.app.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import com.app.exception.ConflictException;
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+import com.app.idempotency.IdempotentCall;
+import com.app.metrics.BookingMetrics;
+
+/**
+ * Bounded retry of booking calls which failed on a concurrent change, a stale
+ * version of a seat or screen, a lock wait timeout or a deadlock. Every call
+ * runs in a transaction of its own, so the policy wraps the transactional
+ * {@link BookingService} from outside. Attempts are spaced by an exponential
+ * backoff with full jitter, so requests which collided do not collide again.
+ * A call still conflicting after the last attempt is rejected with a
+ * {@link ConflictException}.
+ */
+@Component
+public class ConflictRetryPolicy {
+
+	private static final Logger log = LoggerFactory.getLogger(ConflictRetryPolicy.class);
+
+	/** screen logged and counted for a call whose screen is not known before it runs */
+	public static final String UNKNOWN_SCREEN = "-";
+
+	/** counters of conflicts and retries */
+	@Autowired
+	private BookingMetrics bookingMetrics;
+
+	/** no of attempts of a call, the first one included */
+	@Value("${booking.conflict.max-attempts:3}")
+	private int maxAttempts;
+
+	/** backoff before the first retry, doubled for every further retry */
+	@Value("${booking.conflict.base-backoff-ms:20}")
+	private long baseBackoffMs;
+
+	/** longest backoff before a retry */
+	@Value("${booking.conflict.max-backoff-ms:500}")
+	private long maxBackoffMs;
+
+	/**
+	 * This method runs the call and runs it again while it fails on a concurrent
+	 * change
+	 *
+	 * @param operation name of the operation for the metrics
+	 * @param screen    screen id of the call for the log and the metrics,
+	 *                  {@link #UNKNOWN_SCREEN} if not known
+	 * @param call      transactional call
+	 * @return result of the first successful attempt
+	 * @throws ConflictException if the last attempt failed on a concurrent change
+	 */
+	public <T> T call(String operation, String screen, IdempotentCall<T> call)
+			throws InvalidDataException, NotFoundException {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return call.call();
+			} catch (ConcurrencyFailureException e) {
+				bookingMetrics.concurrencyConflict(operation, screen);
+				if (attempt >= maxAttempts) {
+					log.warn("{} of screen {} conflicted {} times, giving up", operation, screen, attempt, e);
+					throw new ConflictException(
+							"Seats of the screen were changed by another request, please try again");
+				}
+				bookingMetrics.conflictRetry(operation, screen);
+				backoff(attempt);
+			}
+		}
+	}
+
+	/** sleeps a random time up to the exponential backoff of the attempt */
+	private void backoff(int attempt) {
+		long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting to retry", e);
+		}
+	}
+
+}
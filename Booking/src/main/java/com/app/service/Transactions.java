@@ -0,0 +1,65 @@
+package com.app.service;
+
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.app.lock.ScreenLockManager.HeldLock;
+
+/** Helper for running work when the current transaction completes */
+public final class Transactions {
+
+	/** order of the actions run on completion, the screen locks are released after them */
+	public static final int ACTION_ORDER = 0;
+
+	private Transactions() {
+	}
+
+	/**
+	 * This method runs the given actions once the current transaction is
+	 * committed or rolled back
+	 * 
+	 * @param onCommit   action run after commit
+	 * @param onRollback action run after rollback
+	 */
+	public static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public int getOrder() {
+				return ACTION_ORDER;
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				if (status == TransactionSynchronization.STATUS_COMMITTED) {
+					onCommit.run();
+				} else {
+					onRollback.run();
+				}
+			}
+		});
+	}
+
+	/**
+	 * This method releases the screen lock once the current transaction is
+	 * committed or rolled back. It runs after every other action on completion,
+	 * so the next booking of the screen finds the inventory up to date.
+	 * 
+	 * @param lock held screen lock
+	 */
+	public static void releaseAfterCompletion(HeldLock lock) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public int getOrder() {
+				return Ordered.LOWEST_PRECEDENCE;
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				lock.close();
+			}
+		});
+	}
+
+}
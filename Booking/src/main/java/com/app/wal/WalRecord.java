@@ -0,0 +1,47 @@
+package com.app.wal;
+
+import java.util.List;
+
+/**
+ * One seat status change of the write-ahead log. The record only tells which
+ * seats may differ in the seat table, their status is read from the booked
+ * seats again when the record is replayed.
+ */
+public class WalRecord {
+
+	/** log sequence number, increasing with every record */
+	private final long lsn;
+
+	/** true when the seats were booked, false when released */
+	private final boolean booked;
+
+	/** screen of the seats */
+	private final int screenId;
+
+	/** ids of the seats */
+	private final List<Integer> seatIds;
+
+	public WalRecord(long lsn, boolean booked, int screenId, List<Integer> seatIds) {
+		this.lsn = lsn;
+		this.booked = booked;
+		this.screenId = screenId;
+		this.seatIds = seatIds;
+	}
+
+	public long getLsn() {
+		return lsn;
+	}
+
+	public boolean isBooked() {
+		return booked;
+	}
+
+	public int getScreenId() {
+		return screenId;
+	}
+
+	public List<Integer> getSeatIds() {
+		return seatIds;
+	}
+
+}
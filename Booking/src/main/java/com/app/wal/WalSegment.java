@@ -0,0 +1,165 @@
+package com.app.wal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * One memory mapped file of the write-ahead log. Records are appended as length,
+ * crc32 and payload; a zero length or a wrong checksum marks the end of the
+ * segment, so a record torn by a crash is ignored on replay. The file is named
+ * after the sequence number of its first record.
+ */
+class WalSegment {
+
+	/** length and checksum in front of every payload */
+	private static final int HEADER_BYTES = 8;
+
+	/** lsn, status, screen id and seat count of every payload */
+	private static final int FIXED_PAYLOAD_BYTES = 8 + 1 + 4 + 4;
+
+	private final Path path;
+
+	/** sequence number of the first record */
+	private final long firstLsn;
+
+	private final MappedByteBuffer buffer;
+
+	private final CRC32 crc = new CRC32();
+
+	private WalSegment(Path path, long firstLsn, MappedByteBuffer buffer) {
+		this.path = path;
+		this.firstLsn = firstLsn;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * This method creates a new segment and maps the whole file
+	 * 
+	 * @param dir      log directory
+	 * @param firstLsn sequence number of the first record
+	 * @param size     size of the file in bytes
+	 * @return empty segment
+	 */
+	static WalSegment create(Path dir, long firstLsn, int size) throws IOException {
+		Path path = dir.resolve(fileName(firstLsn));
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return new WalSegment(path, firstLsn, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+		}
+	}
+
+	/**
+	 * This method maps an existing segment for replay
+	 * 
+	 * @param path
+	 * @return segment positioned at its first record
+	 */
+	static WalSegment open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new WalSegment(path, firstLsnOf(path), channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	static String fileName(long firstLsn) {
+		return String.format("wal-%020d.log", firstLsn);
+	}
+
+	/** @return true if the file name is the name of a segment */
+	static boolean isSegment(Path path) {
+		String name = path.getFileName().toString();
+		return name.startsWith("wal-") && name.endsWith(".log");
+	}
+
+	static long firstLsnOf(Path path) {
+		String name = path.getFileName().toString();
+		return Long.parseLong(name.substring(4, name.length() - 4));
+	}
+
+	Path getPath() {
+		return path;
+	}
+
+	long getFirstLsn() {
+		return firstLsn;
+	}
+
+	/** @return bytes a record of the given no of seats takes */
+	static int sizeOf(int seatCount) {
+		return HEADER_BYTES + FIXED_PAYLOAD_BYTES + 4 * seatCount;
+	}
+
+	/**
+	 * This method appends a record if it fits into the rest of the segment
+	 * 
+	 * @return false if the segment is full
+	 */
+	boolean append(long lsn, boolean booked, int screenId, Collection<Integer> seatIds) {
+		int size = sizeOf(seatIds.size());
+		if (buffer.remaining() < size) {
+			return false;
+		}
+		int start = buffer.position();
+		buffer.position(start + HEADER_BYTES);
+		buffer.putLong(lsn).put((byte) (booked ? 1 : 0)).putInt(screenId).putInt(seatIds.size());
+		for (Integer seatId : seatIds) {
+			buffer.putInt(seatId);
+		}
+		int end = buffer.position();
+		buffer.putInt(start, size - HEADER_BYTES);
+		buffer.putInt(start + 4, checksum(start + HEADER_BYTES, end));
+		return true;
+	}
+
+	/** This method writes the appended records to the disk */
+	void force() {
+		buffer.force();
+	}
+
+	/**
+	 * This method reads all the intact records of the segment
+	 * 
+	 * @return records in the order they were appended
+	 */
+	List<WalRecord> read() {
+		List<WalRecord> records = new ArrayList<WalRecord>();
+		int position = 0;
+		while (buffer.limit() - position >= HEADER_BYTES + FIXED_PAYLOAD_BYTES) {
+			int length = buffer.getInt(position);
+			if (length < FIXED_PAYLOAD_BYTES || length > buffer.limit() - position - HEADER_BYTES
+					|| buffer.getInt(position + 4) != checksum(position + HEADER_BYTES,
+							position + HEADER_BYTES + length)) {
+				break;
+			}
+			int payload = position + HEADER_BYTES;
+			int count = buffer.getInt(payload + 13);
+			if (length != FIXED_PAYLOAD_BYTES + 4 * count) {
+				break;
+			}
+			List<Integer> seatIds = new ArrayList<Integer>(count);
+			for (int i = 0; i < count; i++) {
+				seatIds.add(buffer.getInt(payload + FIXED_PAYLOAD_BYTES + 4 * i));
+			}
+			records.add(new WalRecord(buffer.getLong(payload), buffer.get(payload + 8) == 1,
+					buffer.getInt(payload + 9), seatIds));
+			position = payload + length;
+		}
+		return records;
+	}
+
+	private int checksum(int from, int to) {
+		ByteBuffer bytes = buffer.duplicate();
+		bytes.limit(to).position(from);
+		crc.reset();
+		crc.update(bytes);
+		return (int) crc.getValue();
+	}
+
+}
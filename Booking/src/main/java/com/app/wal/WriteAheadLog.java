@@ -0,0 +1,283 @@
+package com.app.wal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.app.repository.SeatRepository;
+
+/**
+ * Write-ahead log of the seat status changes the inventory makes in async
+ * write-through mode. A change is appended to a memory mapped segment before
+ * its booking commits and the segment is forced to the disk once for all the
+ * changes appended meanwhile, so a commit costs no round trip to the seat
+ * table. The checkpoint is the last change whose status reached the seat table,
+ * segments behind it are deleted. On restart the seats of the changes after the
+ * checkpoint get their status back from the booked seats before the inventory
+ * is loaded.
+ */
+@Component
+public class WriteAheadLog implements Runnable {
+
+	private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+	/** file holding the sequence number of the checkpoint */
+	private static final String CHECKPOINT_FILE = "checkpoint";
+
+	/** no of seats whose status is restored by one statement */
+	private static final int RESTORE_BATCH_SIZE = 1000;
+
+	/** auto wired SeatRepository for accessing the methods of seat repository */
+	@Autowired
+	private SeatRepository seatRepository;
+
+	/** switched off changes only go through the seat status writer */
+	@Value("${booking.wal.enabled:false}")
+	private boolean enabled;
+
+	/** directory of the segments and the checkpoint */
+	@Value("${booking.wal.dir:wal}")
+	private String dir;
+
+	/** size of one segment file in bytes */
+	@Value("${booking.wal.segment-bytes:67108864}")
+	private int segmentBytes;
+
+	/** time between two checkpoints in milliseconds */
+	@Value("${booking.wal.checkpoint-ms:1000}")
+	private long checkpointMs;
+
+	private Path directory;
+
+	/** segments from oldest to current, only the last one is appended to */
+	private final List<WalSegment> segments = new ArrayList<WalSegment>();
+
+	/** sequence number of the last appended change */
+	private long lastLsn;
+
+	/** sequence number up to which the segments are forced to the disk */
+	private volatile long durableLsn;
+
+	/** sequence number of the last saved checkpoint */
+	private long checkpointLsn;
+
+	/** changes appended but not written to the seat table yet */
+	private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<Long>();
+
+	/** held by the thread forcing the segment for everybody waiting */
+	private final Object syncLock = new Object();
+
+	private volatile boolean running;
+
+	private Thread worker;
+
+	/** @return true if changes are logged */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * This method replays the changes after the checkpoint and starts a new
+	 * segment, it runs before the seat inventory is loaded
+	 */
+	@PostConstruct
+	public void start() throws IOException {
+		if (!enabled) {
+			return;
+		}
+		directory = Paths.get(dir);
+		Files.createDirectories(directory);
+		Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+		checkpointLsn = Files.exists(checkpoint) ? ByteBuffer.wrap(Files.readAllBytes(checkpoint)).getLong() : 0;
+
+		List<Path> old = segmentFiles();
+		Set<Integer> dirty = new TreeSet<Integer>();
+		long replayed = 0;
+		lastLsn = checkpointLsn;
+		for (Path path : old) {
+			for (WalRecord record : WalSegment.open(path).read()) {
+				lastLsn = Math.max(lastLsn, record.getLsn());
+				if (record.getLsn() > checkpointLsn) {
+					dirty.addAll(record.getSeatIds());
+					replayed++;
+				}
+			}
+		}
+		List<Integer> seatIds = new ArrayList<Integer>(dirty);
+		for (int i = 0; i < seatIds.size(); i += RESTORE_BATCH_SIZE) {
+			seatRepository.restoreSeatStatus(seatIds.subList(i, Math.min(i + RESTORE_BATCH_SIZE, seatIds.size())));
+		}
+		log.info("Replayed {} changes of {} seats after checkpoint {} from {} segments", replayed, seatIds.size(),
+				checkpointLsn, old.size());
+
+		durableLsn = lastLsn;
+		segments.add(WalSegment.create(directory, lastLsn + 1, segmentBytes));
+		saveCheckpoint(lastLsn);
+		for (Path path : old) {
+			Files.delete(path);
+		}
+
+		running = true;
+		worker = new Thread(this, "wal-checkpoint");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/** This method saves a last checkpoint after the seat status writer stopped */
+	@PreDestroy
+	public void stop() throws InterruptedException, IOException {
+		if (worker != null) {
+			running = false;
+			worker.interrupt();
+			worker.join();
+			checkpoint();
+		}
+	}
+
+	/**
+	 * This method appends a change to the current segment, a new segment is
+	 * started when it is full. The change stays pending until its status is
+	 * written to the seat table or its transaction rolls back.
+	 * 
+	 * @param booked   true when the seats were booked, false when released
+	 * @param screenId
+	 * @param seatIds
+	 * @return sequence number of the change
+	 */
+	public synchronized long append(boolean booked, int screenId, Collection<Integer> seatIds) {
+		if (WalSegment.sizeOf(seatIds.size()) > segmentBytes) {
+			throw new IllegalArgumentException("Change of " + seatIds.size() + " seats does not fit a log segment");
+		}
+		long lsn = lastLsn + 1;
+		WalSegment current = segments.get(segments.size() - 1);
+		if (!current.append(lsn, booked, screenId, seatIds)) {
+			current.force();
+			try {
+				current = WalSegment.create(directory, lsn, segmentBytes);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Unable to start a new log segment", e);
+			}
+			segments.add(current);
+			current.append(lsn, booked, screenId, seatIds);
+		}
+		lastLsn = lsn;
+		pending.add(lsn);
+		return lsn;
+	}
+
+	/**
+	 * This method waits until the change is on the disk. The first caller forces
+	 * the segment for all the changes appended so far, callers arriving meanwhile
+	 * find their change forced already when they get the lock.
+	 * 
+	 * @param lsn sequence number of the change
+	 */
+	public void sync(long lsn) {
+		if (durableLsn >= lsn) {
+			return;
+		}
+		synchronized (syncLock) {
+			if (durableLsn >= lsn) {
+				return;
+			}
+			long target;
+			WalSegment current;
+			synchronized (this) {
+				target = lastLsn;
+				current = segments.get(segments.size() - 1);
+			}
+			current.force();
+			durableLsn = target;
+		}
+	}
+
+	/**
+	 * This method marks the changes as done, their status is in the seat table or
+	 * their transaction rolled back
+	 * 
+	 * @param lsns sequence numbers of the changes
+	 */
+	public void complete(Collection<Long> lsns) {
+		pending.removeAll(lsns);
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			try {
+				Thread.sleep(checkpointMs);
+				checkpoint();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (IOException | RuntimeException e) {
+				log.error("Unable to save the checkpoint of the write-ahead log", e);
+			}
+		}
+	}
+
+	/**
+	 * This method saves the last change before the oldest pending one as the
+	 * checkpoint and deletes the segments which only hold older changes
+	 */
+	public void checkpoint() throws IOException {
+		List<WalSegment> compacted = new ArrayList<WalSegment>();
+		long lsn;
+		synchronized (this) {
+			Long oldestPending = pending.isEmpty() ? null : pending.first();
+			lsn = oldestPending == null ? lastLsn : oldestPending - 1;
+			if (lsn <= checkpointLsn) {
+				return;
+			}
+			while (segments.size() > 1 && segments.get(1).getFirstLsn() - 1 <= lsn) {
+				compacted.add(segments.remove(0));
+			}
+		}
+		sync(lsn);
+		saveCheckpoint(lsn);
+		for (WalSegment segment : compacted) {
+			Files.deleteIfExists(segment.getPath());
+		}
+	}
+
+	/** writes the checkpoint to a new file and moves it over the old one */
+	private void saveCheckpoint(long lsn) throws IOException {
+		Path file = directory.resolve(CHECKPOINT_FILE);
+		Path next = directory.resolve(CHECKPOINT_FILE + ".next");
+		Files.write(next, ByteBuffer.allocate(8).putLong(lsn).array(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+		Files.move(next, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		synchronized (this) {
+			checkpointLsn = lsn;
+		}
+	}
+
+	private List<Path> segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(WalSegment::isSegment).sorted().collect(Collectors.toList());
+		}
+	}
+
+}
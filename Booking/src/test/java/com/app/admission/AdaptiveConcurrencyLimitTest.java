@@ -0,0 +1,87 @@
+package com.app.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+
+	private static final long SLOW = 10 * FAST;
+
+	/** admits one request and ends it after the given latency */
+	private static void request(AdaptiveConcurrencyLimit limit, long latencyNanos) {
+		assertTrue(limit.tryAcquire());
+		limit.release(latencyNanos);
+	}
+
+	/** Here we are trying to test that no more requests than the limit run at once */
+	@Test
+	void rejectBeyondLimit() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 1, 10);
+		for (int i = 0; i < 3; i++) {
+			assertTrue(limit.tryAcquire());
+		}
+		assertFalse(limit.tryAcquire());
+		assertEquals(3, limit.getInFlight());
+
+		limit.release(FAST);
+		assertEquals(2, limit.getInFlight());
+		assertTrue(limit.tryAcquire());
+	}
+
+	/** Here we are trying to test that the limit grows up to the maximum while latency stays low */
+	@Test
+	void growWhileLatencyIsLow() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 40);
+		int previous = limit.getLimit();
+		for (int i = 0; i < 20; i++) {
+			request(limit, FAST);
+			assertTrue(limit.getLimit() >= previous);
+			previous = limit.getLimit();
+		}
+		assertTrue(previous > 10, "limit " + previous);
+		for (int i = 0; i < 200; i++) {
+			request(limit, FAST);
+		}
+		assertEquals(40, limit.getLimit());
+	}
+
+	/** Here we are trying to test that the limit shrinks when latency grows and recovers after */
+	@Test
+	void shrinkWhileLatencyIsHigh() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 4, 40);
+		request(limit, FAST);
+		for (int i = 0; i < 20; i++) {
+			request(limit, SLOW);
+		}
+		int shrunk = limit.getLimit();
+		assertTrue(shrunk < 40, "limit " + shrunk);
+		for (int i = 0; i < 200; i++) {
+			request(limit, SLOW);
+		}
+		assertTrue(limit.getLimit() < shrunk && limit.getLimit() >= 4, "limit " + limit.getLimit());
+
+		for (int i = 0; i < 200; i++) {
+			request(limit, FAST);
+		}
+		assertEquals(40, limit.getLimit());
+	}
+
+	/** Here we are trying to test that the limit never drops below the minimum */
+	@Test
+	void keepMinimum() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 16, 40);
+		request(limit, FAST);
+		for (int i = 0; i < 200; i++) {
+			request(limit, SLOW);
+		}
+		assertEquals(16, limit.getLimit());
+	}
+
+}
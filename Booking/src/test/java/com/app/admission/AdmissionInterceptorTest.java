@@ -0,0 +1,87 @@
+package com.app.admission;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Here we are trying to test which booking requests are admitted, every test
+ * uses a screen of its own so the token buckets do not meet.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:admission;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=", "spring.jpa.hibernate.ddl-auto=create",
+		"spring.jpa.show-sql=false", "booking.outbox.relay-enabled=false", "booking.snapshot.enabled=false",
+		"booking.admission.screen-rate=0.01", "booking.admission.screen-burst=3", "eureka.client.enabled=false" })
+class AdmissionInterceptorTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void insertScreens() {
+		if (jdbcTemplate.queryForObject("select count(*) from screen", Integer.class) > 0) {
+			return;
+		}
+		jdbcTemplate.update("insert into movie(movie_id, movie_name, movie_category, movie_rating, movie_format, "
+				+ "movie_language) values (1, 'movie', 'drama', 4, '2D', 'english')");
+		for (int userId = 1; userId <= 2; userId++) {
+			jdbcTemplate.update("insert into user(user_id, user_name, user_email, user_password, role) "
+					+ "values (?, 'user', ?, 'password', 'user')", userId, "user" + userId + "@mail.com");
+		}
+		for (int screenId = 1; screenId <= 2; screenId++) {
+			jdbcTemplate.update(
+					"insert into screen(screen_id, movie_id, date_of_show, time_of_show) values (?, 1, ?, '10')",
+					screenId, new Date());
+			for (int seat = 1; seat <= 2; seat++) {
+				jdbcTemplate.update("insert into seat(seat_id, screen_id, status) values (?, ?, false)",
+						screenId * 10 + seat, screenId);
+			}
+		}
+	}
+
+	/** Here we are trying to test that a sold out screen turns bookings away but lets users join its waitlist */
+	@Test
+	void joinWaitlistOfSoldOutScreen() throws Exception {
+		mockMvc.perform(get("/book").param("userId", "1").param("screenId", "1").param("SeatList", "11,12"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/book").param("userId", "2").param("screenId", "1").param("SeatList", "11"))
+				.andExpect(jsonPath("$.statuscode").value(422))
+				.andExpect(jsonPath("$.errorMessage").value(containsString("join the waitlist")));
+
+		mockMvc.perform(post("/waitlist").param("userId", "2").param("screenId", "1").param("count", "1"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.userId").value(2))
+				.andExpect(jsonPath("$.seatCount").value(1)).andExpect(jsonPath("$.bookingId").isEmpty());
+	}
+
+	/** Here we are trying to test that a screen out of tokens answers 429 with the time until the next token */
+	@Test
+	void limitRateOfScreen() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			mockMvc.perform(post("/waitlist").param("userId", "1").param("screenId", "2").param("count", "5"))
+					.andExpect(status().isOk());
+		}
+		mockMvc.perform(post("/waitlist").param("userId", "1").param("screenId", "2").param("count", "5"))
+				.andExpect(status().isTooManyRequests()).andExpect(header().string("Retry-After", "100"));
+	}
+
+}
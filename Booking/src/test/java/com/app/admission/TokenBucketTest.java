@@ -0,0 +1,46 @@
+package com.app.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/** Here we are trying to test that a full bucket admits a burst and then tells how long to wait */
+	@Test
+	void admitBurstThenWait() {
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, bucket.tryAcquire(0));
+		}
+		assertEquals(100 * MILLIS, bucket.tryAcquire(0), 1);
+		assertEquals(60 * MILLIS, bucket.tryAcquire(40 * MILLIS), 1);
+	}
+
+	/** Here we are trying to test that tokens come back at the configured rate */
+	@Test
+	void refillAtRate() {
+		TokenBucket bucket = new TokenBucket(10, 1, 0);
+		assertEquals(0, bucket.tryAcquire(0));
+		for (long now = 100 * MILLIS; now <= 1000 * MILLIS; now += 100 * MILLIS) {
+			assertEquals(0, bucket.tryAcquire(now));
+			assertEquals(100 * MILLIS, bucket.tryAcquire(now), 1);
+		}
+	}
+
+	/** Here we are trying to test that an idle bucket holds no more than the burst */
+	@Test
+	void capTokensAtBurst() {
+		TokenBucket bucket = new TokenBucket(10, 3, 0);
+		long now = TimeUnit.HOURS.toNanos(1);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, bucket.tryAcquire(now));
+		}
+		assertEquals(100 * MILLIS, bucket.tryAcquire(now), 1);
+	}
+
+}
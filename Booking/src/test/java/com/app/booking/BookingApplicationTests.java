@@ -3,7 +3,6 @@ package com.app.booking;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,8 +11,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import com.app.controller.BookingController;
+import com.app.entity.Booking;
 import com.app.exception.InvalidDataException;
 import com.app.exception.NotFoundException;
+import com.app.hold.SeatHold;
 
 @SpringBootTest
 class BookingApplicationTests {
@@ -26,33 +27,63 @@ class BookingApplicationTests {
 
 	/** In this test case we are trying to test the book Movie method */
 	@Test
-	void bookSeatsForSelectedMovie() throws InvalidDataException, NotFoundException, ParseException {
+	void bookSeatsForSelectedMovie() throws Exception {
 
 		// when we pass all the parameters correctly movie get booked gor selected seat
 		List<Integer> seats = new ArrayList<Integer>();
 		seats.add(5);
-		assertEquals("booked", controller.bookTheMovie(1, 1, seats));
+		assertEquals(1, controller.bookTheMovie(1, 1, seats, null).get().getUser().getUser_id());
 
 		// If we trying to book the seat which is already booked it throws exception
 		seats.remove(0);
 		seats.add(10);
-		Throwable exception = assertThrows(InvalidDataException.class, () -> controller.bookTheMovie(1, 1, seats));
+		Throwable exception = assertThrows(InvalidDataException.class, () -> controller.bookTheMovie(1, 1, seats, null));
 
 		// if we pass incorrect user id then it throws NotFoundException
-		Throwable ex = assertThrows(NotFoundException.class, () -> controller.bookTheMovie(111, 1, seats));
+		Throwable ex = assertThrows(NotFoundException.class, () -> controller.bookTheMovie(111, 1, seats, null));
 
 		// if we pass incorrect screen id then it throws NotFoundException
-		Throwable e = assertThrows(NotFoundException.class, () -> controller.bookTheMovie(1, 1343, seats));
+		Throwable e = assertThrows(NotFoundException.class, () -> controller.bookTheMovie(1, 1343, seats, null));
 	}
 
 	/** Here we are trying to test cancel booking method */
 	@Test
-	void cancelBooking() throws NotFoundException {
+	void cancelBooking() throws InvalidDataException, NotFoundException {
 		// when we pass correct booking id then the booking gets canceled
-		assertEquals("booking with booking id 8 is canceled", controller.cancelTheBooking(8));
+		assertEquals("booking with booking id 8 is canceled", controller.cancelTheBooking(8, null));
 
 		// when we pass incorrect booking id then it throws NotFoundException
-		Throwable e = assertThrows(NotFoundException.class, () -> controller.cancelTheBooking(111));
+		Throwable e = assertThrows(NotFoundException.class, () -> controller.cancelTheBooking(111, null));
+	}
+
+	/** Here we are trying to test hold and confirm methods */
+	@Test
+	void holdAndConfirmSeats() throws InvalidDataException, NotFoundException {
+		// when we hold a vacant seat it can not be booked by anyone else
+		List<Integer> seats = new ArrayList<Integer>();
+		seats.add(6);
+		SeatHold hold = controller.holdSeats(1, 1, seats, 60);
+		assertThrows(InvalidDataException.class, () -> controller.bookTheMovie(1, 1, seats, null));
+
+		// when we confirm the hold the held seats get booked
+		assertEquals(1, controller.confirmHold(hold.getHoldId()).getUser().getUser_id());
+
+		// if we confirm the same hold again it throws NotFoundException
+		assertThrows(NotFoundException.class, () -> controller.confirmHold(hold.getHoldId()));
+	}
+
+	/** Here we are trying to test booking with an idempotency key */
+	@Test
+	void retryBookingWithIdempotencyKey() throws Exception {
+		// when we retry with the same key we get the first booking back
+		List<Integer> seats = new ArrayList<Integer>();
+		seats.add(7);
+		Booking booking = controller.bookTheMovie(1, 1, seats, "retry-key").get();
+		assertEquals(booking.getBookingId(), controller.bookTheMovie(1, 1, seats, "retry-key").get().getBookingId());
+
+		// if we reuse the key for different seats it throws InvalidDataException
+		seats.add(8);
+		assertThrows(InvalidDataException.class, () -> controller.bookTheMovie(1, 1, seats, "retry-key"));
 	}
 
 }
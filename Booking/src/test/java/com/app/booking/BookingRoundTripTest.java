@@ -0,0 +1,106 @@
+package com.app.booking;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.app.controller.BookingController;
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+
+/**
+ * This test counts the jdbc statements sent to the database for booking
+ * N seats. Before ids were pooled and inserts batched a booking cost 3N + 4
+ * statements (7 for 1 seat, 34 for 10 seats, 154 for 50 seats), now it costs
+ * the same handful of statements for any no of seats. Cancelling a booking of N
+ * seats used to re-save seats N(N + 1) / 2 times, now it is four statements and
+ * the insert of its outbox event.
+ */
+@SpringBootTest
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:roundtrip;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=", "spring.jpa.hibernate.ddl-auto=create",
+		"spring.jpa.show-sql=false", "spring.jpa.properties.hibernate.generate_statistics=true",
+		"booking.outbox.relay-enabled=false",
+		"eureka.client.enabled=false" })
+class BookingRoundTripTest {
+
+	/** no of seats booked in every measured booking */
+	private static final int[] SEAT_COUNTS = { 1, 4, 10, 25, 50 };
+
+	@Autowired
+	BookingController controller;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	/** Here we are trying to test that the statements do not grow with the no of seats */
+	@Test
+	void roundTripsPerBooking() throws InvalidDataException, NotFoundException {
+		jdbcTemplate.update("insert into movie(movie_id, movie_name, movie_category, movie_rating, movie_format, "
+				+ "movie_language) values (1, 'movie', 'drama', 4, '2D', 'english')");
+		jdbcTemplate.update("insert into screen(screen_id, movie_id, date_of_show, time_of_show) values (1, 1, ?, '10')",
+				new Date());
+		jdbcTemplate.update("insert into user(user_id, user_name, user_email, user_password, role) "
+				+ "values (1, 'user', 'user@mail.com', 'password', 'user')");
+		for (int seatId = 1; seatId <= 200; seatId++) {
+			jdbcTemplate.update("insert into seat(seat_id, screen_id, status) values (?, 1, false)", seatId);
+		}
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		int nextSeat = 1;
+
+		/** warm up so the first id blocks are already reserved */
+		controller.bookTheMovie(1, 1, seatIds(nextSeat++, 1), null).join();
+
+		long smallest = Long.MAX_VALUE;
+		long largest = 0;
+		List<Integer> bookingIds = new ArrayList<Integer>();
+		for (int count : SEAT_COUNTS) {
+			List<Integer> seats = seatIds(nextSeat, count);
+			nextSeat += count;
+			statistics.clear();
+			bookingIds.add(controller.bookTheMovie(1, 1, seats, null).join().getBookingId());
+			long statements = statistics.getPrepareStatementCount();
+			smallest = Math.min(smallest, statements);
+			largest = Math.max(largest, statements);
+		}
+
+		// only an extra id block may be reserved for the larger bookings
+		assertTrue(largest - smallest <= 2, "statements per booking grow with the no of seats");
+
+		smallest = Long.MAX_VALUE;
+		largest = 0;
+		for (int i = 0; i < SEAT_COUNTS.length; i++) {
+			statistics.clear();
+			controller.cancelTheBooking(bookingIds.get(i), null);
+			long statements = statistics.getPrepareStatementCount();
+			smallest = Math.min(smallest, statements);
+			largest = Math.max(largest, statements);
+		}
+		assertTrue(largest == smallest, "statements per cancellation grow with the no of seats");
+	}
+
+	private static List<Integer> seatIds(int from, int count) {
+		List<Integer> seats = new ArrayList<Integer>();
+		for (int i = 0; i < count; i++) {
+			seats.add(from + i);
+		}
+		return seats;
+	}
+
+}
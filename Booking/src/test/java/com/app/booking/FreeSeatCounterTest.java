@@ -0,0 +1,91 @@
+package com.app.booking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.app.controller.BookingController;
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+
+/**
+ * Here we are trying to test that the free seat counter of a screen is taken
+ * only when it covers the booked seats, and is counted again from the seats
+ * when it does not.
+ */
+@SpringBootTest
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:freeseats;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=", "spring.jpa.hibernate.ddl-auto=create",
+		"spring.jpa.show-sql=false", "booking.outbox.relay-enabled=false", "booking.snapshot.enabled=false",
+		"booking.inventory.write-through=sync", "eureka.client.enabled=false" })
+class FreeSeatCounterTest {
+
+	@Autowired
+	BookingController controller;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void insertUser() {
+		if (jdbcTemplate.queryForObject("select count(*) from user", Integer.class) == 0) {
+			jdbcTemplate.update("insert into movie(movie_id, movie_name, movie_category, movie_rating, "
+					+ "movie_format, movie_language) values (1, 'movie', 'drama', 4, '2D', 'english')");
+			jdbcTemplate.update("insert into user(user_id, user_name, user_email, user_password, role) "
+					+ "values (1, 'user', 'user@mail.com', 'password', 'user')");
+		}
+	}
+
+	/** inserts a screen of four vacant seats with ids screenId * 10 + 1 to 4 */
+	private void insertScreen(int screenId, Integer freeSeats) {
+		jdbcTemplate.update("insert into screen(screen_id, movie_id, date_of_show, time_of_show, free_seats) "
+				+ "values (?, 1, ?, '10', ?)", screenId, new Date(), freeSeats);
+		for (int seat = 1; seat <= 4; seat++) {
+			jdbcTemplate.update("insert into seat(seat_id, screen_id, status) values (?, ?, false)",
+					screenId * 10 + seat, screenId);
+		}
+	}
+
+	private Integer freeSeats(int screenId) {
+		return jdbcTemplate.queryForObject("select free_seats from screen where screen_id = ?", Integer.class,
+				screenId);
+	}
+
+	/** Here we are trying to test that a screen without a counter gets one on its first booking */
+	@Test
+	void countMissingCounter() throws InvalidDataException, NotFoundException {
+		insertScreen(1, null);
+		controller.bookTheMovie(1, 1, Arrays.asList(11, 12), null).join();
+		assertEquals(2, freeSeats(1));
+	}
+
+	/** Here we are trying to test that a counter lower than the vacant seats is counted again */
+	@Test
+	void countDriftedCounter() throws InvalidDataException, NotFoundException {
+		insertScreen(2, 1);
+		controller.bookTheMovie(1, 2, Arrays.asList(21, 22, 23), null).join();
+		assertEquals(1, freeSeats(2));
+	}
+
+	/** Here we are trying to test that seats booked behind the inventory are not taken off the counter */
+	@Test
+	void rejectSeatsBookedBehindInventory() throws InvalidDataException, NotFoundException {
+		insertScreen(3, 4);
+		controller.bookTheMovie(1, 3, Arrays.asList(31), null).join();
+		jdbcTemplate.update("update seat set status = true where screen_id = 3");
+		jdbcTemplate.update("update screen set free_seats = 0 where screen_id = 3");
+
+		assertThrows(InvalidDataException.class, () -> controller.bookTheMovie(1, 3, Arrays.asList(32), null));
+		assertEquals(0, freeSeats(3));
+	}
+
+}
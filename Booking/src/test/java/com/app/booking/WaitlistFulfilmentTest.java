@@ -0,0 +1,129 @@
+package com.app.booking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.app.controller.BookingController;
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+
+/**
+ * Here we are trying to test that cancellations serve the waitlist of a screen
+ * strictly in the order the users joined it without leaving seats unused.
+ */
+@SpringBootTest
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:waitlist;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=", "spring.jpa.hibernate.ddl-auto=create",
+		"spring.jpa.show-sql=false", "booking.outbox.relay-enabled=false", "booking.snapshot.enabled=false",
+		"eureka.client.enabled=false" })
+class WaitlistFulfilmentTest {
+
+	@Autowired
+	BookingController controller;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Here we are trying to test that an entry waiting for more seats than are
+	 * free holds back the entries behind it until it leaves
+	 */
+	@Test
+	void serveWaitlistInOrder() throws InvalidDataException, NotFoundException {
+		jdbcTemplate.update("insert into movie(movie_id, movie_name, movie_category, movie_rating, movie_format, "
+				+ "movie_language) values (1, 'movie', 'drama', 4, '2D', 'english')");
+		jdbcTemplate.update("insert into screen(screen_id, movie_id, date_of_show, time_of_show) values (1, 1, ?, '10')",
+				new Date());
+		for (int userId = 1; userId <= 4; userId++) {
+			jdbcTemplate.update("insert into user(user_id, user_name, user_email, user_password, role) "
+					+ "values (?, 'user', ?, 'password', 'user')", userId, "user" + userId + "@mail.com");
+		}
+		for (int seatId = 1; seatId <= 4; seatId++) {
+			jdbcTemplate.update("insert into seat(seat_id, screen_id, status) values (?, 1, false)", seatId);
+		}
+		int first = controller.bookTheMovie(1, 1, Arrays.asList(1, 2), null).join().getBookingId();
+		int second = controller.bookTheMovie(1, 1, Arrays.asList(3, 4), null).join().getBookingId();
+
+		long large = controller.joinWaitlist(2, 1, 3).getEntryId();
+		long small = controller.joinWaitlist(3, 1, 1).getEntryId();
+		long last = controller.joinWaitlist(4, 1, 1).getEntryId();
+
+		// two seats can not serve the head of the waitlist, so nobody behind it is served either
+		controller.cancelTheBooking(first, null);
+		assertNull(controller.getWaitlistEntry(large).getBookingId());
+		assertNull(controller.getWaitlistEntry(small).getBookingId());
+		assertNull(controller.getWaitlistEntry(last).getBookingId());
+		assertEquals(2, freeSeats(1));
+
+		// once the head leaves the entries behind it take the vacant seats in the order they joined
+		controller.leaveWaitlist(large);
+		assertNotNull(controller.getWaitlistEntry(small).getBookingId());
+		assertNotNull(controller.getWaitlistEntry(last).getBookingId());
+		assertEquals(Arrays.asList(1, 2), seatsOfUsers(3, 4));
+		assertEquals(0, freeSeats(1));
+
+		// nobody is waiting any more, so the seats of the next cancellation become vacant
+		controller.cancelTheBooking(second, null);
+		assertEquals(2, freeSeats(1));
+	}
+
+	/**
+	 * Here we are trying to test that the seats of two small cancellations add up
+	 * for an entry waiting for more seats than either of them freed
+	 */
+	@Test
+	void serveHeadFromSeveralCancellations() throws InvalidDataException, NotFoundException {
+		jdbcTemplate.update("insert into movie(movie_id, movie_name, movie_category, movie_rating, movie_format, "
+				+ "movie_language) values (2, 'movie', 'drama', 4, '2D', 'english')");
+		jdbcTemplate.update("insert into screen(screen_id, movie_id, date_of_show, time_of_show) values (2, 2, ?, '10')",
+				new Date());
+		for (int userId = 5; userId <= 8; userId++) {
+			jdbcTemplate.update("insert into user(user_id, user_name, user_email, user_password, role) "
+					+ "values (?, 'user', ?, 'password', 'user')", userId, "user" + userId + "@mail.com");
+		}
+		for (int seatId = 11; seatId <= 14; seatId++) {
+			jdbcTemplate.update("insert into seat(seat_id, screen_id, status) values (?, 2, false)", seatId);
+		}
+		int first = controller.bookTheMovie(5, 2, Arrays.asList(11, 12), null).join().getBookingId();
+		int second = controller.bookTheMovie(6, 2, Arrays.asList(13, 14), null).join().getBookingId();
+
+		long large = controller.joinWaitlist(7, 2, 3).getEntryId();
+		long small = controller.joinWaitlist(8, 2, 1).getEntryId();
+
+		// two seats can not serve the head yet, they stay vacant for it
+		controller.cancelTheBooking(first, null);
+		assertNull(controller.getWaitlistEntry(large).getBookingId());
+		assertNull(controller.getWaitlistEntry(small).getBookingId());
+		assertEquals(2, freeSeats(2));
+
+		// the freed seats and a vacant one serve the head, the last vacant seat the entry behind it
+		controller.cancelTheBooking(second, null);
+		assertNotNull(controller.getWaitlistEntry(large).getBookingId());
+		assertNotNull(controller.getWaitlistEntry(small).getBookingId());
+		assertEquals(Arrays.asList(11, 13, 14), seatsOfUsers(7, 7));
+		assertEquals(Arrays.asList(12), seatsOfUsers(8, 8));
+		assertEquals(0, freeSeats(2));
+	}
+
+	private List<Integer> seatsOfUsers(int fromUserId, int toUserId) {
+		return jdbcTemplate.queryForList("select s.seat_id from booked_seat s join booking b on b.booking_id = s.booking_id "
+				+ "where b.user_id between ? and ? order by b.user_id, s.seat_id", Integer.class, fromUserId, toUserId);
+	}
+
+	private int freeSeats(int screenId) {
+		return jdbcTemplate.queryForObject("select count(*) from seat where screen_id = ? and status = false",
+				Integer.class, screenId);
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.app.hold;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.app.hold.HierarchicalTimingWheel.Timeout;
+
+class HierarchicalTimingWheelTest {
+
+	/** Here we are trying to test that a timeout expires on its deadline and not before */
+	@Test
+	void expireOnDeadline() {
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<String>(10, 3, 1000);
+		wheel.schedule("hold", 1250);
+		List<String> expired = new ArrayList<String>();
+
+		// the deadline is rounded up to the next tick
+		wheel.advance(1249, expired::add);
+		assertTrue(expired.isEmpty());
+		wheel.advance(1250, expired::add);
+		assertEquals(Arrays.asList("hold"), expired);
+		assertEquals(0, wheel.size());
+
+		// a deadline in the past expires on the next tick
+		wheel.schedule("late", 0);
+		wheel.advance(1259, expired::add);
+		assertEquals(1, expired.size());
+		wheel.advance(1260, expired::add);
+		assertEquals(Arrays.asList("hold", "late"), expired);
+	}
+
+	/**
+	 * Here we are trying to test timeouts kept in the upper levels, they cascade
+	 * down and expire on the exact tick when the wheel is advanced tick by tick
+	 */
+	@Test
+	void cascadeFromUpperLevels() {
+		HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<Long>(1, 3, 0);
+		long[] deadlines = { 63, 64, 65, 127, 4095, 4096, 4097, 100000, 262143 };
+		for (long deadline : deadlines) {
+			wheel.schedule(deadline, deadline);
+		}
+		List<Long> expired = new ArrayList<Long>();
+		for (long now = 1; now <= 262143; now++) {
+			long tick = now;
+			wheel.advance(now, deadline -> {
+				assertEquals(deadline.longValue(), tick);
+				expired.add(deadline);
+			});
+		}
+		assertEquals(deadlines.length, expired.size());
+	}
+
+	/** Here we are trying to test a timeout beyond the span of the top level */
+	@Test
+	void waitBeyondSpanOfWheel() {
+		// two levels of 64 buckets span 4096 ticks
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<String>(1, 2, 0);
+		wheel.schedule("far", 10000);
+		List<String> expired = new ArrayList<String>();
+		for (long now = 1; now < 10000; now++) {
+			wheel.advance(now, expired::add);
+		}
+		assertTrue(expired.isEmpty());
+		wheel.advance(10000, expired::add);
+		assertEquals(Arrays.asList("far"), expired);
+	}
+
+	/** Here we are trying to test that one long advance hands the tasks over in deadline order */
+	@Test
+	void expireInDeadlineOrder() {
+		HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<Long>(1, 3, 0);
+		long[] deadlines = { 5000, 3, 70, 64, 4200, 1 };
+		for (long deadline : deadlines) {
+			wheel.schedule(deadline, deadline);
+		}
+		List<Long> expired = new ArrayList<Long>();
+		wheel.advance(5000, expired::add);
+		assertEquals(Arrays.asList(1L, 3L, 64L, 70L, 4200L, 5000L), expired);
+	}
+
+	/** Here we are trying to test cancelling timeouts of every level */
+	@Test
+	void cancelTimeouts() {
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<String>(1, 3, 0);
+		Timeout<String> near = wheel.schedule("near", 10);
+		Timeout<String> middle = wheel.schedule("middle", 1000);
+		Timeout<String> far = wheel.schedule("far", 100000);
+		wheel.schedule("kept", 1000);
+		assertEquals(4, wheel.size());
+
+		// a cancelled timeout never expires and can not be cancelled again
+		assertTrue(wheel.cancel(near));
+		assertTrue(wheel.cancel(middle));
+		assertFalse(wheel.cancel(middle));
+		assertEquals(2, wheel.size());
+
+		List<String> expired = new ArrayList<String>();
+		wheel.advance(1000, expired::add);
+		assertEquals(Arrays.asList("kept"), expired);
+
+		// a timeout cancelled after it cascaded is removed from its new level
+		wheel.advance(99000, expired::add);
+		assertTrue(wheel.cancel(far));
+		wheel.advance(100000, expired::add);
+		assertEquals(Arrays.asList("kept"), expired);
+		assertEquals(0, wheel.size());
+
+		// a timeout which expired already can not be cancelled
+		Timeout<String> done = wheel.schedule("done", 100001);
+		wheel.advance(100001, expired::add);
+		assertFalse(wheel.cancel(done));
+	}
+
+	/** Here we are trying to test many random timeouts advanced in uneven steps */
+	@Test
+	void expireRandomTimeouts() {
+		HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<Long>(1, 3, 0);
+		Random random = new Random(42);
+		List<Timeout<Long>> cancelled = new ArrayList<Timeout<Long>>();
+		Set<Long> expected = new HashSet<Long>();
+		for (long i = 0; i < 10000; i++) {
+			long deadline = 1 + random.nextInt(400000);
+			long task = deadline * 100000 + i;
+			Timeout<Long> timeout = wheel.schedule(task, deadline);
+			if (i % 3 == 0) {
+				cancelled.add(timeout);
+			} else {
+				expected.add(task);
+			}
+		}
+		for (Timeout<Long> timeout : cancelled) {
+			assertTrue(wheel.cancel(timeout));
+		}
+
+		Set<Long> expired = new HashSet<Long>();
+		for (long now = 0; now <= 400100; now += 7) {
+			long tick = now;
+			wheel.advance(now, task -> {
+				long deadline = task / 100000;
+				assertTrue(deadline <= tick && deadline > tick - 7, "expired at " + tick + " instead of " + deadline);
+				expired.add(task);
+			});
+		}
+		assertEquals(expected, expired);
+		assertEquals(0, wheel.size());
+	}
+
+}
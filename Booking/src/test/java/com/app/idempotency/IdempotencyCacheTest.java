@@ -0,0 +1,85 @@
+package com.app.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+
+class IdempotencyCacheTest {
+
+	private IdempotencyCache cache;
+
+	@BeforeEach
+	void createCache() {
+		cache = new IdempotencyCache();
+		ReflectionTestUtils.setField(cache, "maxEntries", 10);
+		ReflectionTestUtils.setField(cache, "ttlSeconds", 3600L);
+	}
+
+	/** @return no of entries queued for eviction, live or not */
+	private int queued() {
+		return ((Queue<?>) ReflectionTestUtils.getField(cache, "order")).size();
+	}
+
+	/** Here we are trying to test that a retry gets the stored result back */
+	@Test
+	void answerRetryFromCache() throws InvalidDataException, NotFoundException {
+		AtomicInteger calls = new AtomicInteger();
+		assertEquals(1, cache.execute("key", "book", calls::incrementAndGet).intValue());
+		assertEquals(1, cache.execute("key", "book", calls::incrementAndGet).intValue());
+		assertEquals(1, calls.get());
+
+		// a key can not be reused for a different request
+		assertThrows(InvalidDataException.class, () -> cache.execute("key", "cancel", calls::incrementAndGet));
+	}
+
+	/** Here we are trying to test that a failed call is forgotten and can be retried */
+	@Test
+	void retryFailedCall() throws InvalidDataException, NotFoundException {
+		assertThrows(NotFoundException.class, () -> cache.execute("key", "book", () -> {
+			throw new NotFoundException("Unable to find user by given user id");
+		}));
+		assertEquals(0, cache.size());
+		assertEquals("booked", cache.execute("key", "book", () -> "booked"));
+	}
+
+	/** Here we are trying to test that the oldest keys are dropped beyond the maximum */
+	@Test
+	void evictOldestKeys() throws InvalidDataException, NotFoundException {
+		for (int i = 0; i < 25; i++) {
+			int value = i;
+			cache.execute("key-" + i, "book", () -> value);
+		}
+		assertEquals(10, cache.size());
+		assertEquals(10, queued());
+
+		// the newest key is kept, an evicted key runs its call again
+		assertEquals(24, cache.execute("key-24", "book", () -> -1).intValue());
+		assertEquals(-1, cache.execute("key-0", "book", () -> -1).intValue());
+	}
+
+	/** Here we are trying to test that a burst of failed calls does not pile up in the queue */
+	@Test
+	void compactFailedCalls() throws InvalidDataException, NotFoundException {
+		cache.execute("kept", "book", () -> "booked");
+		for (int i = 0; i < 1000; i++) {
+			String key = "failed-" + i;
+			assertThrows(InvalidDataException.class, () -> cache.execute(key, "book", () -> {
+				throw new InvalidDataException("One or more of the selected seats is already booked");
+			}));
+		}
+		assertEquals(1, cache.size());
+		assertTrue(queued() <= 2 * 10 + 2, "queue holds " + queued() + " entries");
+		assertEquals("booked", cache.execute("kept", "book", () -> "again"));
+	}
+
+}
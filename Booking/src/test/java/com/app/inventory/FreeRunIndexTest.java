@@ -0,0 +1,182 @@
+package com.app.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class FreeRunIndexTest {
+
+	/** @return index of a screen with the given no of rows and seats per row, bit index i is row i / seats */
+	private static FreeRunIndex screen(int rowCount, int seatsPerRow) {
+		int[] rows = new int[rowCount * seatsPerRow];
+		int[] columns = new int[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = i / seatsPerRow;
+			columns[i] = i % seatsPerRow;
+		}
+		return new FreeRunIndex(rows, columns);
+	}
+
+	private static int[] range(int from, int to) {
+		return IntStream.range(from, to).toArray();
+	}
+
+	/**
+	 * Here we are trying to test a vacant run crossing the boundaries of the
+	 * bitmap words and of the tree nodes
+	 */
+	@Test
+	void findRunAcrossWordBoundary() {
+		FreeRunIndex index = screen(1, 200);
+		for (int i = 0; i < 200; i++) {
+			if (i < 60 || i > 70) {
+				index.set(i, false);
+			}
+		}
+		assertArrayEquals(range(60, 71), index.find(11));
+		assertNull(index.find(12));
+
+		// the run reaching over seat 127 and 128 is found as well
+		index.set(65, false);
+		for (int i = 120; i < 136; i++) {
+			index.set(i, true);
+		}
+		assertArrayEquals(range(120, 136), index.find(16));
+		assertArrayEquals(range(120, 126), index.find(6));
+	}
+
+	/** Here we are trying to test runs broken and joined again by claims */
+	@Test
+	void findRunBrokenByClaims() {
+		FreeRunIndex index = screen(1, 10);
+
+		// an empty row gives a block in the middle
+		assertArrayEquals(range(3, 7), index.find(4));
+
+		// a claimed seat splits the row, the block goes to the leftmost run long enough
+		index.set(5, false);
+		assertArrayEquals(range(0, 5), index.find(5));
+		assertArrayEquals(range(2, 5), index.find(3));
+		assertNull(index.find(6));
+
+		// releasing the seat joins the runs again
+		index.set(5, true);
+		assertArrayEquals(range(2, 8), index.find(6));
+	}
+
+	/** Here we are trying to test that a sold out row is passed over for the next preferred row */
+	@Test
+	void skipSoldOutRow() {
+		// rows are preferred in the order 1, 2, 0
+		FreeRunIndex index = screen(3, 6);
+		assertArrayEquals(range(8, 10), index.find(2));
+		for (int i = 6; i < 12; i++) {
+			index.set(i, false);
+		}
+		assertArrayEquals(range(14, 16), index.find(2));
+		for (int i = 12; i < 18; i++) {
+			index.set(i, false);
+		}
+		assertArrayEquals(range(2, 4), index.find(2));
+		for (int i = 0; i < 6; i++) {
+			index.set(i, false);
+		}
+		assertNull(index.find(1));
+	}
+
+	/** Here we are trying to test that a run never spans two rows or an aisle */
+	@Test
+	void stopRunAtRowEndAndAisle() {
+		FreeRunIndex rows = screen(2, 4);
+		assertNull(rows.find(5));
+
+		// columns 0 to 2 and 4 to 6, column 3 is an aisle
+		FreeRunIndex aisle = new FreeRunIndex(new int[] { 0, 0, 0, 0, 0, 0 }, new int[] { 0, 1, 2, 4, 5, 6 });
+		assertNotNull(aisle.find(3));
+		assertNull(aisle.find(4));
+		assertNull(new FreeRunIndex(new int[0], new int[0]).find(1));
+	}
+
+	/** Here we are trying to test random claims and releases against a search of every row */
+	@Test
+	void matchSearchOfEveryRow() {
+		Random random = new Random(7);
+		for (int trial = 0; trial < 200; trial++) {
+			List<int[]> seats = new ArrayList<int[]>();
+			int rowCount = 1 + random.nextInt(8);
+			int columnCount = 1 + random.nextInt(20);
+			for (int row = 0; row < rowCount; row++) {
+				for (int column = 0; column < columnCount; column++) {
+					if (random.nextInt(10) > 0) {
+						seats.add(new int[] { row, column });
+					}
+				}
+			}
+			int n = seats.size();
+			if (n == 0) {
+				continue;
+			}
+			int[] seatIds = new int[n];
+			int[] rows = new int[n];
+			int[] columns = new int[n];
+			boolean[] booked = new boolean[n];
+			int maxRow = 0;
+			for (int i = 0; i < n; i++) {
+				seatIds[i] = 100 + i;
+				rows[i] = seats.get(i)[0];
+				columns[i] = seats.get(i)[1];
+				booked[i] = random.nextInt(3) == 0;
+				maxRow = Math.max(maxRow, rows[i]);
+			}
+			ScreenSeatMap seatMap = new ScreenSeatMap(1, seatIds, booked.clone(), rows, columns);
+
+			for (int step = 0; step < 200; step++) {
+				if (random.nextInt(3) == 0) {
+					int i = random.nextInt(n);
+					seatMap.release(new int[] { i });
+					booked[i] = false;
+					continue;
+				}
+				int count = 1 + random.nextInt(6);
+				int bestRank = Integer.MAX_VALUE;
+				for (int i = 0; i + count <= n; i++) {
+					boolean vacant = true;
+					for (int j = 0; j < count && vacant; j++) {
+						vacant = !booked[i + j] && rows[i + j] == rows[i] && columns[i + j] == columns[i] + j;
+					}
+					if (vacant) {
+						bestRank = Math.min(bestRank, rank(rows[i], maxRow));
+					}
+				}
+
+				int[] claimed = seatMap.claimBest(count);
+				assertEquals(bestRank != Integer.MAX_VALUE, claimed != null, "trial " + trial);
+				if (claimed != null) {
+					assertEquals(bestRank, rank(rows[claimed[0]], maxRow), "row preference in trial " + trial);
+					for (int j = 0; j < count; j++) {
+						assertFalse(booked[claimed[j]]);
+						assertEquals(rows[claimed[0]], rows[claimed[j]]);
+						assertEquals(columns[claimed[0]] + j, columns[claimed[j]]);
+						booked[claimed[j]] = true;
+					}
+				}
+			}
+		}
+	}
+
+	/** @return preference of the row, the middle row is 0 and then alternating outwards */
+	private static int rank(int row, int maxRow) {
+		int distance = row - maxRow / 2;
+		return distance == 0 ? 0 : distance > 0 ? 2 * distance - 1 : -2 * distance;
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.app.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class InventorySnapshotTest {
+
+	@TempDir
+	Path dir;
+
+	private Path file;
+
+	private final InventorySnapshot snapshot = new InventorySnapshot();
+
+	@BeforeEach
+	void useTempFile() {
+		file = dir.resolve("inventory.snapshot");
+		ReflectionTestUtils.setField(snapshot, "file", file.toString());
+	}
+
+	/** screen of 70 seats in rows of 10 with every third seat booked, so its bitmap takes two words */
+	private static ScreenSeatMap screen(int screenId) {
+		int[] seatIds = new int[70];
+		boolean[] status = new boolean[70];
+		int[] rows = new int[70];
+		int[] columns = new int[70];
+		for (int i = 0; i < 70; i++) {
+			seatIds[i] = screenId * 1000 + i;
+			status[i] = i % 3 == 0;
+			rows[i] = i / 10;
+			columns[i] = i % 10;
+		}
+		return new ScreenSeatMap(screenId, seatIds, status, rows, columns);
+	}
+
+	/** Here we are trying to test that the screens read back equal the saved ones */
+	@Test
+	void readSavedScreens() throws IOException {
+		ScreenSeatMap first = screen(1);
+		ScreenSeatMap second = screen(2);
+		snapshot.save(12345L, Arrays.asList(first, second), Collections.<SeatClaim>emptyList());
+
+		InventorySnapshot.Contents contents = snapshot.read();
+		assertNotNull(contents);
+		assertEquals(12345L, contents.getTakenAt());
+		assertEquals(2, contents.getScreens().size());
+		for (int s = 0; s < 2; s++) {
+			ScreenSeatMap saved = s == 0 ? first : second;
+			ScreenSeatMap read = contents.getScreens().get(s);
+			assertEquals(saved.getScreenId(), read.getScreenId());
+			assertEquals(saved.size(), read.size());
+			for (int i = 0; i < saved.size(); i++) {
+				assertEquals(saved.seatIdAt(i), read.seatIdAt(i));
+				assertEquals(saved.rowAt(i), read.rowAt(i));
+				assertEquals(saved.columnAt(i), read.columnAt(i));
+				assertEquals(saved.isBooked(i), read.isBooked(i));
+			}
+			assertArrayEquals(saved.copyWords(), read.copyWords());
+		}
+	}
+
+	/** Here we are trying to test that held seats are written as vacant while the inventory keeps them claimed */
+	@Test
+	void writeHeldSeatsAsVacant() throws IOException {
+		ScreenSeatMap seatMap = screen(1);
+		SeatClaim hold = new SeatClaim(seatMap, new int[] { 1, 2, 65 });
+		assertTrue(seatMap.claim(hold.getIndexes()));
+		SeatClaim otherScreen = new SeatClaim(screen(2), new int[] { 4 });
+
+		snapshot.save(1L, Collections.singletonList(seatMap), Arrays.asList(hold, otherScreen));
+
+		ScreenSeatMap read = snapshot.read().getScreens().get(0);
+		for (int index : hold.getIndexes()) {
+			assertTrue(seatMap.isBooked(index));
+			assertFalse(read.isBooked(index));
+		}
+		assertTrue(read.isBooked(0));
+		assertFalse(read.isBooked(4));
+		assertEquals(seatMap.freeCount() + 3, read.freeCount());
+	}
+
+	/** Here we are trying to test that a damaged snapshot is not used */
+	@Test
+	void rejectDamagedSnapshot() throws IOException {
+		snapshot.save(1L, Collections.singletonList(screen(1)), Collections.<SeatClaim>emptyList());
+		long size = Files.size(file);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer word = ByteBuffer.allocate(1);
+			channel.read(word, size - 20);
+			word.put(0, (byte) (word.get(0) ^ 1)).rewind();
+			channel.write(word, size - 20);
+		}
+		assertNull(snapshot.read());
+	}
+
+	/** Here we are trying to test that a snapshot cut short is not read past its end */
+	@Test
+	void failOnTruncatedSnapshot() throws IOException {
+		snapshot.save(1L, Collections.singletonList(screen(1)), Collections.<SeatClaim>emptyList());
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(Files.size(file) - 12);
+		}
+		assertThrows(EOFException.class, snapshot::read);
+	}
+
+	/** Here we are trying to test that a missing file or a file of another format is no snapshot */
+	@Test
+	void ignoreMissingOrForeignFile() throws IOException {
+		assertNull(snapshot.read());
+		Files.write(file, new byte[] { 0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0 });
+		assertNull(snapshot.read());
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.app.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SeatClaimTest {
+
+	/** screen of ten seats with ids 1 to 10 in one row, all vacant */
+	private static ScreenSeatMap screen() {
+		int[] seatIds = new int[10];
+		int[] rows = new int[10];
+		int[] columns = new int[10];
+		for (int i = 0; i < 10; i++) {
+			seatIds[i] = i + 1;
+			columns[i] = i;
+		}
+		return new ScreenSeatMap(1, seatIds, new boolean[10], rows, columns);
+	}
+
+	/** Here we are trying to test that a moved claim is released in the reloaded bitmap */
+	@Test
+	void moveClaimToReloadedScreen() {
+		ScreenSeatMap loaded = screen();
+		SeatClaim claim = new SeatClaim(loaded, new int[] { 3, 4 });
+		loaded.claim(claim.getIndexes());
+
+		// when the screen is reloaded the held seats get claimed there as well
+		ScreenSeatMap reloaded = screen();
+		assertTrue(claim.moveTo(reloaded));
+		assertEquals(8, reloaded.freeCount());
+		assertEquals(claim.getSeatMap(), reloaded);
+
+		// releasing the claim gives the seats back in the reloaded bitmap
+		claim.release();
+		assertEquals(10, reloaded.freeCount());
+	}
+
+	/** Here we are trying to test moving a claim whose seats are booked already */
+	@Test
+	void moveClaimToBookedSeats() {
+		SeatClaim claim = new SeatClaim(screen(), new int[] { 3 });
+		ScreenSeatMap reloaded = screen();
+		reloaded.claim(new int[] { 3 });
+
+		// the claim stays on its bitmap and the reloaded one is left alone
+		assertFalse(claim.moveTo(reloaded));
+		assertEquals(9, reloaded.freeCount());
+
+		// a released claim is not moved at all
+		claim.release();
+		ScreenSeatMap vacant = screen();
+		assertTrue(claim.moveTo(vacant));
+		assertEquals(10, vacant.freeCount());
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.app.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+
+	/** no of screen ids placed on the rings */
+	private static final int SCREENS = 100000;
+
+	private static ConsistentHashRing<String> ring(int nodeCount) {
+		Map<String, String> nodes = new LinkedHashMap<String, String>();
+		for (int i = 1; i <= nodeCount; i++) {
+			nodes.put("booking-" + i, "booking-" + i);
+		}
+		return new ConsistentHashRing<String>(nodes, 128);
+	}
+
+	/** Here we are trying to test that consecutive screen ids spread evenly over the nodes */
+	@Test
+	void spreadScreensEvenly() {
+		ConsistentHashRing<String> ring = ring(4);
+		Map<String, Integer> counts = new HashMap<String, Integer>();
+		for (int screenId = 1; screenId <= SCREENS; screenId++) {
+			counts.merge(ring.get(screenId), 1, Integer::sum);
+		}
+		assertEquals(4, counts.size());
+		for (Map.Entry<String, Integer> count : counts.entrySet()) {
+			double share = count.getValue() / (double) SCREENS;
+			assertTrue(share > 0.18 && share < 0.32, count.getKey() + " owns " + share + " of the screens");
+		}
+	}
+
+	/** Here we are trying to test that a joining node only takes screens over */
+	@Test
+	void moveOnlyScreensOfJoiningNode() {
+		ConsistentHashRing<String> before = ring(4);
+		ConsistentHashRing<String> after = ring(5);
+		int moved = 0;
+		for (int screenId = 1; screenId <= SCREENS; screenId++) {
+			String owner = after.get(screenId);
+			if (!owner.equals(before.get(screenId))) {
+				assertEquals("booking-5", owner, "screen " + screenId + " moved between old nodes");
+				moved++;
+			}
+		}
+		double share = moved / (double) SCREENS;
+		assertTrue(share > 0.12 && share < 0.28, share + " of the screens moved");
+	}
+
+	/** Here we are trying to test that only the screens of a leaving node move */
+	@Test
+	void moveOnlyScreensOfLeavingNode() {
+		ConsistentHashRing<String> before = ring(5);
+		ConsistentHashRing<String> after = ring(4);
+		for (int screenId = 1; screenId <= SCREENS; screenId++) {
+			String owner = before.get(screenId);
+			if (!owner.equals("booking-5")) {
+				assertEquals(owner, after.get(screenId), "screen " + screenId + " moved between staying nodes");
+			}
+		}
+	}
+
+	/** Here we are trying to test that the owner of a screen does not depend on the order of the nodes */
+	@Test
+	void ignoreOrderOfNodes() {
+		Map<String, String> reversed = new LinkedHashMap<String, String>();
+		for (int i = 4; i >= 1; i--) {
+			reversed.put("booking-" + i, "booking-" + i);
+		}
+		ConsistentHashRing<String> ring = ring(4);
+		ConsistentHashRing<String> other = new ConsistentHashRing<String>(reversed, 128);
+		for (int screenId = 1; screenId <= 1000; screenId++) {
+			assertEquals(ring.get(screenId), other.get(screenId));
+		}
+	}
+
+	/** Here we are trying to test an empty ring */
+	@Test
+	void ownNothingWhenEmpty() {
+		ConsistentHashRing<String> ring = ring(0);
+		assertTrue(ring.isEmpty());
+		assertNull(ring.get(1));
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.app.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.app.hold.SeatHoldManager;
+import com.app.repository.BookedSeatRepository;
+import com.sun.net.httpserver.HttpServer;
+
+class ScreenForwardingInterceptorTest {
+
+	private final ScreenRouter router = mock(ScreenRouter.class);
+
+	private final ScreenForwardingInterceptor interceptor = new ScreenForwardingInterceptor(1000, 1000);
+
+	/** owner of the forwarded screens, answering with the header it got */
+	private HttpServer owner;
+
+	private final AtomicReference<String> forwardedUri = new AtomicReference<String>();
+
+	@BeforeEach
+	void startOwner() throws IOException {
+		ReflectionTestUtils.setField(interceptor, "router", router);
+		ReflectionTestUtils.setField(interceptor, "seatHoldManager", mock(SeatHoldManager.class));
+		ReflectionTestUtils.setField(interceptor, "bookedSeatRepository", mock(BookedSeatRepository.class));
+
+		owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		owner.createContext("/", exchange -> {
+			forwardedUri.set(exchange.getRequestURI().toString());
+			byte[] body = "booked on owner".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("X-Forwarded-Seen",
+					exchange.getRequestHeaders().getFirst(ScreenForwardingInterceptor.FORWARDED_HEADER));
+			exchange.sendResponseHeaders(409, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		owner.start();
+	}
+
+	@AfterEach
+	void stopOwner() {
+		owner.stop(0);
+	}
+
+	private static MockHttpServletRequest bookRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/book");
+		request.setQueryString("userId=1&screenId=7&SeatList=1,2");
+		request.setParameter("screenId", "7");
+		return request;
+	}
+
+	/** Here we are trying to test that a screen owned by this instance is processed here */
+	@Test
+	void processLocalScreen() throws IOException {
+		when(router.ownerOf(7)).thenReturn(null);
+		assertTrue(interceptor.preHandle(bookRequest(), new MockHttpServletResponse(), null));
+	}
+
+	/** Here we are trying to test that the answer of the owner is copied to the caller */
+	@Test
+	void forwardToOwner() throws IOException {
+		when(router.ownerOf(7))
+				.thenReturn(new DefaultServiceInstance("owner", "booking", "localhost", owner.getAddress().getPort(), false));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertFalse(interceptor.preHandle(bookRequest(), response, null));
+		assertEquals("/book?userId=1&screenId=7&SeatList=1,2", forwardedUri.get());
+		assertEquals(409, response.getStatus());
+		assertEquals("true", response.getHeader("X-Forwarded-Seen"));
+		assertEquals("booked on owner", response.getContentAsString());
+	}
+
+	/** Here we are trying to test that a forwarded request is never forwarded again */
+	@Test
+	void keepForwardedRequest() throws IOException {
+		MockHttpServletRequest request = bookRequest();
+		request.addHeader(ScreenForwardingInterceptor.FORWARDED_HEADER, "true");
+		assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+		verify(router, never()).ownerOf(7);
+	}
+
+	/** Here we are trying to test that a request whose owner is down is processed here */
+	@Test
+	void processHereWhenOwnerIsDown() throws IOException {
+		int closedPort;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			closedPort = socket.getLocalPort();
+		}
+		when(router.ownerOf(7)).thenReturn(new DefaultServiceInstance("down", "booking", "localhost", closedPort, false));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertTrue(interceptor.preHandle(bookRequest(), response, null));
+		assertEquals(200, response.getStatus());
+		assertEquals(0, response.getContentLength());
+	}
+
+}
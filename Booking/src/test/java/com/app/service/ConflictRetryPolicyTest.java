@@ -0,0 +1,124 @@
+package com.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.app.exception.ConflictException;
+import com.app.exception.ExceptionResponse;
+import com.app.exception.InvalidDataException;
+import com.app.exception.MovieAppicationExceptionHandler;
+import com.app.exception.NotFoundException;
+import com.app.metrics.BookingMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConflictRetryPolicyTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final BookingMetrics bookingMetrics = new BookingMetrics(registry);
+
+	private final ConflictRetryPolicy policy = new ConflictRetryPolicy();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(bookingMetrics, "maxConflictScreens", 1);
+		ReflectionTestUtils.setField(bookingMetrics, "conflictScreenIdleMs", 600000L);
+		ReflectionTestUtils.setField(policy, "bookingMetrics", bookingMetrics);
+		ReflectionTestUtils.setField(policy, "maxAttempts", 3);
+		ReflectionTestUtils.setField(policy, "baseBackoffMs", 1L);
+		ReflectionTestUtils.setField(policy, "maxBackoffMs", 1L);
+	}
+
+	private double conflicts(String operation, String screen) {
+		return registry.get("booking.concurrency.conflicts").tag("operation", operation).tag("screen", screen)
+				.counter().count();
+	}
+
+	private double retries(String operation, String screen) {
+		return registry.get("booking.concurrency.retries").tag("operation", operation).tag("screen", screen)
+				.counter().count();
+	}
+
+	/**
+	 * Here we are trying to test that a call conflicting once is run again and its
+	 * result returned
+	 */
+	@Test
+	void retryConflictingCall() throws InvalidDataException, NotFoundException {
+		AtomicInteger attempts = new AtomicInteger();
+		String result = policy.call("book", "1", () -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new ConcurrencyFailureException("stale version");
+			}
+			return "booked";
+		});
+
+		assertEquals("booked", result);
+		assertEquals(2, attempts.get());
+		assertEquals(1, conflicts("book", "1"));
+		assertEquals(1, retries("book", "1"));
+	}
+
+	/**
+	 * Here we are trying to test that a call still conflicting after the last
+	 * attempt is rejected with 409 and every attempt but the last is retried
+	 */
+	@Test
+	void giveUpAfterMaxAttempts() {
+		AtomicInteger attempts = new AtomicInteger();
+		ConflictException e = assertThrows(ConflictException.class, () -> policy.call("book", "1", () -> {
+			attempts.incrementAndGet();
+			throw new ConcurrencyFailureException("deadlock");
+		}));
+
+		assertEquals(3, attempts.get());
+		assertEquals(3, conflicts("book", "1"));
+		assertEquals(2, retries("book", "1"));
+
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/booking/book");
+		ResponseEntity<ExceptionResponse> response = new MovieAppicationExceptionHandler().MyMessage(e, request);
+		assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+		assertEquals(409, response.getBody().getStatuscode());
+		assertEquals(e.getMessage(), response.getBody().getErrorMessage());
+	}
+
+	/**
+	 * Here we are trying to test that only the most screens get a tag of their own
+	 * and the conflicts of the others are counted under other
+	 */
+	@Test
+	void boundScreenTags() throws InvalidDataException, NotFoundException {
+		for (String screen : new String[] { "1", "2", "3" }) {
+			AtomicInteger attempts = new AtomicInteger();
+			policy.call("book", screen, () -> {
+				if (attempts.incrementAndGet() == 1) {
+					throw new ConcurrencyFailureException("stale version");
+				}
+				return null;
+			});
+		}
+
+		assertEquals(1, conflicts("book", "1"));
+		assertEquals(2, conflicts("book", BookingMetrics.OTHER_SCREENS));
+		assertEquals(2, retries("book", BookingMetrics.OTHER_SCREENS));
+		assertEquals(2, registry.find("booking.concurrency.conflicts").counters().size());
+
+		// an idle screen gives its tag up to the next screen conflicting
+		ReflectionTestUtils.setField(bookingMetrics, "conflictScreenIdleMs", 0L);
+		bookingMetrics.concurrencyConflict("book", "2");
+		assertEquals(1, conflicts("book", "2"));
+		assertEquals(0, registry.find("booking.concurrency.conflicts").tag("screen", "1").counters().size());
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.app.lock.ScreenLockManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TransactionsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final ScreenLockManager screenLocks = new ScreenLockManager(1, registry);
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	/** @return no of times the screen lock was released */
+	private long releases() {
+		return registry.get("booking.screen.lock.hold").timer().count();
+	}
+
+	/**
+	 * Here we are trying to test that the screen lock is released after the
+	 * actions registered later, whether the transaction commits or rolls back
+	 */
+	@Test
+	void releaseScreenLockLast() {
+		for (int status : new int[] { TransactionSynchronization.STATUS_COMMITTED,
+				TransactionSynchronization.STATUS_ROLLED_BACK }) {
+			TransactionSynchronizationManager.initSynchronization();
+			long before = releases();
+			List<Long> seen = new ArrayList<Long>();
+			Transactions.releaseAfterCompletion(screenLocks.lock(1));
+			Transactions.afterCompletion(() -> seen.add(releases()), () -> seen.add(releases()));
+
+			TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+					status);
+
+			// the action ran with the lock still held, and the lock was released after it
+			assertEquals(1, seen.size());
+			assertEquals(before, seen.get(0).longValue());
+			assertEquals(before + 1, releases());
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+}
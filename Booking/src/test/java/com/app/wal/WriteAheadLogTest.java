@@ -0,0 +1,176 @@
+package com.app.wal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.app.repository.SeatRepository;
+
+class WriteAheadLogTest {
+
+	/** room for three changes of two seats in one segment */
+	private static final int SEGMENT_BYTES = 3 * WalSegment.sizeOf(2);
+
+	@TempDir
+	Path dir;
+
+	/** seats whose status was restored by the last started log */
+	private final Set<Integer> restored = new TreeSet<Integer>();
+
+	private WriteAheadLog wal;
+
+	@AfterEach
+	void stopLog() throws InterruptedException, IOException {
+		if (wal != null) {
+			wal.stop();
+		}
+	}
+
+	/** starts a log on the directory the way the application does after a restart */
+	@SuppressWarnings("unchecked")
+	private WriteAheadLog start() throws IOException {
+		restored.clear();
+		SeatRepository seatRepository = mock(SeatRepository.class);
+		when(seatRepository.restoreSeatStatus(anyCollection())).thenAnswer(call -> {
+			Collection<Integer> seatIds = call.getArgument(0);
+			restored.addAll(seatIds);
+			return seatIds.size();
+		});
+		WriteAheadLog log = new WriteAheadLog();
+		ReflectionTestUtils.setField(log, "seatRepository", seatRepository);
+		ReflectionTestUtils.setField(log, "enabled", true);
+		ReflectionTestUtils.setField(log, "dir", dir.toString());
+		ReflectionTestUtils.setField(log, "segmentBytes", SEGMENT_BYTES);
+		ReflectionTestUtils.setField(log, "checkpointMs", 3600000L);
+		log.start();
+		return log;
+	}
+
+	private List<String> segmentNames() throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(WalSegment::isSegment).map(path -> path.getFileName().toString()).sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	private long savedCheckpoint() throws IOException {
+		return ByteBuffer.wrap(Files.readAllBytes(dir.resolve("checkpoint"))).getLong();
+	}
+
+	/** Here we are trying to test that a full segment rolls over to a file named after its first change */
+	@Test
+	void rollOverFullSegment() throws IOException {
+		wal = start();
+		for (int i = 1; i <= 7; i++) {
+			assertEquals(i, wal.append(true, 1, Arrays.asList(2 * i - 1, 2 * i)));
+		}
+		assertEquals(Arrays.asList(WalSegment.fileName(1), WalSegment.fileName(4), WalSegment.fileName(7)),
+				segmentNames());
+	}
+
+	/** Here we are trying to test that the checkpoint stops before the oldest pending change and drops older segments */
+	@Test
+	void compactSegmentsBehindCheckpoint() throws IOException {
+		wal = start();
+		for (int i = 1; i <= 7; i++) {
+			wal.append(true, 1, Arrays.asList(2 * i - 1, 2 * i));
+		}
+		wal.complete(Arrays.asList(1L, 2L, 3L, 4L, 6L));
+		wal.checkpoint();
+
+		assertEquals(4, savedCheckpoint());
+		assertEquals(Arrays.asList(WalSegment.fileName(4), WalSegment.fileName(7)), segmentNames());
+
+		wal.complete(Arrays.asList(5L, 7L));
+		wal.checkpoint();
+		assertEquals(7, savedCheckpoint());
+		assertEquals(Arrays.asList(WalSegment.fileName(7)), segmentNames());
+	}
+
+	/** Here we are trying to test that a restart restores only the seats of changes after the checkpoint */
+	@Test
+	void replayChangesAfterCheckpoint() throws InterruptedException, IOException {
+		wal = start();
+		assertTrue(restored.isEmpty());
+		for (int i = 1; i <= 5; i++) {
+			wal.append(i % 2 == 0, 1, Arrays.asList(2 * i - 1, 2 * i));
+		}
+		wal.complete(Arrays.asList(1L, 2L, 4L));
+		wal.checkpoint();
+		wal.stop();
+
+		wal = start();
+		assertEquals(new TreeSet<Integer>(Arrays.asList(5, 6, 7, 8, 9, 10)), restored);
+		assertEquals(Arrays.asList(WalSegment.fileName(6)), segmentNames());
+		assertEquals(6, wal.append(true, 1, Arrays.asList(11)));
+
+		// the replayed changes are checkpointed, a second restart has nothing to restore
+		wal.stop();
+		wal = start();
+		assertEquals(new TreeSet<Integer>(Arrays.asList(11)), restored);
+	}
+
+	/** Here we are trying to test that a torn record ends the replay of its segment */
+	@Test
+	void stopReplayAtTornRecord() throws InterruptedException, IOException {
+		wal = start();
+		wal.append(true, 1, Arrays.asList(1, 2));
+		wal.append(true, 1, Arrays.asList(3, 4));
+		wal.append(true, 1, Arrays.asList(5, 6));
+		wal.sync(3);
+		wal.stop();
+		wal = null;
+
+		// flip the last seat id of the second record, its checksum no longer matches
+		try (FileChannel channel = FileChannel.open(dir.resolve(WalSegment.fileName(1)), StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.allocate(4).putInt(0, 99), 2 * WalSegment.sizeOf(2) - 4);
+		}
+
+		wal = start();
+		assertEquals(new TreeSet<Integer>(Arrays.asList(1, 2)), restored);
+		assertEquals(2, wal.append(true, 1, Arrays.asList(7)));
+	}
+
+	/** Here we are trying to test that a record cut short by a crash is not read */
+	@Test
+	void ignoreTruncatedSegment() throws InterruptedException, IOException {
+		wal = start();
+		wal.append(false, 1, Arrays.asList(1, 2));
+		wal.append(false, 1, Arrays.asList(3, 4));
+		wal.stop();
+		wal = null;
+
+		Path segment = dir.resolve(WalSegment.fileName(1));
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.truncate(WalSegment.sizeOf(2) + 10);
+		}
+		List<WalRecord> records = WalSegment.open(segment).read();
+		assertEquals(1, records.size());
+		assertEquals(1, records.get(0).getLsn());
+		assertFalse(records.get(0).isBooked());
+		assertEquals(Arrays.asList(1, 2), records.get(0).getSeatIds());
+	}
+
+}
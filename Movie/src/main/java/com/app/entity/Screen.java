@@ -17,6 +17,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 
 import org.springframework.format.annotation.DateTimeFormat;
@@ -59,6 +60,15 @@ public class Screen {
 	@Column(name = "time_of_show", nullable = false)
 	String timeOfShow;
 
+	/**
+	 * This field indicate the version of the row, it is raised on every update so
+	 * a concurrent change of the screen is detected instead of overwritten
+	 */
+	@Version
+	@Column(name = "version", columnDefinition = "bigint default 0 not null")
+	@EqualsAndHashCode.Exclude
+	private long version;
+
 	public Screen() {
 		// TODO Auto-generated constructor stub
 	}
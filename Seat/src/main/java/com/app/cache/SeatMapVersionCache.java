@@ -0,0 +1,134 @@
+package com.app.cache;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.app.repository.SeatRepository;
+
+/**
+ * Version of the seat map of every screen asked for, served as the ETag of the
+ * seat map. A version only grows, as every booking and cancellation raises the
+ * version of the seat rows it changes. The versions of cached screens are
+ * refreshed in the background from the seats changed since the last refresh,
+ * so an unchanged seat map is answered without a query. The refresh looks back
+ * a margin further, so a transaction which changed a seat before a refresh and
+ * committed after it is not missed. The changed seats are found by the
+ * updated_at column of the seat table, which the database sets on every update
+ * of a seat; the {@link com.app.entity.Seat} entity maps it, so the column is
+ * created with the schema of this service as well. A bounded no of screens is
+ * cached, beyond it the screen cached first is dropped and loaded again on its
+ * next request.
+ */
+@Component
+public class SeatMapVersionCache implements Runnable {
+
+	private static final Logger log = LoggerFactory.getLogger(SeatMapVersionCache.class);
+
+	/** seat map version of the cached screens keyed by screen id in the order they were cached */
+	private final Map<Integer, Long> versions = Collections.synchronizedMap(new LinkedHashMap<Integer, Long>() {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+			return size() > maxScreens;
+		}
+	});
+
+	/** auto wired SeatRepository for accessing the methods of seat repository */
+	@Autowired
+	private SeatRepository seatRepository;
+
+	/** largest no of screens whose version is cached */
+	@Value("${seat.etag.max-screens:10000}")
+	private int maxScreens;
+
+	/** time between two refreshes in milliseconds */
+	@Value("${seat.etag.refresh-ms:1000}")
+	private long refreshMs;
+
+	/** seats changed this long before the last refresh are read again */
+	@Value("${seat.etag.margin-ms:10000}")
+	private long marginMs;
+
+	/** database time of the last refresh */
+	private Date lastRefresh;
+
+	private ScheduledExecutorService refresher;
+
+	@PostConstruct
+	public void start() {
+		refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "seat-map-version");
+			thread.setDaemon(true);
+			return thread;
+		});
+		refresher.scheduleWithFixedDelay(this, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		refresher.shutdownNow();
+	}
+
+	/**
+	 * This method gives the cached version of the seat map of selected screen
+	 *
+	 * @param screenId
+	 * @return version or null if the screen is not cached
+	 */
+	public Long get(int screenId) {
+		return versions.get(screenId);
+	}
+
+	/**
+	 * This method gives the version of the seat map of selected screen, reading it
+	 * from the seat table if the screen is not cached. It is to be read before the
+	 * seats, so a seat changed in between makes the next request load again.
+	 *
+	 * @param screenId
+	 * @return version of the seat map
+	 */
+	public long getOrLoad(int screenId) {
+		Long version = versions.get(screenId);
+		if (version != null) {
+			return version;
+		}
+		long loaded = seatRepository.getSeatMapVersion(screenId);
+		return versions.merge(screenId, loaded, Math::max);
+	}
+
+	/** This method refreshes the versions of the cached screens with changed seats */
+	@Override
+	public void run() {
+		try {
+			Date now = seatRepository.getDatabaseTime();
+			if (!versions.isEmpty()) {
+				Date since = new Date((lastRefresh != null ? lastRefresh : now).getTime() - marginMs);
+				for (Object[] row : seatRepository.getSeatMapVersionsChangedSince(since)) {
+					long version = ((Number) row[1]).longValue();
+					versions.computeIfPresent(((Number) row[0]).intValue(),
+							(screenId, cached) -> Math.max(cached, version));
+				}
+			}
+			lastRefresh = now;
+		} catch (RuntimeException e) {
+			log.error("Unable to refresh the seat map versions", e);
+		}
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.app.compact;
+
+import com.app.entity.Screen;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Compact seat map of a screen, the screen and its movie are sent once and the
+ * seats as the ranges of their ids and their encoded status in seat id order
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CompactSeatMap {
+
+	private Screen screen;
+
+	/** no of seats of the screen */
+	private int seatCount;
+
+	/** ranges of the seat ids, e.g. 101-250,260 */
+	private String seatIds;
+
+	/** encoding of the status, bitmap or rle */
+	private String encoding;
+
+	/** status of the seats in seat id order */
+	private String status;
+
+}
@@ -0,0 +1,179 @@
+package com.app.compact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+
+import com.app.exception.UnsupportedFormatException;
+
+/**
+ * Compact encodings of the seats of a screen. The seats are taken in seat id
+ * order, their ids are written as ranges of consecutive ids and their status
+ * either as a bitset or as runs.
+ */
+public enum SeatMapEncoding {
+
+	/**
+	 * status as base64 of a bitset, bit i is set when the i-th seat is allocated,
+	 * bit i is bit i % 8 of byte i / 8
+	 */
+	BITMAP("application/vnd.seatmap.bitmap+json") {
+		@Override
+		public String encode(boolean[] status) {
+			BitSet bits = new BitSet(status.length);
+			for (int i = 0; i < status.length; i++) {
+				bits.set(i, status[i]);
+			}
+			return Base64.getEncoder().encodeToString(bits.toByteArray());
+		}
+
+		@Override
+		public boolean[] decode(String encoded, int seatCount) {
+			BitSet bits = BitSet.valueOf(Base64.getDecoder().decode(encoded));
+			boolean[] status = new boolean[seatCount];
+			for (int i = 0; i < seatCount; i++) {
+				status[i] = bits.get(i);
+			}
+			return status;
+		}
+	},
+
+	/**
+	 * status as runs of seats with the same status, every run is its length
+	 * followed by B for allocated or V for vacant seats, e.g. 120V3B177V
+	 */
+	RLE("application/vnd.seatmap.rle+json") {
+		@Override
+		public String encode(boolean[] status) {
+			StringBuilder runs = new StringBuilder();
+			for (int i = 0; i < status.length;) {
+				int end = i;
+				while (end < status.length && status[end] == status[i]) {
+					end++;
+				}
+				runs.append(end - i).append(status[i] ? 'B' : 'V');
+				i = end;
+			}
+			return runs.toString();
+		}
+
+		@Override
+		public boolean[] decode(String encoded, int seatCount) {
+			boolean[] status = new boolean[seatCount];
+			int seat = 0;
+			for (int i = 0; i < encoded.length(); i++) {
+				int end = i;
+				while (Character.isDigit(encoded.charAt(end))) {
+					end++;
+				}
+				int length = Integer.parseInt(encoded.substring(i, end));
+				Arrays.fill(status, seat, seat + length, encoded.charAt(end) == 'B');
+				seat += length;
+				i = end;
+			}
+			return status;
+		}
+	};
+
+	/** media type asking for the encoding in the Accept header */
+	private final String mediaType;
+
+	SeatMapEncoding(String mediaType) {
+		this.mediaType = mediaType;
+	}
+
+	public String getMediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * This method encodes the status of the seats
+	 *
+	 * @param status status of every seat in seat id order, true when allocated
+	 * @return encoded status
+	 */
+	public abstract String encode(boolean[] status);
+
+	/**
+	 * This method decodes the status of the seats
+	 *
+	 * @param encoded   encoded status
+	 * @param seatCount no of seats of the screen
+	 * @return status of every seat in seat id order, true when allocated
+	 */
+	public abstract boolean[] decode(String encoded, int seatCount);
+
+	/**
+	 * This method writes sorted seat ids as ranges of consecutive ids, e.g.
+	 * 101-250,260,270-419
+	 *
+	 * @param seatIds sorted seat ids
+	 * @return ranges of the ids
+	 */
+	public static String encodeIds(int[] seatIds) {
+		StringBuilder ranges = new StringBuilder();
+		for (int i = 0; i < seatIds.length;) {
+			int end = i;
+			while (end + 1 < seatIds.length && seatIds[end + 1] == seatIds[end] + 1) {
+				end++;
+			}
+			if (ranges.length() > 0) {
+				ranges.append(',');
+			}
+			ranges.append(seatIds[i]);
+			if (end > i) {
+				ranges.append('-').append(seatIds[end]);
+			}
+			i = end + 1;
+		}
+		return ranges.toString();
+	}
+
+	/**
+	 * This method reads seat ids written as ranges by {@link #encodeIds}
+	 *
+	 * @param ranges ranges of the ids
+	 * @return sorted seat ids
+	 */
+	public static int[] decodeIds(String ranges) {
+		List<Integer> seatIds = new ArrayList<Integer>();
+		for (String range : ranges.isEmpty() ? new String[0] : ranges.split(",")) {
+			int dash = range.indexOf('-');
+			int first = Integer.parseInt(dash < 0 ? range : range.substring(0, dash));
+			int last = dash < 0 ? first : Integer.parseInt(range.substring(dash + 1));
+			for (int seatId = first; seatId <= last; seatId++) {
+				seatIds.add(seatId);
+			}
+		}
+		int[] ids = new int[seatIds.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = seatIds.get(i);
+		}
+		return ids;
+	}
+
+	/**
+	 * This method picks the encoding asked for by the format parameter or else by
+	 * the Accept header
+	 *
+	 * @param format bitmap or rle, may be null
+	 * @param accept Accept header, may be null
+	 * @return encoding or null if the full seat list is asked for
+	 * @throws UnsupportedFormatException if the format is not bitmap or rle
+	 */
+	public static SeatMapEncoding select(String format, String accept) throws UnsupportedFormatException {
+		for (SeatMapEncoding encoding : values()) {
+			if (format != null ? encoding.name().equalsIgnoreCase(format)
+					: accept != null && accept.contains(encoding.mediaType)) {
+				return encoding;
+			}
+		}
+		if (format != null) {
+			throw new UnsupportedFormatException("Unknown seat map format " + format + ", use bitmap or rle");
+		}
+		return null;
+	}
+
+}
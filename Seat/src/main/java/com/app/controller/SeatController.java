@@ -3,18 +3,29 @@ package com.app.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.app.cache.SeatMapVersionCache;
+import com.app.compact.CompactSeatMap;
+import com.app.compact.SeatMapEncoding;
 import com.app.entity.Screen;
 import com.app.entity.Seat;
 import com.app.exception.NotFoundException;
+import com.app.exception.UnsupportedFormatException;
 import com.app.repository.ScreenRepository;
 import com.app.repository.SeatRepository;
+import com.app.stream.SeatMapStream;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -36,26 +47,93 @@ public class SeatController {
 	@Autowired
 	private ScreenRepository screenRepository;
 
+	/** server-sent event streams of the seat maps */
+	@Autowired
+	private SeatMapStream seatMapStream;
+
+	/** versions of the seat maps served as ETag */
+	@Autowired
+	private SeatMapVersionCache versionCache;
+
 	/**
 	 * In this method we are trying to get status of all the seats of selected
-	 * screen
+	 * screen, the version of the seat map is sent as ETag and a request with the
+	 * current version in the If-None-Match header gets 304 without a query. A
+	 * compact seat map having the screen once and the status of the seats as a
+	 * bitmap or as runs is sent when asked for by the format parameter or by its
+	 * media type in the Accept header
 	 * 
 	 * @param screenId
-	 * @return List of seats of selected screen else return empty list if screenId
-	 *         is wrong it @throws NotFoundException
+	 * @param format   bitmap or rle for a compact seat map
+	 * @param accept
+	 * @param request
+	 * @return List of seats of selected screen or its compact seat map, no body if
+	 *         the seat map did not change, if screenId is wrong it @throws
+	 *         NotFoundException, if format is not bitmap or rle it @throws
+	 *         UnsupportedFormatException
 	 */
-
 	@GetMapping("getAllSeats/{screenId}")
 	@ApiOperation("Get all seats of selected scrren")
-	@ApiResponses(value = { @ApiResponse(code = 200, message = "status of seat", response = Screen.class) })
-	public List<Seat> GetAllSeatStatusOfSelectedScreen(@PathVariable("screenId") int screenId)
-			throws NotFoundException {
-		// Here we check screen with given screen id is present screen table or not
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "status of seat", response = Screen.class),
+			@ApiResponse(code = 304, message = "seat map not changed"),
+			@ApiResponse(code = 400, message = "unknown format") })
+	public ResponseEntity<?> GetAllSeatStatusOfSelectedScreen(@PathVariable("screenId") int screenId,
+			@RequestParam(value = "format", required = false) String format,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept, WebRequest request)
+			throws NotFoundException, UnsupportedFormatException {
+		/** every representation has an ETag of its own */
+		SeatMapEncoding encoding = SeatMapEncoding.select(format, accept);
+		String representation = encoding == null ? "" : "-" + encoding.name().toLowerCase();
+
+		/** an unchanged seat map is answered from the version cache */
+		Long cached = versionCache.get(screenId);
+		if (cached != null && request.checkNotModified(cached + representation)) {
+			return null;
+		}
+
 		Screen screen = screenRepository.findById(screenId)
 				.orElseThrow(() -> new NotFoundException("Unable to find screen with given screen id"));
 
-		return repository.getAllSeatsOfSelectedScreen(screen);
+		/** the version is read before the seats so it is never newer than them */
+		long version = versionCache.getOrLoad(screenId);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT)
+				.eTag(version + representation);
+		if (encoding == null) {
+			return response.body(repository.getAllSeatsOfSelectedScreen(screen));
+		}
 
+		/** only ids and status of the seats are read, the screen is sent once */
+		List<Object[]> rows = repository.getSeatStatusOfSelectedScreen(screenId);
+		int[] seatIds = new int[rows.size()];
+		boolean[] status = new boolean[rows.size()];
+		for (int i = 0; i < seatIds.length; i++) {
+			seatIds[i] = ((Number) rows.get(i)[0]).intValue();
+			status[i] = SeatMapStream.toBoolean(rows.get(i)[1]);
+		}
+		MediaType contentType = format != null ? MediaType.APPLICATION_JSON
+				: MediaType.parseMediaType(encoding.getMediaType());
+		return response.contentType(contentType)
+				.body(new CompactSeatMap(screen, seatIds.length, SeatMapEncoding.encodeIds(seatIds),
+						encoding.name().toLowerCase(), encoding.encode(status)));
+	}
+
+	/**
+	 * In this method we are streaming the seat map of selected screen as
+	 * server-sent events, a snapshot event lists every seat and the delta events
+	 * after it only the seats whose status changed
+	 * 
+	 * @param screenId
+	 * @return stream of the seat map if screenId is wrong it @throws
+	 *         NotFoundException
+	 */
+	@GetMapping(value = "seatStream/{screenId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@ApiOperation("Stream the seat map of selected screen, a snapshot and then the changed seats")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "stream of seat map events") })
+	public SseEmitter streamSeatMap(@PathVariable("screenId") int screenId) throws NotFoundException {
+		if (!screenRepository.existsById(screenId)) {
+			throw new NotFoundException("Unable to find screen with given screen id");
+		}
+		return seatMapStream.subscribe(screenId);
 	}
 
 }
@@ -3,6 +3,7 @@ package com.app.exception;
 import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -62,4 +63,22 @@ public class MovieAppicationExceptionHandler {
 		error.setResponseStatus(HttpStatus.NOT_FOUND);
 		return error;
 	}
+
+	/**
+	 * This method will handle a format which can not be produced, the answer has
+	 * status 400 so the client does not take the error for a seat map.
+	 * 
+	 * @param ex
+	 * @return error message.
+	 */
+	@ExceptionHandler(UnsupportedFormatException.class)
+	public ResponseEntity<ExceptionResponse> MyMessage(UnsupportedFormatException ex,
+			final HttpServletRequest request) {
+		ExceptionResponse error = new ExceptionResponse();
+		error.setErrorMessage(ex.getMessage());
+		error.setRequestedURI(request.getRequestURI());
+		error.setStatuscode(400);
+		error.setResponseStatus(HttpStatus.BAD_REQUEST);
+		return ResponseEntity.badRequest().body(error);
+	}
 }
\ No newline at end of file
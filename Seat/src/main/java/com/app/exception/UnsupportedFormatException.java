@@ -0,0 +1,14 @@
+package com.app.exception;
+
+/**
+ * This is the custom exception class used when a representation is asked for
+ * which the service can not produce
+ */
+public class UnsupportedFormatException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public UnsupportedFormatException(String message) {
+		super(message);
+	}
+}
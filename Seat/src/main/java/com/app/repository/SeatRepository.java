@@ -1,5 +1,7 @@
 package com.app.repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.Query;
@@ -30,4 +32,52 @@ public interface SeatRepository extends CrudRepository<Seat, Integer> {
 	@Query(value = "select status from Seat m where m.screen_id=:screen", nativeQuery = true)
 	List<Boolean> getStatusAllSeatsOfSelectedScreen(Screen screen);
 
+	/**
+	 * This method is for getting the version of the seat map of selected screen,
+	 * every update of a seat raises the version of its row so the sum only grows
+	 * 
+	 * @param screenId
+	 * @return version of the seat map, 0 if screen has no seats
+	 */
+	@Query(value = "select coalesce(sum(m.version),0)+count(*) from seat m where m.screen_id=:screenId", nativeQuery = true)
+	long getSeatMapVersion(int screenId);
+
+	/**
+	 * This method is for getting the seat map version of every screen with a seat
+	 * changed after the given time
+	 * 
+	 * @param since
+	 * @return list of rows having screen_id and version of the seat map
+	 */
+	@Query(value = "select m.screen_id, coalesce(sum(m.version),0)+count(*) from seat m where m.screen_id in (select c.screen_id from seat c where c.updated_at>:since) group by m.screen_id", nativeQuery = true)
+	List<Object[]> getSeatMapVersionsChangedSince(Date since);
+
+	/**
+	 * This method is for getting the status of every seat of selected screen
+	 * 
+	 * @param screenId
+	 * @return list of rows having seat_id and status ordered by seat id
+	 */
+	@Query(value = "select m.seat_id, m.status from seat m where m.screen_id=:screenId order by m.seat_id", nativeQuery = true)
+	List<Object[]> getSeatStatusOfSelectedScreen(int screenId);
+
+	/**
+	 * This method is for getting the status of the seats of the given screens
+	 * changed after the given time
+	 * 
+	 * @param screenIds
+	 * @param since
+	 * @return list of rows having screen_id, seat_id and status
+	 */
+	@Query(value = "select m.screen_id, m.seat_id, m.status from seat m where m.updated_at>:since and m.screen_id in (:screenIds)", nativeQuery = true)
+	List<Object[]> getSeatStatusChangedSince(Collection<Integer> screenIds, Date since);
+
+	/**
+	 * This method is for getting the current time of the database
+	 * 
+	 * @return time of the database
+	 */
+	@Query(value = "select localtimestamp(3)", nativeQuery = true)
+	Date getDatabaseTime();
+
 }
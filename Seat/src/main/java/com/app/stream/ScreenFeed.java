@@ -0,0 +1,114 @@
+package com.app.stream;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Change feed of the seat map of one screen. The feed keeps the status of
+ * every seat of the screen, turns the changed seats read by the
+ * {@link SeatMapStream} into one delta and hands it to all the subscribers, so
+ * the cost of a change does not grow with the no of clients.
+ */
+public class ScreenFeed {
+
+	private final int screenId;
+
+	/** status of every seat of the screen keyed by seat id */
+	private final Map<Integer, Boolean> statuses = new LinkedHashMap<Integer, Boolean>();
+
+	private final List<SeatMapSubscriber> subscribers = new CopyOnWriteArrayList<SeatMapSubscriber>();
+
+	/** called when the last subscriber left */
+	private final Consumer<ScreenFeed> onEmpty;
+
+	ScreenFeed(int screenId, List<Object[]> seats, Consumer<ScreenFeed> onEmpty) {
+		this.screenId = screenId;
+		this.onEmpty = onEmpty;
+		for (Object[] row : seats) {
+			statuses.put(((Number) row[0]).intValue(), SeatMapStream.toBoolean(row[1]));
+		}
+	}
+
+	public int getScreenId() {
+		return screenId;
+	}
+
+	/** @return event listing every seat of the screen */
+	synchronized SeatMapEvent snapshot() {
+		SeatMapEvent event = new SeatMapEvent(SeatMapEvent.SNAPSHOT, screenId);
+		for (Map.Entry<Integer, Boolean> seat : statuses.entrySet()) {
+			event.add(seat.getKey(), seat.getValue());
+		}
+		return event;
+	}
+
+	/**
+	 * This method applies the status of seats read from the seat table, seats
+	 * whose status is already known are left out of the delta
+	 *
+	 * @param seats rows having seat_id and status
+	 */
+	synchronized void apply(List<Object[]> seats) {
+		SeatMapEvent delta = new SeatMapEvent(SeatMapEvent.DELTA, screenId);
+		for (Object[] row : seats) {
+			int seatId = ((Number) row[0]).intValue();
+			boolean status = SeatMapStream.toBoolean(row[1]);
+			Boolean known = statuses.put(seatId, status);
+			if (known == null || known != status) {
+				delta.add(seatId, status);
+			}
+		}
+		if (!delta.isEmpty()) {
+			for (SeatMapSubscriber subscriber : subscribers) {
+				subscriber.offer(delta);
+			}
+		}
+	}
+
+	/**
+	 * This method adds the subscriber, it gets a snapshot first
+	 *
+	 * @param subscriber
+	 */
+	void subscribe(SeatMapSubscriber subscriber) {
+		subscribers.add(subscriber);
+		subscriber.schedule();
+	}
+
+	/**
+	 * This method removes the subscriber, the feed is closed with its last
+	 * subscriber
+	 *
+	 * @param subscriber
+	 */
+	void unsubscribe(SeatMapSubscriber subscriber) {
+		if (subscribers.remove(subscriber) && subscribers.isEmpty()) {
+			onEmpty.accept(this);
+		}
+	}
+
+	/**
+	 * This method drops the subscribers whose send blocks longer than the timeout
+	 *
+	 * @param now          current time in nanoseconds
+	 * @param timeoutNanos longest time a send may block
+	 * @return no of dropped subscribers
+	 */
+	int dropStalled(long now, long timeoutNanos) {
+		int dropped = 0;
+		for (SeatMapSubscriber subscriber : subscribers) {
+			if (subscriber.dropIfStalled(now, timeoutNanos)) {
+				dropped++;
+			}
+		}
+		return dropped;
+	}
+
+	boolean hasSubscribers() {
+		return !subscribers.isEmpty();
+	}
+
+}
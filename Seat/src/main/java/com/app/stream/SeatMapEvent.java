@@ -0,0 +1,56 @@
+package com.app.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Event of the seat map stream of a screen. A snapshot lists every seat of the
+ * screen, a delta only the seats whose status changed. Both carry the status
+ * of the seats and not the change, so applying an event twice does no harm.
+ */
+@Getter
+@ToString
+public class SeatMapEvent {
+
+	/** name of the event listing every seat */
+	public static final String SNAPSHOT = "snapshot";
+
+	/** name of the event listing the changed seats */
+	public static final String DELTA = "delta";
+
+	private final String type;
+
+	private final int screenId;
+
+	/** ids of the allocated seats */
+	private final List<Integer> booked = new ArrayList<Integer>();
+
+	/** ids of the vacant seats */
+	private final List<Integer> vacant = new ArrayList<Integer>();
+
+	public SeatMapEvent(String type, int screenId) {
+		this.type = type;
+		this.screenId = screenId;
+	}
+
+	/**
+	 * This method adds a seat to the event
+	 *
+	 * @param seatId
+	 * @param status true when the seat is allocated
+	 */
+	public void add(int seatId, boolean status) {
+		(status ? booked : vacant).add(seatId);
+	}
+
+	@JsonIgnore
+	public boolean isEmpty() {
+		return booked.isEmpty() && vacant.isEmpty();
+	}
+
+}
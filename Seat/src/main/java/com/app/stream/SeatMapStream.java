@@ -0,0 +1,172 @@
+package com.app.stream;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.app.repository.SeatRepository;
+
+/**
+ * Server-sent event streams of the seat maps. Every screen with clients has one
+ * {@link ScreenFeed}, all the feeds are brought up to date by one query for the
+ * seats changed since the last poll, so a change costs the same whatever the no
+ * of clients. The poll looks back a margin further, so a transaction which
+ * changed a seat before a poll and committed after it is not missed, seats read
+ * again are left out of the deltas by the feed. Every poll also drops the
+ * clients whose send blocked longer than the send timeout, so a client which
+ * stopped reading holds up the other clients for at most the send timeout and
+ * one poll.
+ */
+@Component
+public class SeatMapStream implements Runnable {
+
+	private static final Logger log = LoggerFactory.getLogger(SeatMapStream.class);
+
+	/** feed of every screen with clients keyed by screen id */
+	private final Map<Integer, ScreenFeed> feeds = new ConcurrentHashMap<Integer, ScreenFeed>();
+
+	/** auto wired SeatRepository for accessing the methods of seat repository */
+	@Autowired
+	private SeatRepository seatRepository;
+
+	/** time between two polls of the seat table in milliseconds */
+	@Value("${seat.stream.poll-ms:1000}")
+	private long pollMs;
+
+	/** seats changed this long before the last poll are read again */
+	@Value("${seat.stream.margin-ms:10000}")
+	private long marginMs;
+
+	/** no of events buffered for a client before it is sent a snapshot instead */
+	@Value("${seat.stream.buffer-size:32}")
+	private int bufferSize;
+
+	/** longest life of a stream in milliseconds, the client connects again after it */
+	@Value("${seat.stream.timeout-ms:1800000}")
+	private long timeoutMs;
+
+	/** no of threads sending the events to the clients */
+	@Value("${seat.stream.sender-threads:4}")
+	private int senderThreads;
+
+	/** longest time a send to one client may block before the client is dropped */
+	@Value("${seat.stream.send-timeout-ms:5000}")
+	private long sendTimeoutMs;
+
+	/** largest no of sender threads blocked by dropped clients which are replaced */
+	@Value("${seat.stream.max-stalled-senders:4}")
+	private int maxStalledSenders;
+
+	/** database time of the last poll */
+	private Date lastPoll;
+
+	private ScheduledExecutorService poller;
+
+	private SenderPool sender;
+
+	@PostConstruct
+	public void start() {
+		poller = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "seat-map-stream");
+			thread.setDaemon(true);
+			return thread;
+		});
+		poller.scheduleWithFixedDelay(this, pollMs, pollMs, TimeUnit.MILLISECONDS);
+		sender = new SenderPool(senderThreads, maxStalledSenders);
+	}
+
+	@PreDestroy
+	public void stop() {
+		poller.shutdownNow();
+		sender.shutdownNow();
+	}
+
+	/**
+	 * This method opens a stream of the seat map of selected screen, the client
+	 * gets a snapshot first and then the seats whose status changed
+	 *
+	 * @param screenId
+	 * @return emitter of the stream
+	 */
+	public SseEmitter subscribe(int screenId) {
+		SseEmitter emitter = new SseEmitter(timeoutMs);
+		feeds.compute(screenId, (id, feed) -> {
+			if (feed == null) {
+				feed = new ScreenFeed(id, seatRepository.getSeatStatusOfSelectedScreen(id), this::close);
+			}
+			SeatMapSubscriber subscriber = new SeatMapSubscriber(feed, emitter, bufferSize, sender);
+			ScreenFeed subscribed = feed;
+			emitter.onCompletion(() -> subscribed.unsubscribe(subscriber));
+			emitter.onTimeout(() -> subscribed.unsubscribe(subscriber));
+			emitter.onError(e -> subscribed.unsubscribe(subscriber));
+			feed.subscribe(subscriber);
+			return feed;
+		});
+		return emitter;
+	}
+
+	/** removes the feed unless a client subscribed again in the meantime */
+	private void close(ScreenFeed feed) {
+		feeds.computeIfPresent(feed.getScreenId(), (id, current) -> current == feed && !feed.hasSubscribers() ? null
+				: current);
+	}
+
+	/**
+	 * This method drops the clients whose send blocks too long and hands the seats
+	 * changed since the last poll to their feeds
+	 */
+	@Override
+	public void run() {
+		long nanos = System.nanoTime();
+		for (ScreenFeed feed : feeds.values()) {
+			int dropped = feed.dropStalled(nanos, TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs));
+			if (dropped > 0) {
+				log.warn("Dropped {} clients of screen {} which did not read the seat map in time", dropped,
+						feed.getScreenId());
+			}
+		}
+		try {
+			Date now = seatRepository.getDatabaseTime();
+			if (!feeds.isEmpty()) {
+				Date since = new Date((lastPoll != null ? lastPoll : now).getTime() - marginMs);
+				Map<Integer, List<Object[]>> changes = new HashMap<Integer, List<Object[]>>();
+				for (Object[] row : seatRepository.getSeatStatusChangedSince(new ArrayList<Integer>(feeds.keySet()),
+						since)) {
+					changes.computeIfAbsent(((Number) row[0]).intValue(), id -> new ArrayList<Object[]>())
+							.add(new Object[] { row[1], row[2] });
+				}
+				for (Map.Entry<Integer, List<Object[]>> change : changes.entrySet()) {
+					ScreenFeed feed = feeds.get(change.getKey());
+					if (feed != null) {
+						feed.apply(change.getValue());
+					}
+				}
+			}
+			lastPoll = now;
+		} catch (RuntimeException e) {
+			log.error("Unable to poll the changed seats", e);
+		}
+	}
+
+	/** @return status of a seat as read by a native query */
+	public static boolean toBoolean(Object value) {
+		return value instanceof Boolean ? (Boolean) value : ((Number) value).intValue() != 0;
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.app.stream;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One client of the seat map stream of a screen. Events are put into a bounded
+ * buffer by the feed and sent to the client on a sender thread, so a slow
+ * client never holds up the feed or the other clients. When the buffer is full
+ * its events are dropped and the client gets a new snapshot instead, which
+ * holds every change it missed. A client whose send blocks longer than the send
+ * timeout is dropped from the feed, its stream is ended with an error once the
+ * send returns, and it gets a new snapshot when it connects again.
+ */
+public class SeatMapSubscriber {
+
+	/** start of the send of a client dropped for blocking too long */
+	private static final long STALLED = -1;
+
+	private final ScreenFeed feed;
+
+	private final SseEmitter emitter;
+
+	/** events waiting to be sent */
+	private final BlockingQueue<SeatMapEvent> buffer;
+
+	/** threads sending the events of all the subscribers */
+	private final SenderPool sender;
+
+	/** start of the send in progress in nanoseconds, 0 if none, {@link #STALLED} once dropped */
+	private final AtomicLong sendingSince = new AtomicLong();
+
+	/** set while a sender thread drains the buffer */
+	private final AtomicBoolean draining = new AtomicBoolean();
+
+	/** set when the client has to get a snapshot before the buffered events */
+	private volatile boolean resync = true;
+
+	SeatMapSubscriber(ScreenFeed feed, SseEmitter emitter, int bufferSize, SenderPool sender) {
+		this.feed = feed;
+		this.emitter = emitter;
+		this.buffer = new ArrayBlockingQueue<SeatMapEvent>(bufferSize);
+		this.sender = sender;
+	}
+
+	public SseEmitter getEmitter() {
+		return emitter;
+	}
+
+	/**
+	 * This method buffers the event for the client, a full buffer is dropped and
+	 * replaced by a snapshot
+	 *
+	 * @param event
+	 */
+	void offer(SeatMapEvent event) {
+		if (!buffer.offer(event)) {
+			resync = true;
+			buffer.clear();
+		}
+		schedule();
+	}
+
+	/** This method makes a sender thread drain the buffer unless one already does */
+	void schedule() {
+		if (draining.compareAndSet(false, true)) {
+			sender.execute(this::drain);
+		}
+	}
+
+	private void drain() {
+		try {
+			do {
+				if (resync) {
+					resync = false;
+					buffer.clear();
+					send(feed.snapshot());
+				}
+				SeatMapEvent event;
+				while (!resync && (event = buffer.poll()) != null) {
+					send(event);
+				}
+				draining.set(false);
+			} while ((resync || !buffer.isEmpty()) && draining.compareAndSet(false, true));
+		} catch (IOException | RuntimeException e) {
+			if (sendingSince.get() == STALLED) {
+				sender.unblocked();
+			}
+			feed.unsubscribe(this);
+			emitter.completeWithError(e);
+		}
+	}
+
+	private void send(SeatMapEvent event) throws IOException {
+		/** never 0, which means no send is in progress */
+		long start = System.nanoTime() | 1;
+		sendingSince.set(start);
+		try {
+			emitter.send(SseEmitter.event().name(event.getType()).data(event, MediaType.APPLICATION_JSON));
+		} finally {
+			if (!sendingSince.compareAndSet(start, 0)) {
+				throw new IOException("Client did not take the seat map events within the send timeout");
+			}
+		}
+	}
+
+	/**
+	 * This method drops the client if its send in progress blocks longer than the
+	 * timeout, its sender thread is replaced until the send returns
+	 *
+	 * @param now          current time in nanoseconds
+	 * @param timeoutNanos longest time a send may block
+	 * @return true if the client was dropped
+	 */
+	boolean dropIfStalled(long now, long timeoutNanos) {
+		long since = sendingSince.get();
+		if (since <= 0 || now - since <= timeoutNanos || !sendingSince.compareAndSet(since, STALLED)) {
+			return false;
+		}
+		feed.unsubscribe(this);
+		buffer.clear();
+		sender.blocked();
+		return true;
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.app.stream;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads sending the seat map events to the clients. A send to a client which
+ * stopped reading blocks its thread until the servlet container gives up on the
+ * write. A client whose send blocks longer than the send timeout is dropped and
+ * its thread is replaced by a new one until the send returns, up to a maximum
+ * no of replaced threads, so a few stalled clients do not hold up the others.
+ */
+class SenderPool implements Executor {
+
+	private final ThreadPoolExecutor executor;
+
+	/** no of threads while no thread is blocked */
+	private final int threads;
+
+	/** largest no of blocked threads which are replaced */
+	private final int maxReplaced;
+
+	/** no of threads blocked by dropped clients */
+	private int blocked;
+
+	SenderPool(int threads, int maxReplaced) {
+		this.threads = threads;
+		this.maxReplaced = maxReplaced;
+		AtomicInteger threadNo = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads + maxReplaced, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), r -> {
+					Thread thread = new Thread(r, "seat-map-sender-" + threadNo.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		executor.execute(task);
+	}
+
+	/** This method adds a thread in place of one blocked by a dropped client */
+	synchronized void blocked() {
+		blocked++;
+		resize();
+	}
+
+	/** This method takes the added thread away once the blocked send returned */
+	synchronized void unblocked() {
+		blocked--;
+		resize();
+	}
+
+	private void resize() {
+		executor.setCorePoolSize(threads + Math.max(0, Math.min(blocked, maxReplaced)));
+	}
+
+	/** @return no of threads the pool runs at most at the moment */
+	synchronized int getPoolSize() {
+		return executor.getCorePoolSize();
+	}
+
+	void shutdownNow() {
+		executor.shutdownNow();
+	}
+
+}
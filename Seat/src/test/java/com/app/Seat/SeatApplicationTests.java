@@ -1,30 +1,31 @@
 package com.app.Seat;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
-import java.text.ParseException;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
-
-import com.app.controller.SeatController;
-import com.app.exception.NotFoundException;
+import org.springframework.test.web.servlet.MockMvc;
 
 @SpringBootTest
+@AutoConfigureMockMvc
 class SeatApplicationTests {
 
 	@Autowired
-	SeatController controller;
+	MockMvc mockMvc;
 	
 	/**In this method we are trying to apply test case on getSeatsOfSelectedScreen*/
 	@Test
-	void getSeatsOfSelectedScreen() throws NotFoundException, ParseException {
+	void getSeatsOfSelectedScreen() throws Exception {
 		
 		//When we pass correct screen id it returns the List of seat which exits in that screen
-		assertEquals(10,controller.GetAllSeatStatusOfSelectedScreen(1).size() );
+		mockMvc.perform(get("/getAllSeats/1")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(10));
 		
-		//When we pass incorrect scrren id it throws exception
-		Throwable exception = assertThrows(NotFoundException.class, () -> controller.GetAllSeatStatusOfSelectedScreen(1111).size());
+		//When we pass incorrect scrren id it returns the not found error
+		mockMvc.perform(get("/getAllSeats/1111")).andExpect(jsonPath("$.errorMessage").value("Unable to find screen with given screen id"));
 	}
 
 }
@@ -0,0 +1,44 @@
+package com.app.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.app.repository.SeatRepository;
+
+class SeatMapVersionCacheTest {
+
+	/** Here we are trying to test that the cache drops the screen cached first beyond the maximum */
+	@Test
+	void dropScreenCachedFirst() {
+		SeatRepository seatRepository = mock(SeatRepository.class);
+		when(seatRepository.getSeatMapVersion(anyInt())).thenAnswer(call -> 100L * (Integer) call.getArgument(0));
+		SeatMapVersionCache cache = new SeatMapVersionCache();
+		ReflectionTestUtils.setField(cache, "seatRepository", seatRepository);
+		ReflectionTestUtils.setField(cache, "maxScreens", 3);
+
+		for (int screenId = 1; screenId <= 3; screenId++) {
+			assertEquals(100L * screenId, cache.getOrLoad(screenId));
+		}
+		assertEquals(100L, cache.getOrLoad(1));
+		verify(seatRepository, times(1)).getSeatMapVersion(1);
+
+		assertEquals(400L, cache.getOrLoad(4));
+		assertNull(cache.get(1));
+		assertEquals(200L, cache.get(2));
+		assertEquals(400L, cache.get(4));
+
+		// a dropped screen is read again
+		assertEquals(100L, cache.getOrLoad(1));
+		verify(seatRepository, times(2)).getSeatMapVersion(1);
+		assertNull(cache.get(2));
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.app.compact;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.app.exception.UnsupportedFormatException;
+
+class SeatMapEncodingTest {
+
+	/** Here we are trying to test that decoding gives back the status of every seat */
+	@Test
+	void decodeEncodedStatus() {
+		Random random = new Random(7);
+		for (SeatMapEncoding encoding : SeatMapEncoding.values()) {
+			for (int seatCount = 0; seatCount <= 130; seatCount++) {
+				boolean[] status = new boolean[seatCount];
+				for (int i = 0; i < seatCount; i++) {
+					status[i] = random.nextInt(4) == 0;
+				}
+				assertArrayEquals(status, encoding.decode(encoding.encode(status), seatCount),
+						encoding + " of " + seatCount + " seats");
+			}
+			boolean[] booked = { true, true, true, true, true, true, true, true, true };
+			assertArrayEquals(booked, encoding.decode(encoding.encode(booked), booked.length));
+			boolean[] vacant = new boolean[9];
+			assertArrayEquals(vacant, encoding.decode(encoding.encode(vacant), vacant.length));
+		}
+	}
+
+	/** Here we are trying to test the documented layout of both encodings */
+	@Test
+	void encodeDocumentedLayout() {
+		boolean[] status = new boolean[9];
+		status[0] = true;
+		status[3] = true;
+		status[4] = true;
+		status[8] = true;
+		assertEquals("1B2V2B3V1B", SeatMapEncoding.RLE.encode(status));
+		// bits 0, 3 and 4 are 0x19 in the first byte and bit 8 is 0x01 in the second
+		assertEquals("GQE=", SeatMapEncoding.BITMAP.encode(status));
+		assertEquals("", SeatMapEncoding.RLE.encode(new boolean[0]));
+	}
+
+	/** Here we are trying to test that seat ids written as ranges are read back */
+	@Test
+	void decodeEncodedIds() {
+		int[] seatIds = { 101, 102, 103, 250, 260, 261, 400 };
+		String ranges = SeatMapEncoding.encodeIds(seatIds);
+		assertEquals("101-103,250,260-261,400", ranges);
+		assertArrayEquals(seatIds, SeatMapEncoding.decodeIds(ranges));
+		assertArrayEquals(new int[0], SeatMapEncoding.decodeIds(SeatMapEncoding.encodeIds(new int[0])));
+	}
+
+	/** Here we are trying to test which encoding the format parameter and the Accept header select */
+	@Test
+	void selectEncoding() throws UnsupportedFormatException {
+		assertEquals(SeatMapEncoding.BITMAP, SeatMapEncoding.select("Bitmap", null));
+		assertEquals(SeatMapEncoding.RLE,
+				SeatMapEncoding.select(null, "application/vnd.seatmap.rle+json, application/json"));
+		assertEquals(SeatMapEncoding.RLE, SeatMapEncoding.select("rle", SeatMapEncoding.BITMAP.getMediaType()));
+		assertNull(SeatMapEncoding.select(null, "application/json"));
+		assertNull(SeatMapEncoding.select(null, null));
+		assertThrows(UnsupportedFormatException.class, () -> SeatMapEncoding.select("xml", null));
+		assertThrows(UnsupportedFormatException.class, () -> SeatMapEncoding.select("", null));
+	}
+
+}
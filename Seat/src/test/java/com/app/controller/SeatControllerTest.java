@@ -0,0 +1,125 @@
+package com.app.controller;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Here we are trying to test the seat map endpoint, its ETag and the answers
+ * to conditional requests.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:seat;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=", "spring.jpa.hibernate.ddl-auto=create",
+		"spring.jpa.show-sql=false", "seat.etag.refresh-ms=100", "eureka.client.enabled=false" })
+class SeatControllerTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void insertScreen() {
+		if (jdbcTemplate.queryForObject("select count(*) from screen", Integer.class) > 0) {
+			return;
+		}
+		jdbcTemplate.update("insert into movie(movie_id, movie_name, movie_category, movie_rating, movie_format, "
+				+ "movie_language) values (1, 'movie', 'drama', 4, '2D', 'english')");
+		jdbcTemplate.update("insert into screen(screen_id, movie_id, date_of_show, time_of_show) values (1, 1, ?, '10')",
+				new Date());
+		for (int seatId = 1; seatId <= 3; seatId++) {
+			jdbcTemplate.update("insert into seat(seat_id, screen_id, status, seat_row, seat_column) "
+					+ "values (?, 1, ?, 0, ?)", seatId, seatId == 2, seatId);
+		}
+	}
+
+	/** Here we are trying to test that the seats are sent with an ETag and an unchanged map gets 304 */
+	@Test
+	void answerUnchangedSeatMapWithNotModified() throws Exception {
+		String eTag = mockMvc.perform(get("/getAllSeats/1")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(3)).andExpect(jsonPath("$[1].status").value(true))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotNull(eTag);
+
+		mockMvc.perform(get("/getAllSeats/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, eTag))
+				.andExpect(content().string(""));
+
+		mockMvc.perform(get("/getAllSeats/1").header(HttpHeaders.IF_NONE_MATCH, "\"0\"")).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, eTag));
+	}
+
+	/** Here we are trying to test that a changed seat gives the seat map a new ETag once the versions are refreshed */
+	@Test
+	void tagChangedSeatMapAgain() throws Exception {
+		jdbcTemplate.update("insert into screen(screen_id, movie_id, date_of_show, time_of_show) values (2, 1, ?, '10')",
+				new Date());
+		jdbcTemplate.update("insert into seat(seat_id, screen_id, status, seat_row, seat_column) values (21, 2, false, 0, 0)");
+		String eTag = mockMvc.perform(get("/getAllSeats/2")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		// the seat is changed the way the booking service does it, the database sets updated_at
+		jdbcTemplate.update("update seat set status = true, version = version + 1 where seat_id = 21");
+		long deadline = System.currentTimeMillis() + 10000;
+		int answer;
+		while ((answer = mockMvc.perform(get("/getAllSeats/2").header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn()
+				.getResponse().getStatus()) == 304 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertEquals(200, answer);
+		mockMvc.perform(get("/getAllSeats/2")).andExpect(jsonPath("$[0].status").value(true))
+				.andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+	}
+
+	/** Here we are trying to test that every representation of the seat map has an ETag of its own */
+	@Test
+	void tagEveryRepresentation() throws Exception {
+		String eTag = mockMvc.perform(get("/getAllSeats/1")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String bitmapTag = mockMvc.perform(get("/getAllSeats/1").param("format", "bitmap"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.encoding").value("bitmap")).andReturn()
+				.getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(eTag, bitmapTag);
+
+		mockMvc.perform(get("/getAllSeats/1").header(HttpHeaders.IF_NONE_MATCH, bitmapTag))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/getAllSeats/1").param("format", "bitmap").header(HttpHeaders.IF_NONE_MATCH, bitmapTag))
+				.andExpect(status().isNotModified());
+	}
+
+	/** Here we are trying to test that a format which is not known is a bad request */
+	@Test
+	void rejectUnknownFormat() throws Exception {
+		mockMvc.perform(get("/getAllSeats/1").param("format", "xml")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errorMessage").value("Unknown seat map format xml, use bitmap or rle"));
+		mockMvc.perform(get("/getAllSeats/1").param("format", "RLE")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("1V1B1V"));
+	}
+
+	/** Here we are trying to test that a screen which does not exist is not found */
+	@Test
+	void rejectUnknownScreen() throws Exception {
+		mockMvc.perform(get("/getAllSeats/1111"))
+				.andExpect(jsonPath("$.errorMessage").value("Unable to find screen with given screen id"));
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.app.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class SeatMapSubscriberTest {
+
+	private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+	/** one sender thread, so a blocked client holds up every other one until it is replaced */
+	private final SenderPool sender = new SenderPool(1, 1);
+
+	private final ScreenFeed feed = new ScreenFeed(1,
+			Arrays.asList(new Object[] { 1, false }, new Object[] { 2, false }), f -> {
+			});
+
+	@AfterEach
+	void stopSender() {
+		sender.shutdownNow();
+	}
+
+	/**
+	 * This method waits until the single sender thread ran the tasks queued before,
+	 * so the send of an event already taken has returned as well
+	 */
+	private void awaitSenderIdle() throws InterruptedException {
+		CountDownLatch idle = new CountDownLatch(1);
+		sender.execute(idle::countDown);
+		assertTrue(idle.await(5, TimeUnit.SECONDS));
+	}
+
+	/** emitter of a client which takes every event */
+	private static class ReadingEmitter extends SseEmitter {
+
+		private final BlockingQueue<SseEventBuilder> events = new LinkedBlockingQueue<SseEventBuilder>();
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			events.add(builder);
+		}
+	}
+
+	/** emitter of a client which stopped reading, its send blocks until the write fails */
+	private static class StalledEmitter extends SseEmitter {
+
+		private final CountDownLatch sending = new CountDownLatch(1);
+
+		private final CountDownLatch writeFails = new CountDownLatch(1);
+
+		private volatile Throwable completedWith;
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			sending.countDown();
+			try {
+				writeFails.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			throw new IOException("Broken pipe");
+		}
+
+		@Override
+		public synchronized void completeWithError(Throwable ex) {
+			completedWith = ex;
+		}
+	}
+
+	/** Here we are trying to test that a client blocking its send is dropped and the others get their events */
+	@Test
+	void dropStalledClient() throws InterruptedException {
+		StalledEmitter stalled = new StalledEmitter();
+		SeatMapSubscriber stalledSubscriber = new SeatMapSubscriber(feed, stalled, 4, sender);
+		feed.subscribe(stalledSubscriber);
+		assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+
+		// the only sender thread is blocked, the snapshot of the reading client waits behind it
+		ReadingEmitter reading = new ReadingEmitter();
+		feed.subscribe(new SeatMapSubscriber(feed, reading, 4, sender));
+		assertNull(reading.events.poll(200, TimeUnit.MILLISECONDS));
+
+		// a send within the timeout is left alone
+		assertEquals(0, feed.dropStalled(System.nanoTime(), TIMEOUT));
+		assertEquals(1, sender.getPoolSize());
+
+		assertEquals(1, feed.dropStalled(System.nanoTime() + 2 * TIMEOUT, TIMEOUT));
+		assertEquals(2, sender.getPoolSize());
+		assertNotNull(reading.events.poll(5, TimeUnit.SECONDS));
+
+		// changes only go to the client still reading
+		feed.apply(Collections.singletonList(new Object[] { 1, true }));
+		assertNotNull(reading.events.poll(5, TimeUnit.SECONDS));
+		assertTrue(feed.hasSubscribers());
+
+		// once the write fails the stream of the dropped client ends and the added thread goes
+		stalled.writeFails.countDown();
+		long deadline = System.nanoTime() + TIMEOUT;
+		while (stalled.completedWith == null && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(stalled.completedWith instanceof IOException);
+		assertEquals(1, sender.getPoolSize());
+		assertFalse(stalledSubscriber.dropIfStalled(System.nanoTime() + 2 * TIMEOUT, TIMEOUT));
+	}
+
+	/** Here we are trying to test that a client whose send returns in time is not dropped */
+	@Test
+	void keepClientSendingInTime() throws InterruptedException {
+		ReadingEmitter reading = new ReadingEmitter();
+		SeatMapSubscriber subscriber = new SeatMapSubscriber(feed, reading, 4, sender);
+		feed.subscribe(subscriber);
+		assertNotNull(reading.events.poll(5, TimeUnit.SECONDS));
+
+		// the event is taken before its send returns, so wait for the send to finish
+		awaitSenderIdle();
+		assertEquals(0, feed.dropStalled(System.nanoTime() + 2 * TIMEOUT, TIMEOUT));
+		feed.apply(Collections.singletonList(new Object[] { 2, true }));
+		assertNotNull(reading.events.poll(5, TimeUnit.SECONDS));
+		assertEquals(1, sender.getPoolSize());
+	}
+
+}
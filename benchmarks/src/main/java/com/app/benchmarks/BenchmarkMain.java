@@ -0,0 +1,49 @@
+package com.app.benchmarks;
+
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all the booking benchmarks and writes the results as JMH json, one file
+ * for the uncontended benchmarks and one per thread count for the contended
+ * one. Every benchmark op is a batch of {@value BookingBenchmark#BATCH}
+ * bookings or cancellations per thread, so a score is the time of the whole
+ * batch. Results of two commits are compared by running both into different
+ * directories, for example
+ * 
+ * <pre>
+ * java -Dbenchmarks.results=target/jmh/$(git rev-parse --short HEAD) -jar target/benchmarks.jar
+ * </pre>
+ * 
+ * Any JMH option can be given as argument, e.g. -p backend=memory.
+ */
+public final class BenchmarkMain {
+
+	private BenchmarkMain() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		File results = new File(System.getProperty("benchmarks.results", "target/jmh"));
+		results.mkdirs();
+
+		new Runner(new OptionsBuilder().parent(commandLine)
+				.include(BookingBenchmark.class.getName())
+				.include(CancellationBenchmark.class.getName())
+				.resultFormat(ResultFormatType.JSON)
+				.result(new File(results, "booking.json").getPath()).build()).run();
+
+		for (String threads : System.getProperty("benchmarks.threads", "1,2,4,8,16,32,64").split(",")) {
+			new Runner(new OptionsBuilder().parent(commandLine)
+					.include(ContendedBookingBenchmark.class.getName())
+					.threads(Integer.parseInt(threads.trim()))
+					.resultFormat(ResultFormatType.JSON)
+					.result(new File(results, "contended-" + threads.trim() + ".json").getPath()).build()).run();
+		}
+	}
+
+}
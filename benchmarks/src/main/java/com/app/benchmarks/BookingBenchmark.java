@@ -0,0 +1,112 @@
+package com.app.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Uncontended bookings of one and of four adjacent seats. Every thread books
+ * on a screen of its own, a booking consumes seats so each iteration is a
+ * batch of {@value #BATCH} bookings timed as one shot and the seats are given
+ * back before the next iteration.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = BookingBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = BookingBenchmark.BATCH)
+@Fork(1)
+public class BookingBenchmark {
+
+	/** no of bookings in one iteration */
+	public static final int BATCH = 1000;
+
+	/** most seats a single booking of these benchmarks takes */
+	static final int MAX_SEATS = 4;
+
+	@State(Scope.Benchmark)
+	public static class Backend {
+
+		@Param({ BookingTargets.H2, BookingTargets.MEMORY })
+		public String backend;
+
+		BookingTarget target;
+
+		@Setup(Level.Trial)
+		public void open() {
+			target = BookingTargets.open(backend);
+		}
+
+		@TearDown(Level.Trial)
+		public void close() throws Exception {
+			target.close();
+		}
+
+	}
+
+	@State(Scope.Thread)
+	public static class Screen {
+
+		BookingTarget target;
+
+		int screenId;
+
+		/** position of the next vacant seat */
+		int next;
+
+		final List<Integer> bookingIds = new ArrayList<Integer>();
+
+		@Setup(Level.Trial)
+		public void addScreen(Backend backend) {
+			target = backend.target;
+			screenId = target.addScreen(BATCH * MAX_SEATS);
+		}
+
+		/** gives the seats of the last iteration back */
+		@Setup(Level.Iteration)
+		public void reset() throws Exception {
+			for (Integer bookingId : bookingIds) {
+				target.cancel(bookingId);
+			}
+			bookingIds.clear();
+			next = 0;
+		}
+
+		List<Integer> nextSeats(int count) {
+			List<Integer> seatIds = new ArrayList<Integer>(count);
+			for (int i = 0; i < count; i++) {
+				seatIds.add(BookingTarget.seatId(screenId, next++));
+			}
+			return seatIds;
+		}
+
+	}
+
+	@Benchmark
+	public int bookSingleSeat(Screen screen) throws Exception {
+		int bookingId = screen.target.book(screen.screenId, screen.nextSeats(1));
+		screen.bookingIds.add(bookingId);
+		return bookingId;
+	}
+
+	@Benchmark
+	public int bookFourSeats(Screen screen) throws Exception {
+		int bookingId = screen.target.book(screen.screenId, screen.nextSeats(MAX_SEATS));
+		screen.bookingIds.add(bookingId);
+		return bookingId;
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.app.benchmarks;
+
+import java.util.List;
+
+/**
+ * Booking path a benchmark runs against, either the booking service on an H2
+ * database or the resident seat inventory with in-memory bookings.
+ */
+public interface BookingTarget extends AutoCloseable {
+
+	/** seat ids of a screen start at screen id times this span */
+	int SEAT_ID_SPAN = 1000000;
+
+	/**
+	 * This method adds a screen with vacant seats
+	 * 
+	 * @param seatCount no of seats
+	 * @return screen id of the new screen
+	 */
+	int addScreen(int seatCount);
+
+	/**
+	 * This method books the given seats
+	 * 
+	 * @param screenId
+	 * @param seatIds
+	 * @return booking id
+	 */
+	int book(int screenId, List<Integer> seatIds) throws Exception;
+
+	/**
+	 * This method cancels the booking
+	 * 
+	 * @param bookingId
+	 */
+	void cancel(int bookingId) throws Exception;
+
+	/** @return seat id of the seat at given position of the screen */
+	static int seatId(int screenId, int index) {
+		return screenId * SEAT_ID_SPAN + index + 1;
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.app.benchmarks;
+
+/**
+ * Opens the booking target of a benchmark. Every benchmark runs in its own
+ * forked jvm, so one target is opened per fork and closed with the trial.
+ */
+public final class BookingTargets {
+
+	/** booking service on an H2 database in MySQL mode */
+	public static final String H2 = "h2";
+
+	/** resident seat inventory with in-memory bookings */
+	public static final String MEMORY = "memory";
+
+	private BookingTargets() {
+	}
+
+	/**
+	 * This method opens the target of given backend
+	 * 
+	 * @param backend h2 or memory
+	 * @return booking target
+	 */
+	public static BookingTarget open(String backend) {
+		if (H2.equals(backend)) {
+			return new H2BookingTarget();
+		}
+		if (MEMORY.equals(backend)) {
+			return new MemoryBookingTarget();
+		}
+		throw new IllegalArgumentException("Unknown backend " + backend);
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.app.benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.benchmarks.BookingBenchmark.Backend;
+
+/**
+ * Cancellation of bookings made before the iteration starts, so only the
+ * cancellations are timed.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = BookingBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = BookingBenchmark.BATCH)
+@Fork(1)
+public class CancellationBenchmark {
+
+	@State(Scope.Thread)
+	public static class Bookings {
+
+		/** no of seats of every cancelled booking */
+		@Param({ "1", "4" })
+		public int seatsPerBooking;
+
+		BookingTarget target;
+
+		int screenId;
+
+		final Deque<Integer> bookingIds = new ArrayDeque<Integer>();
+
+		@Setup(Level.Trial)
+		public void addScreen(Backend backend) {
+			target = backend.target;
+			screenId = target.addScreen(BookingBenchmark.BATCH * seatsPerBooking);
+		}
+
+		/** books the seats which the iteration cancels */
+		@Setup(Level.Iteration)
+		public void book() throws Exception {
+			for (Integer bookingId : bookingIds) {
+				target.cancel(bookingId);
+			}
+			bookingIds.clear();
+			for (int i = 0; i < BookingBenchmark.BATCH; i++) {
+				List<Integer> seatIds = new ArrayList<Integer>(seatsPerBooking);
+				for (int j = 0; j < seatsPerBooking; j++) {
+					seatIds.add(BookingTarget.seatId(screenId, i * seatsPerBooking + j));
+				}
+				bookingIds.add(target.book(screenId, seatIds));
+			}
+		}
+
+	}
+
+	@Benchmark
+	public void cancel(Bookings bookings) throws Exception {
+		bookings.target.cancel(bookings.bookingIds.poll());
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.app.benchmarks;
+
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Single seat bookings of all the threads on the same screen, so every
+ * booking waits for the same screen lock. The thread count is given with -t,
+ * {@link BenchmarkMain} runs it for 1 to 64 threads.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = BookingBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = BookingBenchmark.BATCH)
+@Fork(1)
+public class ContendedBookingBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class SharedScreen {
+
+		@Param({ BookingTargets.H2, BookingTargets.MEMORY })
+		public String backend;
+
+		BookingTarget target;
+
+		int screenId;
+
+		/** position of the next vacant seat, shared by all the threads */
+		final AtomicInteger next = new AtomicInteger();
+
+		final Queue<Integer> bookingIds = new ConcurrentLinkedQueue<Integer>();
+
+		@Setup(Level.Trial)
+		public void open(BenchmarkParams params) {
+			target = BookingTargets.open(backend);
+			screenId = target.addScreen(BookingBenchmark.BATCH * params.getThreads());
+		}
+
+		/** gives the seats of the last iteration back */
+		@Setup(Level.Iteration)
+		public void reset() throws Exception {
+			for (Integer bookingId = bookingIds.poll(); bookingId != null; bookingId = bookingIds.poll()) {
+				target.cancel(bookingId);
+			}
+			next.set(0);
+		}
+
+		@TearDown(Level.Trial)
+		public void close() throws Exception {
+			target.close();
+		}
+
+	}
+
+	@Benchmark
+	public int bookSameScreen(SharedScreen screen) throws Exception {
+		int seatId = BookingTarget.seatId(screen.screenId, screen.next.getAndIncrement());
+		int bookingId = screen.target.book(screen.screenId, Collections.singletonList(seatId));
+		screen.bookingIds.add(bookingId);
+		return bookingId;
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.app.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.app.BookingApplication;
+import com.app.service.BookingService;
+
+/**
+ * Booking service started with an H2 database in MySQL mode. Bookings go
+ * through BookingServiceImpl with its transactions, screen locks, seat
+ * inventory and conditional seat claims exactly as they do against MySQL.
+ */
+class H2BookingTarget implements BookingTarget {
+
+	private static final int USER_ID = 1;
+
+	private final ConfigurableApplicationContext context;
+
+	private final BookingService bookingService;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final AtomicInteger nextScreenId = new AtomicInteger();
+
+	H2BookingTarget() {
+		context = new SpringApplicationBuilder(BookingApplication.class).bannerMode(Banner.Mode.OFF)
+				.properties("spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+						"spring.datasource.username=sa", "spring.datasource.password=",
+						"spring.datasource.hikari.maximum-pool-size=64", "spring.jpa.hibernate.ddl-auto=create",
+						"spring.jpa.hibernate.use-new-id-generator-mappings=false",
+						"spring.jpa.properties.hibernate.jdbc.batch_size=50",
+						"spring.jpa.properties.hibernate.order_inserts=true", "spring.jpa.show-sql=false",
+						"spring.main.web-application-type=none", "eureka.client.enabled=false",
+						"logging.level.root=WARN")
+				.run();
+		bookingService = context.getBean(BookingService.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		jdbcTemplate.update("insert into movie(movie_id, movie_name, movie_category, movie_rating, movie_format, "
+				+ "movie_language) values (1, 'benchmark', 'drama', 4, '2D', 'english')");
+		jdbcTemplate.update("insert into user(user_id, user_name, user_email, user_password, role) "
+				+ "values (?, 'benchmark', 'benchmark@mail.com', 'password', 'user')", USER_ID);
+	}
+
+	@Override
+	public int addScreen(int seatCount) {
+		int screenId = nextScreenId.incrementAndGet();
+		jdbcTemplate.update("insert into screen(screen_id, movie_id, date_of_show, time_of_show, free_seats) "
+				+ "values (?, 1, ?, '10', ?)", screenId, new Date(), seatCount);
+		List<Object[]> seats = new ArrayList<Object[]>();
+		for (int i = 0; i < seatCount; i++) {
+			seats.add(new Object[] { BookingTarget.seatId(screenId, i), screenId, i / 20, i % 20 });
+		}
+		jdbcTemplate.batchUpdate(
+				"insert into seat(seat_id, screen_id, status, seat_row, seat_column) values (?, ?, false, ?, ?)", seats);
+		return screenId;
+	}
+
+	@Override
+	public int book(int screenId, List<Integer> seatIds) throws Exception {
+		return bookingService.bookTheMovie(USER_ID, screenId, seatIds).getBookingId();
+	}
+
+	@Override
+	public void cancel(int bookingId) throws Exception {
+		bookingService.deleteBooking(bookingId);
+	}
+
+	@Override
+	public void close() {
+		context.close();
+	}
+
+}
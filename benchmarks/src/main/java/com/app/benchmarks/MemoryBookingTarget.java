@@ -0,0 +1,88 @@
+package com.app.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.app.exception.InvalidDataException;
+import com.app.exception.NotFoundException;
+import com.app.inventory.ScreenSeatMap;
+import com.app.inventory.SeatClaim;
+import com.app.lock.ScreenLockManager;
+import com.app.lock.ScreenLockManager.HeldLock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Booking path with the repositories replaced by maps. A booking takes the
+ * screen lock and claims its seats in the screen bitmap like the booking
+ * service does, so the result is the cost of the in-memory part of a booking
+ * without the database.
+ */
+class MemoryBookingTarget implements BookingTarget {
+
+	private final ScreenLockManager screenLocks = new ScreenLockManager(64, new SimpleMeterRegistry());
+
+	private final Map<Integer, ScreenSeatMap> screens = new ConcurrentHashMap<Integer, ScreenSeatMap>();
+
+	/** claims of the bookings keyed by booking id */
+	private final Map<Integer, SeatClaim> bookings = new ConcurrentHashMap<Integer, SeatClaim>();
+
+	private final AtomicInteger nextScreenId = new AtomicInteger();
+
+	private final AtomicInteger nextBookingId = new AtomicInteger();
+
+	@Override
+	public int addScreen(int seatCount) {
+		int screenId = nextScreenId.incrementAndGet();
+		int[] seatIds = new int[seatCount];
+		int[] rows = new int[seatCount];
+		int[] columns = new int[seatCount];
+		for (int i = 0; i < seatCount; i++) {
+			seatIds[i] = BookingTarget.seatId(screenId, i);
+			rows[i] = i / 20;
+			columns[i] = i % 20;
+		}
+		screens.put(screenId, new ScreenSeatMap(screenId, seatIds, new boolean[seatCount], rows, columns));
+		return screenId;
+	}
+
+	@Override
+	public int book(int screenId, List<Integer> seatIds) throws Exception {
+		ScreenSeatMap seatMap = screens.get(screenId);
+		int[] indexes = new int[seatIds.size()];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = seatMap.indexOf(seatIds.get(i));
+			if (indexes[i] < 0) {
+				throw new NotFoundException("Unable to find seat with given seat id");
+			}
+		}
+		try (HeldLock lock = screenLocks.lock(screenId)) {
+			if (!seatMap.claim(indexes)) {
+				throw new InvalidDataException("One or more of the selected seats is already booked");
+			}
+			int bookingId = nextBookingId.incrementAndGet();
+			bookings.put(bookingId, new SeatClaim(seatMap, indexes));
+			return bookingId;
+		}
+	}
+
+	@Override
+	public void cancel(int bookingId) throws Exception {
+		SeatClaim claim = bookings.remove(bookingId);
+		if (claim == null) {
+			throw new NotFoundException("Unable to find booking  by given booking id");
+		}
+		try (HeldLock lock = screenLocks.lock(claim.getSeatMap().getScreenId())) {
+			claim.release();
+		}
+	}
+
+	@Override
+	public void close() {
+		bookings.clear();
+		screens.clear();
+	}
+
+}
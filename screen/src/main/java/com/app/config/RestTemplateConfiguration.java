@@ -0,0 +1,26 @@
+package com.app.config;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * This configuration provides the rest template used for calling other
+ * services registered with eureka.
+ *
+ */
+@Configuration
+public class RestTemplateConfiguration {
+
+	/**
+	 * This method creates a rest template which resolves service names through
+	 * eureka.
+	 */
+	@Bean
+	@LoadBalanced
+	public RestTemplate restTemplate() {
+		return new RestTemplate();
+	}
+
+}
@@ -17,6 +17,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 
 import org.springframework.format.annotation.DateTimeFormat;
@@ -61,10 +62,35 @@ public class Screen {
 	@Column(name = "time_of_show", nullable = false)
 	String timeOfShow;
 
+	/**
+	 * This field indicate the no of vacant seats of the screen, it is set when the
+	 * screen is added and kept in step with the seats by the booking service
+	 */
+	@Column(name = "free_seats", updatable = false)
+	@EqualsAndHashCode.Exclude
+	private Integer freeSeats;
+
+	/**
+	 * This field indicate the version of the row, it is raised on every update so
+	 * a concurrent change of the screen is detected instead of overwritten
+	 */
+	@Version
+	@Column(name = "version", columnDefinition = "bigint default 0 not null")
+	@EqualsAndHashCode.Exclude
+	private long version;
+
 	public Screen() {
 		// TODO Auto-generated constructor stub
 	}
 
+	public Screen(int screen_id, Movie movie, Date dateOfShow, String timeOfShow) {
+		super();
+		this.screen_id = screen_id;
+		this.movie = movie;
+		this.dateOfShow = dateOfShow;
+		this.timeOfShow = timeOfShow;
+	}
+
 	public Screen(Movie movie, Date dateOfShow, String timeOfShow) {
 		super();
 		this.movie = movie;
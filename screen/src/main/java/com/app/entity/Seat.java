@@ -4,6 +4,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
@@ -21,6 +22,7 @@ import lombok.Setter;
 import lombok.ToString;
 
 import javax.persistence.JoinColumn;
+import javax.persistence.Version;
 
 /**
  * Seat entity seat id and status of the seat . Lambok library provides
@@ -56,12 +58,47 @@ public class Seat {
 	 */
 	boolean status;
 
+	/**
+	 * This field indicate the row of the seat, rows are counted from the front of
+	 * the screen starting at 0
+	 */
+	@Column(name = "seat_row")
+	Integer seatRow;
+
+	/** This field indicate the position of the seat in its row starting at 0 */
+	@Column(name = "seat_column")
+	Integer seatColumn;
+
+	/**
+	 * This field indicate the version of the row, it is raised on every update so
+	 * a concurrent change of the seat is detected instead of overwritten
+	 */
+	@Version
+	@Column(name = "version", columnDefinition = "bigint default 0 not null")
+	@EqualsAndHashCode.Exclude
+	long version;
+
 	public Seat(Screen screen, boolean status) {
 		super();
 		this.screen = screen;
 		this.status = status;
 	}
 
+	public Seat(Screen screen, boolean status, int seatRow, int seatColumn) {
+		super();
+		this.screen = screen;
+		this.status = status;
+		this.seatRow = seatRow;
+		this.seatColumn = seatColumn;
+	}
+
+	public Seat(int seat_id, Screen screen, boolean status) {
+		super();
+		this.seat_id = seat_id;
+		this.screen = screen;
+		this.status = status;
+	}
+
 	public Seat() {
 		// TODO Auto-generated constructor stub
 	}
@@ -8,8 +8,11 @@ import javax.persistence.EntityManager;
 
 import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
 
 import com.app.entity.Movie;
 import com.app.entity.Screen;
@@ -24,6 +27,9 @@ import com.app.repository.SeatRepository;
 @Repository
 public class ScreenServiceImpl implements ScreenService {
 
+	/** no of seats in every row of a new screen */
+	private static final int SEATS_PER_ROW = 10;
+
 	/** auto wired MovieRepository for accessing the methods of movie repository */
 	@Autowired
 	private MovieRepository movieRepository;
@@ -38,6 +44,14 @@ public class ScreenServiceImpl implements ScreenService {
 	@Autowired
 	private SeatRepository seatRepository;
 
+	/** auto wired rest template for calling the booking service */
+	@Autowired
+	private RestTemplate restTemplate;
+
+	/** url of the booking service which keeps the seat inventory in memory */
+	@Value("${screen.booking-service-url:http://booking}")
+	private String bookingServiceUrl;
+
 	/**
 	 * In This method we get list of all the movies in the theater
 	 * 
@@ -65,11 +79,12 @@ public class ScreenServiceImpl implements ScreenService {
 				.orElseThrow(() -> new NotFoundException("Unable to find movie with this movie id"));
 		Screen screen = new Screen(movie, date, timeOfShow);
 		List<Seat> seatList = new ArrayList<Seat>();
-		for (int i = 1; i <= 10; i++) {
-			Seat seatno = new Seat(screen, false);
+		for (int i = 0; i < 10; i++) {
+			Seat seatno = new Seat(screen, false, i / SEATS_PER_ROW, i % SEATS_PER_ROW);
 			seatList.add(seatno);
 		}
 		seatRepository.saveAll(seatList);
+		screen.setFreeSeats(seatList.size());
 		return screenRepository.save(screen);
 	}
 
@@ -97,9 +112,24 @@ public class ScreenServiceImpl implements ScreenService {
 	 */
 	@Override
 	public Integer getAvailableSeatsInSelectedScreen(int screenId) throws NotFoundException {
-		// TODO Auto-generated method stub
 		Screen screen = screenRepository.findById(screenId)
 				.orElseThrow(() -> new NotFoundException("Unable to find seats with this screen id"));
+
+		/** the free seat counter of the screen row answers without reading any seat */
+		if (screen.getFreeSeats() != null) {
+			return screen.getFreeSeats();
+		}
+
+		/** the booking service answers from its seat inventory without reading every seat */
+		try {
+			Integer available = restTemplate.getForObject(bookingServiceUrl + "/inventory/available/{screenId}",
+					Integer.class, screenId);
+			if (available != null) {
+				return available;
+			}
+		} catch (RestClientException e) {
+			// booking service is not reachable, count the seats from the seat table
+		}
 		List<Seat> t = seatRepository.getAllSeatsOfSelectedScreen(screen);
 		int count = 0;
 		for (Seat seat : t) {